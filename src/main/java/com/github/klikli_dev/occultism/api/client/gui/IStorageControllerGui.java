@@ -29,8 +29,26 @@ import java.util.List;
 
 public interface IStorageControllerGui {
     //region Getter / Setter
+    List<ItemStack> getStacks();
+
     void setStacks(List<ItemStack> stacks);
 
+    /**
+     * Switches to paged mode, where the server filters and sorts the stacks and only sends the requested page.
+     *
+     * @param offset      the index of the first stack of the page in all matching stacks.
+     * @param totalStacks the amount of stacks matching the search, across all pages.
+     * @param stacks      the stacks of the page.
+     */
+    void setStacksPage(int offset, int totalStacks, List<ItemStack> stacks);
+
+    /**
+     * @return the storage controller revision the current stacks belong to.
+     */
+    long getStacksRevision();
+
+    void setStacksRevision(long revision);
+
     void setUsedSlots(int slots);
 
     void setMaxSlots(int slots);
@@ -39,4 +57,13 @@ public interface IStorageControllerGui {
 
     void setLinkedMachines(List<MachineReference> machines);
     //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Requests all stacks from the server, along with the query for the first page in case the server only sends
+     * pages.
+     */
+    void requestStacks();
+    //endregion Methods
 }
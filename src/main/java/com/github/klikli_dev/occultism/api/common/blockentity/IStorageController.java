@@ -25,12 +25,18 @@ package com.github.klikli_dev.occultism.api.common.blockentity;
 import com.github.klikli_dev.occultism.api.common.container.IItemStackComparator;
 import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.github.klikli_dev.occultism.api.common.data.MachineReference;
+import com.github.klikli_dev.occultism.common.misc.DepositOrderDispatcher;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerPagedView;
 import com.github.klikli_dev.occultism.network.MessageUpdateStacks;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacksDelta;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacksPage;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.ItemStack;
 
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 public interface IStorageController {
@@ -47,10 +53,44 @@ public interface IStorageController {
     /**
      * Gets a message to update stacks, re-uses cached messages whenever possible
      *
-     * @return the stack update message.
+     * @return the stack update message, or null if it is still being encoded off the server thread.
      */
     MessageUpdateStacks getMessageUpdateStacks();
 
+    /**
+     * Gets a message to update stacks, encoded off the server thread. The future is shared by all callers until the
+     * stacks change.
+     *
+     * @return the future stack update message.
+     */
+    CompletableFuture<MessageUpdateStacks> getMessageUpdateStacksAsync();
+
+    /**
+     * Gets a message containing only the stacks that changed since the given revision.
+     *
+     * @param sinceRevision the revision the receiver last got.
+     * @return the delta message, or null if the changes are no longer known and a full update is required.
+     */
+    MessageUpdateStacksDelta getMessageUpdateStacksDelta(long sinceRevision);
+
+    /**
+     * Gets a message containing the page of stacks the given view currently shows.
+     *
+     * @param pagedView the paged view of the receiving player.
+     * @return the page message.
+     */
+    MessageUpdateStacksPage getMessageUpdateStacksPage(StorageControllerPagedView pagedView);
+
+    /**
+     * @return the amount of distinct stacks, that is the amount of stacks a full stack update contains.
+     */
+    int getDistinctStackCount();
+
+    /**
+     * @return the current revision of the stored stacks, increased on every change.
+     */
+    long getStacksRevision();
+
     /**
      * @return the max slots available in this storage controller.
      */
@@ -62,7 +102,7 @@ public interface IStorageController {
     void setMaxSlots(int slots);
 
     /**
-     * @return the used up slots. Usually lazily updated when calling getStacks.
+     * @return the used up slots.
      */
     int getUsedSlots();
 
@@ -104,10 +144,17 @@ public interface IStorageController {
 
     /**
      * Removes the given spirit uuid from the list of spirits to give orders to.
+     * If no spirit is left for the machine, the machine is unlinked and its pending orders are dropped.
      *
      * @param linkedMachinePosition the position of the machine to deposit in.
+     * @param spiritId              the uuid of the spirit
      */
-    void removeDepositOrderSpirit(GlobalBlockPos linkedMachinePosition);
+    void removeDepositOrderSpirit(GlobalBlockPos linkedMachinePosition, UUID spiritId);
+
+    /**
+     * @return the dispatcher holding the pending deposit orders of this controller.
+     */
+    DepositOrderDispatcher getDepositOrderDispatcher();
 
     /**
      * @param stack the stack to check.
@@ -155,5 +202,19 @@ public interface IStorageController {
      * Called when the contents of the storage controller change.
      */
     void onContentsChanged();
+
+    /**
+     * Registers the player to receive stack updates while they have a storage controller container open.
+     *
+     * @param player the viewing player.
+     */
+    void addViewer(ServerPlayer player);
+
+    /**
+     * Stops sending stack updates to the player.
+     *
+     * @param player the viewing player.
+     */
+    void removeViewer(ServerPlayer player);
     //endregion Methods
 }
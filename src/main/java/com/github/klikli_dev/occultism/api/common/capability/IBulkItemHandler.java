@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.api.common.capability;
+
+import net.minecraft.world.item.ItemStack;
+
+import java.util.List;
+
+/**
+ * Bulk item access to a storage, for callers that move many stacks at once (spirits, pipes, automation).
+ * Unlike {@link net.minecraftforge.items.IItemHandler} this is not slot based: each call resolves all stacks in one
+ * pass over the storage index, and simulations account for all stacks of the same call.
+ */
+public interface IBulkItemHandler {
+    //region Methods
+
+    /**
+     * Inserts the given stacks. A simulation takes into account that earlier stacks use up space for later stacks.
+     *
+     * @param stacks   the stacks to insert, not modified.
+     * @param simulate true for simulation.
+     * @return the remainder for each stack, in the same order, empty if the stack was fully inserted.
+     */
+    List<ItemStack> insertStacks(List<ItemStack> stacks, boolean simulate);
+
+    /**
+     * Inserts the given stacks only if all of them fit completely.
+     *
+     * @param stacks   the stacks to insert, not modified.
+     * @param simulate true for simulation.
+     * @return true if all stacks were (or would be) inserted, false if nothing was inserted.
+     */
+    boolean insertAllStacks(List<ItemStack> stacks, boolean simulate);
+
+    /**
+     * Extracts up to the given amount of items stacking with the given key.
+     * The result may be larger than the max stack size of the item, callers need to split it as needed.
+     *
+     * @param key      the item and nbt to extract, the count is ignored.
+     * @param amount   the amount to extract.
+     * @param simulate true for simulation.
+     * @return the extracted items, empty if nothing matched.
+     */
+    ItemStack extractStack(ItemStack key, int amount, boolean simulate);
+
+    /**
+     * Extracts the given keys, using the count of each key as requested amount.
+     * Keys stacking with each other are merged, so the same items are never handed out twice in a simulation.
+     *
+     * @param keys     the items, nbt and amounts to extract, not modified.
+     * @param simulate true for simulation.
+     * @return the extracted items for each key, in the same order.
+     */
+    List<ItemStack> extractStacks(List<ItemStack> keys, boolean simulate);
+
+    /**
+     * Gets the stored amount of items stacking with the given key.
+     *
+     * @param key the item and nbt to count, the count is ignored.
+     * @return the stored amount.
+     */
+    int getCount(ItemStack key);
+    //endregion Methods
+}
@@ -24,10 +24,16 @@ package com.github.klikli_dev.occultism.api.common.container;
 
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerPagedView;
 import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.inventory.CraftingContainer;
 
 public interface IStorageControllerContainer {
+    /**
+     * Synced revision of a container waiting for a full stack update that is still being encoded.
+     */
+    long SYNC_PENDING = -2;
+
     //region Getter / Setter
     IStorageController getStorageController();
 
@@ -41,6 +47,19 @@ public interface IStorageControllerContainer {
      * @return true if this is an item based access to the controller, false if it is a block.
      */
     boolean isContainerItem();
+
+    /**
+     * @return the storage controller revision last sent to the player, -1 if no stacks have been sent yet, or
+     * {@link #SYNC_PENDING} if a full update is being encoded.
+     */
+    long getSyncedRevision();
+
+    void setSyncedRevision(long revision);
+
+    /**
+     * @return the server side paged view of the player, only used if enabled.
+     */
+    StorageControllerPagedView getPagedView();
     //endregion Getter / Setter
 
     //region Methods
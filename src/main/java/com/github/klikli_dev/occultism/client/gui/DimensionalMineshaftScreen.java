@@ -68,9 +68,8 @@ public class DimensionalMineshaftScreen extends AbstractContainerScreen<Dimensio
         RenderSystem.setShaderTexture(0, TEXTURE);
 
         this.blit(stack, this.leftPos, this.topPos, 0, 0, this.imageWidth, this.imageHeight);
-        int miningTime = this.otherworldMiner.miningTime;
-        int progress = (int) (18 * (1.0F - (float) miningTime / this.otherworldMiner.maxMiningTime));
-        if (progress > 0 && miningTime > 0) {
+        int progress = 18 * this.menu.getMiningProgress() / DimensionalMineshaftBlockEntity.MINING_PROGRESS_SCALE;
+        if (progress > 0) {
             this.blit(stack, this.leftPos + 61, this.topPos + 41, 176, 0, progress + 1, 4);
         }
     }
@@ -42,6 +42,8 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.inventory.Slot;
+import net.minecraftforge.items.SlotItemHandler;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.WordUtils;
 
@@ -154,6 +156,7 @@ public class SpiritGui<T extends SpiritContainer> extends AbstractContainerScree
         RenderSystem.setShaderTexture(0, TEXTURE);
 
         this.blit(poseStack, this.leftPos, this.topPos, 0, 0, this.imageWidth, this.imageHeight);
+        this.renderAdditionalInventorySlots(poseStack);
 
         poseStack.pushPose();
         int scale = 30;
@@ -161,5 +164,21 @@ public class SpiritGui<T extends SpiritContainer> extends AbstractContainerScree
                 this.topPos + 75 - 50 - y, this.spirit);
         poseStack.popPose();
     }
+
+    /**
+     * Draws the slot backgrounds for the inventory slots beyond the held item, which are placed next to the gui.
+     *
+     * @param poseStack the pose stack.
+     */
+    protected void renderAdditionalInventorySlots(PoseStack poseStack) {
+        RenderSystem.setShaderTexture(0, TEXTURE);
+        for (Slot slot : this.container.slots) {
+            if (slot instanceof SlotItemHandler itemSlot && itemSlot.getItemHandler() == this.container.inventory &&
+                    itemSlot.getSlotIndex() > 0) {
+                //reuse the held item slot background of the texture
+                this.blit(poseStack, this.leftPos + slot.x - 1, this.topPos + slot.y - 1, 151, 53, 18, 18);
+            }
+        }
+    }
 //endregion Static Methods
 }
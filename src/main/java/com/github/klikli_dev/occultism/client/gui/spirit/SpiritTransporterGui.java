@@ -137,6 +137,7 @@ public class SpiritTransporterGui extends SpiritGui<SpiritTransporterContainer>
         RenderSystem.setShaderTexture(0, TEXTURE);
 
         this.blit(poseStack, this.leftPos, this.topPos, 0, 0, this.imageWidth, this.imageHeight);
+        this.renderAdditionalInventorySlots(poseStack);
 
         poseStack.pushPose();
         int scale = 30;
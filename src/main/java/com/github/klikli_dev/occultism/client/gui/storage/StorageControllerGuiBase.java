@@ -32,6 +32,7 @@ import com.github.klikli_dev.occultism.client.gui.controls.LabelWidget;
 import com.github.klikli_dev.occultism.client.gui.controls.MachineSlotWidget;
 import com.github.klikli_dev.occultism.client.gui.controls.SizedImageButton;
 import com.github.klikli_dev.occultism.common.container.storage.StorageControllerContainerBase;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerSearchCache;
 import com.github.klikli_dev.occultism.integration.jei.JeiAccess;
 import com.github.klikli_dev.occultism.integration.jei.JeiSettings;
 import com.github.klikli_dev.occultism.network.*;
@@ -75,6 +76,7 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     protected static final ResourceLocation BUTTONS = new ResourceLocation(Occultism.MODID, "textures/gui/buttons.png");
     protected static final String TRANSLATION_KEY_BASE = "gui." + Occultism.MODID + ".storage_controller";
     public List<ItemStack> stacks;
+    protected long stacksRevision = -1;
     public List<MachineReference> linkedMachines;
     public IStorageControllerContainer storageControllerContainer;
     public int usedSlots;
@@ -100,6 +102,27 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
 
     protected boolean forceFocus;
     protected long lastClick;
+
+    //Note: If search stops working, forge may have re-implemented .getUnformattedComponentText() for translated text components
+    protected StorageControllerSearchCache searchCache = new StorageControllerSearchCache(
+            stack -> stack.getDisplayName().getString(), this::getTooltipSearchString);
+
+    /**
+     * True if the server only sends the stacks of the requested page, filtered and sorted.
+     */
+    protected boolean pagedView;
+    protected int pageOffset;
+    protected int pagedStackCount;
+    /**
+     * The last page requested from the server, to only request again if the query changed or the visible stacks
+     * are no longer covered.
+     */
+    protected String requestedSearchText;
+    protected SortType requestedSortType;
+    protected SortDirection requestedSortDirection;
+    protected int requestedPageOffset;
+    protected int requestedPageSize;
+    protected boolean stacksRequested;
     //endregion Fields
 
     //region Initialization
@@ -122,8 +145,6 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         this.linkedMachines = new ArrayList<>();
 
         this.lastClick = System.currentTimeMillis();
-
-        OccultismPackets.sendToServer(new MessageRequestStacks());
     }
     //endregion Initialization
 
@@ -182,9 +203,41 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         this.renderComponentTooltip(poseStack, tooltip, x, y);
     }
 
+    @Override
+    public List<ItemStack> getStacks() {
+        return this.stacks;
+    }
+
     @Override
     public void setStacks(List<ItemStack> stacks) {
         this.stacks = stacks;
+        this.pagedView = false;
+    }
+
+    @Override
+    public void requestStacks() {
+        String searchText = this.searchBar != null ? this.searchBar.getValue() : "";
+        this.updateRequestedPage(searchText);
+        OccultismPackets.sendToServer(new MessageRequestStacks(searchText, this.requestedSortType,
+                this.requestedSortDirection, this.requestedPageOffset, this.requestedPageSize));
+    }
+
+    @Override
+    public void setStacksPage(int offset, int totalStacks, List<ItemStack> stacks) {
+        this.stacks = stacks;
+        this.pageOffset = offset;
+        this.pagedStackCount = totalStacks;
+        this.pagedView = true;
+    }
+
+    @Override
+    public long getStacksRevision() {
+        return this.stacksRevision;
+    }
+
+    @Override
+    public void setStacksRevision(long revision) {
+        this.stacksRevision = revision;
     }
 
     @Override
@@ -250,6 +303,12 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
                 .addLine(I18n.get(TRANSLATION_KEY_BASE + ".space_info_label", this.usedSlots, this.maxSlots), false);
         this.addRenderableWidget(this.storageSpaceLabel);
         this.initButtons();
+
+        //requested here instead of the constructor, as the sort settings of subclasses are not available before.
+        if (!this.stacksRequested) {
+            this.stacksRequested = true;
+            this.requestStacks();
+        }
     }
 
     @Override
@@ -415,7 +474,6 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     @Override
     public boolean charTyped(char typedChar, int keyCode) {
         if (this.searchBar.isFocused() && this.searchBar.charTyped(typedChar, keyCode)) {
-            OccultismPackets.sendToServer(new MessageRequestStacks());
             if (JeiSettings.isJeiLoaded() && JeiSettings.isJeiSearchSynced()) {
                 JeiAccess.setFilterText(this.searchBar.getValue());
             }
@@ -435,7 +493,7 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
                 this.topPos + clearRecipeButtonTop, controlButtonSize, controlButtonSize, 0, 196, 28, 28, 28, 256, 256,
                 BUTTONS, (button) -> {
             OccultismPackets.sendToServer(new MessageClearCraftingMatrix());
-            OccultismPackets.sendToServer(new MessageRequestStacks());
+            this.requestStacks();
             this.init();
         });
         this.addRenderableWidget(this.clearRecipeButton);
@@ -535,13 +593,58 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     protected void drawItems(PoseStack poseStack, float partialTicks, int mouseX, int mouseY) {
-        List<ItemStack> stacksToDisplay = this.applySearchToItems();
-        this.sortItemStacks(stacksToDisplay);
-        this.buildPage(stacksToDisplay);
-        this.buildItemSlots(stacksToDisplay);
+        if (this.pagedView) {
+            //the server already filtered and sorted the stacks
+            this.buildPage(this.pagedStackCount);
+            this.requestStacksPage();
+            this.buildItemSlots(this.stacks, this.pageOffset);
+        } else {
+            List<ItemStack> stacksToDisplay = this.searchCache.getResult(this.stacks, this.searchBar.getValue(),
+                    this.getSortType(), this.getSortDirection());
+            this.buildPage(stacksToDisplay);
+            this.buildItemSlots(stacksToDisplay, 0);
+        }
         this.drawItemSlots(poseStack, mouseX, mouseY);
     }
 
+    /**
+     * Requests the stacks around the visible page from the server, if the search or sort changed or the visible
+     * stacks are not covered by the last request.
+     */
+    protected void requestStacksPage() {
+        String searchText = this.searchBar.getValue();
+        int visibleOffset = (this.currentPage - 1) * this.columns;
+        int visibleSize = this.rows * this.columns;
+
+        boolean queryChanged = !searchText.equals(this.requestedSearchText) ||
+                this.getSortType() != this.requestedSortType || this.getSortDirection() != this.requestedSortDirection;
+        boolean visibleCovered = visibleOffset >= this.requestedPageOffset &&
+                visibleOffset + visibleSize <= this.requestedPageOffset + this.requestedPageSize;
+        if (!queryChanged && visibleCovered)
+            return;
+
+        this.updateRequestedPage(searchText);
+        OccultismPackets.sendToServer(new MessageRequestStacksPage(searchText, this.requestedSortType,
+                this.requestedSortDirection, this.requestedPageOffset, this.requestedPageSize));
+    }
+
+    /**
+     * Remembers the page around the visible stacks for the given search as the last requested page.
+     *
+     * @param searchText the search text.
+     */
+    protected void updateRequestedPage(String searchText) {
+        int visibleOffset = (this.currentPage - 1) * this.columns;
+        int visibleSize = this.rows * this.columns;
+
+        //also fetch the page before and after, so scrolling does not have to wait for the server
+        this.requestedSearchText = searchText;
+        this.requestedSortType = this.getSortType();
+        this.requestedSortDirection = this.getSortDirection();
+        this.requestedPageOffset = Math.max(0, visibleOffset - visibleSize);
+        this.requestedPageSize = visibleSize * 3;
+    }
+
     protected void drawMachines(PoseStack poseStack, float partialTicks, int mouseX, int mouseY) {
         List<MachineReference> machinesToDisplay = this.applySearchToMachines();
         this.sortMachines(machinesToDisplay);
@@ -659,13 +762,20 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         }
     }
 
-    protected void buildItemSlots(List<ItemStack> stacksToDisplay) {
+    /**
+     * Builds the slots for the current page.
+     *
+     * @param stacksToDisplay the stacks to display.
+     * @param firstIndex      the index of the first of the given stacks in all stacks to display, only non-zero in
+     *                        paged mode.
+     */
+    protected void buildItemSlots(List<ItemStack> stacksToDisplay, int firstIndex) {
 
         int itemAreaLeft = 8 + ORDER_AREA_OFFSET;
         int itemAreaTop = 24;
 
         this.itemSlots = new ArrayList<>();
-        int index = (this.currentPage - 1) * (this.columns);
+        int index = (this.currentPage - 1) * (this.columns) - firstIndex;
         for (int row = 0; row < this.rows; row++) {
             if (index >= stacksToDisplay.size()) {
                 break;
@@ -674,19 +784,26 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
                 if (index >= stacksToDisplay.size()) {
                     break;
                 }
-                this.itemSlots
-                        .add(new ItemSlotWidget(this, stacksToDisplay.get(index),
-                                this.leftPos + itemAreaLeft + col * 18,
-                                this.topPos + itemAreaTop + row * 18, stacksToDisplay.get(index).getCount(),
-                                this.leftPos, this.topPos, true));
+                //in paged mode the page may not have arrived yet
+                if (index >= 0) {
+                    this.itemSlots
+                            .add(new ItemSlotWidget(this, stacksToDisplay.get(index),
+                                    this.leftPos + itemAreaLeft + col * 18,
+                                    this.topPos + itemAreaTop + row * 18, stacksToDisplay.get(index).getCount(),
+                                    this.leftPos, this.topPos, true));
+                }
                 index++;
             }
         }
     }
 
     protected void buildPage(List<?> objectsToDisplay) {
-        this.totalPages = objectsToDisplay.size() / this.columns;
-        if (objectsToDisplay.size() % this.columns != 0) {
+        this.buildPage(objectsToDisplay.size());
+    }
+
+    protected void buildPage(int objectCount) {
+        this.totalPages = objectCount / this.columns;
+        if (objectCount % this.columns != 0) {
             this.totalPages++;
         }
         this.totalPages -= (this.rows - 1);
@@ -701,46 +818,11 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         }
     }
 
-    protected void sortItemStacks(List<ItemStack> stacksToDisplay) {
-        stacksToDisplay.sort(new Comparator<ItemStack>() {
-
-            //region Fields
-            final int direction = StorageControllerGuiBase.this.getSortDirection().isDown() ? -1 : 1;
-            //endregion Fields
-
-            //region Overrides
-            @Override
-            public int compare(ItemStack a, ItemStack b) {
-                switch (StorageControllerGuiBase.this.getSortType()) {
-                    case AMOUNT:
-                        return Integer.compare(b.getCount(), a.getCount()) * this.direction;
-                    case NAME:
-                        return a.getDisplayName().getString()
-                                .compareToIgnoreCase(b.getDisplayName().getString()) *
-                                this.direction;
-                    case MOD:
-                        return TextUtil.getModNameForGameObject(a.getItem())
-                                .compareToIgnoreCase(TextUtil.getModNameForGameObject(b.getItem())) *
-                                this.direction;
-                }
-                return 0;
-            }
-            //endregion Overrides
-        });
-    }
-
-    protected List<ItemStack> applySearchToItems() {
-        String searchText = this.searchBar.getValue();
-
-        if (!searchText.equals("")) {
-            List<ItemStack> stacksToDisplay = new ArrayList<>();
-            for (ItemStack stack : this.stacks) {
-                if (this.itemMatchesSearch(stack))
-                    stacksToDisplay.add(stack);
-            }
-            return stacksToDisplay;
-        }
-        return new ArrayList<>(this.stacks);
+    protected String getTooltipSearchString(ItemStack stack) {
+        List<String> tooltip = stack.getTooltipLines(this.minecraft.player, TooltipFlag.Default.NORMAL).stream()
+                .map(Component::getString).collect(
+                        Collectors.toList());
+        return Joiner.on(' ').join(tooltip).toLowerCase().trim();
     }
 
     protected List<MachineReference> applySearchToMachines() {
@@ -758,30 +840,6 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         return new ArrayList<>(this.linkedMachines);
     }
 
-    protected boolean itemMatchesSearch(ItemStack stack) {
-        String searchText = this.searchBar.getValue();
-        if (searchText.startsWith("@")) {
-            String name = TextUtil.getModNameForGameObject(stack.getItem());
-            return name.toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else if (searchText.startsWith("#")) {
-            List<String> tooltip = stack.getTooltipLines(this.minecraft.player, TooltipFlag.Default.NORMAL).stream()
-                    .map(Component::getString).collect(
-                            Collectors.toList());
-            String tooltipString = Joiner.on(' ').join(tooltip).toLowerCase().trim();
-            return tooltipString.toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else if (searchText.startsWith("$")) {
-            StringBuilder tagStringBuilder = new StringBuilder();
-            stack.getTags().forEach(
-                    tag -> tagStringBuilder.append(tag.location()).append(" ")
-            );
-            return tagStringBuilder.toString().toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else {
-            //Note: If search stops working, forge may have re-implemented .getUnformattedComponentText() for translated text components
-            return stack.getDisplayName().getString().toLowerCase()
-                    .contains(searchText.toLowerCase());
-        }
-    }
-
     protected boolean machineMatchesSearch(MachineReference machine) {
         String searchText = this.searchBar.getValue();
         if (searchText.startsWith("@")) {
@@ -22,9 +22,9 @@
 
 package com.github.klikli_dev.occultism.common.block;
 
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeCache;
 import com.github.klikli_dev.occultism.crafting.recipe.ItemStackFakeInventory;
 import com.github.klikli_dev.occultism.crafting.recipe.SpiritFireRecipe;
-import com.github.klikli_dev.occultism.registry.OccultismRecipes;
 import com.github.klikli_dev.occultism.registry.OccultismSounds;
 import com.github.klikli_dev.occultism.util.Math3DUtil;
 import net.minecraft.core.BlockPos;
@@ -63,17 +63,15 @@ public class SpiritFireBlock extends BaseFireBlock {
 
     @Override
     public void entityInside(BlockState pState, Level pLevel, BlockPos pPos, Entity pEntity) {
-        if (pEntity instanceof ItemEntity item) {
-            ItemStackFakeInventory fakeInventory =
-                    new ItemStackFakeInventory(ItemStack.EMPTY);
-            fakeInventory.setItem(0, item.getItem());
+        //conversion is server side only, the results are synced to the client as regular item entities.
+        if (!pLevel.isClientSide && pEntity instanceof ItemEntity item) {
             Optional<SpiritFireRecipe> recipe =
-                    pLevel.getRecipeManager().getRecipeFor(OccultismRecipes.SPIRIT_FIRE_TYPE.get(), fakeInventory, pLevel);
+                    ItemRecipeCache.SPIRIT_FIRE.getRecipeFor(pLevel, item.getItem(), ItemStackFakeInventory::new);
 
             if (recipe.isPresent()) {
                 item.remove(RemovalReason.DISCARDED);
 
-                ItemStack result = recipe.get().assemble(fakeInventory);
+                ItemStack result = recipe.get().assemble(new ItemStackFakeInventory(item.getItem()));
                 Vec3 center = Math3DUtil.center(pPos);
                 Containers.dropItemStack(pLevel, center.x, center.y + 0.5, center.z, result);
 
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.blockentity;
+
+import com.github.klikli_dev.occultism.Occultism;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the networked block entities with pending network updates and sends them once at the end of the server
+ * tick, so multiple changes within one tick result in a single update.
+ */
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class BlockEntitySyncQueue {
+
+    //region Fields
+    private static final Set<NetworkedBlockEntity> pending = new LinkedHashSet<>();
+    //endregion Fields
+
+    //region Static Methods
+    public static void enqueue(NetworkedBlockEntity blockEntity) {
+        pending.add(blockEntity);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || pending.isEmpty())
+            return;
+
+        //copy first, sending may cause further changes
+        List<NetworkedBlockEntity> blockEntities = new ArrayList<>(pending);
+        pending.clear();
+        for (NetworkedBlockEntity blockEntity : blockEntities) {
+            if (!blockEntity.isRemoved() && blockEntity.getLevel() != null &&
+                    blockEntity.getLevel().isLoaded(blockEntity.getBlockPos()))
+                blockEntity.sendNetworkUpdates();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        pending.clear();
+    }
+    //endregion Static Methods
+}
@@ -24,14 +24,15 @@ package com.github.klikli_dev.occultism.common.blockentity;
 
 import com.github.klikli_dev.occultism.common.container.DimensionalMineshaftContainer;
 import com.github.klikli_dev.occultism.common.misc.WeightedIngredient;
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeCache;
 import com.github.klikli_dev.occultism.crafting.recipe.MinerRecipe;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
-import com.github.klikli_dev.occultism.registry.OccultismRecipes;
 import com.github.klikli_dev.occultism.registry.OccultismTiles;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.random.WeightedRandom;
@@ -39,6 +40,7 @@ import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerData;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.state.BlockState;
@@ -66,6 +68,10 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
     public static final String MAX_MINING_TIME_TAG = "maxMiningTime";
     public static final int DEFAULT_MAX_MINING_TIME = 400;
     public static int DEFAULT_ROLLS_PER_OPERATION = 1;
+    /**
+     * The mining progress sent to open containers is scaled to this value.
+     */
+    public static final int MINING_PROGRESS_SCALE = 1000;
     public static String ROLLS_PER_OPERATION_TAG = "rollsPerOperation";
     public LazyOptional<ItemStackHandler> inputHandler = LazyOptional.of(() -> new ItemStackHandler(1) {
         //region Overrides
@@ -92,6 +98,33 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
     public int rollsPerOperation = 0;
     protected Item currentInputType;
     protected List<WeightedIngredient> possibleResults;
+    /**
+     * Only whether we are mining is synced to all clients for particles, the progress is sent to open containers.
+     */
+    protected boolean isMining;
+    protected final SyncedField<Boolean> isMiningField = this.registerSyncedField(
+            () -> this.isMining, isMining -> this.isMining = isMining,
+            FriendlyByteBuf::writeBoolean, FriendlyByteBuf::readBoolean);
+    public final ContainerData miningProgress = new ContainerData() {
+        //region Overrides
+        @Override
+        public int get(int index) {
+            DimensionalMineshaftBlockEntity self = DimensionalMineshaftBlockEntity.this;
+            if (self.miningTime <= 0 || self.maxMiningTime <= 0)
+                return 0;
+            return (int) (MINING_PROGRESS_SCALE * (1.0F - (float) self.miningTime / self.maxMiningTime));
+        }
+
+        @Override
+        public void set(int index, int value) {
+        }
+
+        @Override
+        public int getCount() {
+            return 1;
+        }
+        //endregion Overrides
+    };
 
     //endregion Fields
     //region Initialization
@@ -146,12 +179,16 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
     @Override
     public void load(CompoundTag compound) {
         super.load(compound);
+        this.miningTime = compound.getInt("miningTime");
+        this.maxMiningTime = compound.getInt("maxMiningTime");
         this.inputHandler.ifPresent((handler) -> handler.deserializeNBT(compound.getCompound("inputHandler")));
         this.outputHandler.ifPresent((handler) -> handler.deserializeNBT(compound.getCompound("outputHandler")));
     }
 
     @Override
     protected void saveAdditional(CompoundTag compound) {
+        compound.putInt("miningTime", this.miningTime);
+        compound.putInt("maxMiningTime", this.maxMiningTime);
         this.inputHandler.ifPresent(handler -> compound.put("inputHandler", handler.serializeNBT()));
         this.outputHandler.ifPresent(handler -> compound.put("outputHandler", handler.serializeNBT()));
         super.saveAdditional(compound);
@@ -160,14 +197,12 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
     @Override
     public void loadNetwork(CompoundTag compound) {
         super.loadNetwork(compound);
-        this.miningTime = compound.getInt("miningTime");
-        this.maxMiningTime = compound.getInt("maxMiningTime");
+        this.isMining = compound.getBoolean("isMining");
     }
 
     @Override
     public CompoundTag saveNetwork(CompoundTag compound) {
-        compound.putInt("miningTime", this.miningTime);
-        compound.putInt("maxMiningTime", this.maxMiningTime);
+        compound.putBoolean("isMining", this.miningTime > 0);
         return super.saveNetwork(compound);
     }
     //endregion Overrides
@@ -184,7 +219,6 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
             IItemHandler inputHandler = this.inputHandler.orElseThrow(ItemHandlerMissingException::new);
             ItemStack input = inputHandler.getStackInSlot(0);
 
-            boolean dirty = false;
             if (this.miningTime > 0) {
                 this.miningTime--;
 
@@ -200,8 +234,6 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
                     //if the item was used up or switched, we also delete our result cache
                     this.possibleResults = null;
                 }
-                if (this.miningTime % 10 == 0)
-                    dirty = true;
             } else if (!input.isEmpty()) {
                 //if we're done with the last mining job, and we have valid input, start the next one.
                 this.currentInputType = input.getItem();
@@ -210,14 +242,14 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
                 this.maxMiningTime = getMaxMiningTime(input);
                 this.rollsPerOperation = getRollsPerOperation(input);
                 this.miningTime = this.maxMiningTime;
-                dirty = true;
             }
 
-            if (dirty) {
-                this.markNetworkDirty();
+            if (this.isMining != this.miningTime > 0) {
+                this.isMining = this.miningTime > 0;
+                this.markSyncedFieldDirty(this.isMiningField);
             }
         } else {
-            if (this.miningTime > 0 && this.level.getGameTime() % 10 == 0) {
+            if (this.isMining && this.level.getGameTime() % 10 == 0) {
                 this.level.addParticle(ParticleTypes.PORTAL, this.worldPosition.getX() + 0.5f,
                         this.worldPosition.getY() + 0.5, this.worldPosition.getZ() + 0.5f, 0.0D, 0.0D, 0.0D);
             }
@@ -237,10 +269,9 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
         ItemStackHandler outputHandler = this.outputHandler.orElseThrow(ItemHandlerMissingException::new);
 
         if (this.possibleResults == null) {
-            List<MinerRecipe> recipes = this.level.getRecipeManager()
-                    .getRecipesFor(OccultismRecipes.MINER_TYPE.get(),
-                            new RecipeWrapper(inputHandler), this.level);
-            if (recipes == null || recipes.size() == 0) {
+            List<MinerRecipe> recipes = ItemRecipeCache.MINER.getRecipesFor(this.level,
+                    inputHandler.getStackInSlot(0), stack -> new RecipeWrapper(inputHandler));
+            if (recipes.size() == 0) {
                 this.possibleResults = new ArrayList<>();
             } else {
                 this.possibleResults = recipes.stream().map(r -> r.getWeightedOutput()).collect(Collectors.toList());
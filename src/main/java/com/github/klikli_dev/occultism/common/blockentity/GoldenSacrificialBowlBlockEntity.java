@@ -25,13 +25,14 @@ package com.github.klikli_dev.occultism.common.blockentity;
 import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.item.DummyTooltipItem;
 import com.github.klikli_dev.occultism.common.item.spirit.BookOfBindingItem;
+import com.github.klikli_dev.occultism.common.ritual.ActiveRitualRegistry;
 import com.github.klikli_dev.occultism.common.ritual.Ritual;
+import com.github.klikli_dev.occultism.common.ritual.RitualRecipeIndex;
 import com.github.klikli_dev.occultism.common.ritual.pentacle.Pentacle;
 import com.github.klikli_dev.occultism.common.ritual.pentacle.PentacleManager;
 import com.github.klikli_dev.occultism.crafting.recipe.RitualRecipe;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.registry.OccultismParticles;
-import com.github.klikli_dev.occultism.registry.OccultismRecipes;
 import com.github.klikli_dev.occultism.registry.OccultismTiles;
 import com.github.klikli_dev.occultism.util.EntityUtil;
 import net.minecraft.core.BlockPos;
@@ -53,16 +54,14 @@ import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Rotation;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
-import net.minecraftforge.event.entity.player.PlayerInteractEvent.RightClickItem;
 import net.minecraftforge.items.IItemHandler;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.function.Consumer;
 
 public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity {
 
@@ -77,17 +76,22 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
     public boolean itemUseProvided;
     public int currentTime;
 
-    public Consumer<RightClickItem> rightClickItemListener;
-    public Consumer<LivingDeathEvent> livingDeathEventListener;
+    /**
+     * The sacrificial bowls of the running ritual, found once and only searched again if blocks nearby change.
+     */
+    protected List<SacrificialBowlBlockEntity> sacrificialBowls;
+    /**
+     * The rotation the pentacle of the running ritual was last valid in, or null if it needs a full validation.
+     */
+    protected Rotation pentacleRotation;
+    protected boolean structureDirty = true;
+    protected long lastStructureValidation;
 
     //endregion Fields
 
     //region Initialization
     public GoldenSacrificialBowlBlockEntity(BlockPos worldPos, BlockState state) {
         super(OccultismTiles.GOLDEN_SACRIFICIAL_BOWL.get(), worldPos, state);
-
-        this.rightClickItemListener = this::onPlayerRightClickItem;
-        this.livingDeathEventListener = this::onLivingDeath;
     }
     //endregion Initialization
 
@@ -97,8 +101,9 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         Map<BlockPos, Block> bestPentacleDiff = null;
         Pentacle bestMatch = null;
         for (Pentacle pentacle : PentacleManager.getAllPentacles().values()) {
-            pentacleDiff = pentacle.getDifference(level, pos);
-            if (bestPentacleDiff == null || bestPentacleDiff.size() > pentacleDiff.size()) {
+            //only differences below 4 are reported, so stop checking a pentacle once it cannot beat that
+            pentacleDiff = pentacle.getDifference(level, pos, bestPentacleDiff == null ? 4 : bestPentacleDiff.size());
+            if (pentacleDiff != null) {
                 bestPentacleDiff = pentacleDiff;
                 bestMatch = pentacle;
             }
@@ -144,10 +149,7 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         if (pentacle == null)
             return false;
 
-        for (RitualRecipe recipe : level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get())) {
-            if (recipe.getPentacle() != pentacle)
-                continue;
-
+        for (RitualRecipe recipe : RitualRecipeIndex.get(level).getRecipesForPentacle(pentacle.getId())) {
             ritualDiff = new ArrayList<>(recipe.getIngredients());
             List<ItemStack> items = recipe.getRitual().getItemsOnSacrificialBowls(level, pos);
 
@@ -203,8 +205,8 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
                 Optional<? extends Recipe<?>> recipe = this.level.getRecipeManager().byKey(this.currentRitualRecipeId);
                 recipe.map(r -> (RitualRecipe) r).ifPresent(r -> this.currentRitualRecipe = r);
 
-                MinecraftForge.EVENT_BUS.addListener(rightClickItemListener);
-                MinecraftForge.EVENT_BUS.addListener(livingDeathEventListener);
+                if (this.currentRitualRecipe != null)
+                    ActiveRitualRegistry.register(this);
 
                 this.currentRitualRecipeId = null;
             }
@@ -212,6 +214,18 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         return this.currentRitualRecipe;
     }
 
+    @Override
+    public void setRemoved() {
+        ActiveRitualRegistry.unregister(this);
+        super.setRemoved();
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        ActiveRitualRegistry.unregister(this);
+        super.onChunkUnloaded();
+    }
+
     @Override
     public void load(CompoundTag compound) {
         super.load(compound);
@@ -296,7 +310,8 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             //if we ever have a ritual that depends on casting player for validity, we need to rework this
             //to involve casting player id with some good pre-check
             IItemHandler handler = this.itemStackHandler.orElseThrow(ItemHandlerMissingException::new);
-            if (!recipe.getRitual().isValid(this.level, this.getBlockPos(), this, this.castingPlayer,
+            this.revalidateStructure();
+            if (!recipe.getRitual().isStillValid(this.level, this.getBlockPos(), this, this.castingPlayer,
                     handler.getStackInSlot(0), this.remainingAdditionalIngredients)) {
                 //ritual is no longer valid, so interrupt
                 this.stopRitual(false);
@@ -344,8 +359,8 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
 
             if (!recipe
                     .getRitual()
-                    .consumeAdditionalIngredients(this.level, this.getBlockPos(), this.remainingAdditionalIngredients,
-                            this.currentTime, this.consumedIngredients)) {
+                    .consumeAdditionalIngredients(this.level, this.getBlockPos(), this.getSacrificialBowls(),
+                            this.remainingAdditionalIngredients, this.currentTime, this.consumedIngredients)) {
                 //if ingredients cannot be found, interrupt
                 this.stopRitual(false);
                 return;
@@ -382,7 +397,7 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             if (this.getCurrentRitualRecipe() == null) {
                 //Identify the ritual in the ritual registry.
 
-                RitualRecipe ritualRecipe = this.level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get()).stream().filter(
+                RitualRecipe ritualRecipe = RitualRecipeIndex.get(this.level).getCandidates(activationItem).stream().filter(
                         r -> r.matches(level, pos, activationItem)
                 ).findFirst().orElse(null);
 
@@ -429,14 +444,13 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             this.itemUseProvided = false;
             this.consumedIngredients.clear();
             this.remainingAdditionalIngredients = new ArrayList<>(this.currentRitualRecipe.getIngredients());
+            this.invalidateStructure();
             //place activation item in handler
             IItemHandler handler = this.itemStackHandler.orElseThrow(ItemHandlerMissingException::new);
             handler.insertItem(0, activationItem.split(1), false);
             this.currentRitualRecipe.getRitual().start(this.level, this.getBlockPos(), this, player, handler.getStackInSlot(0));
 
-
-            MinecraftForge.EVENT_BUS.addListener(rightClickItemListener);
-            MinecraftForge.EVENT_BUS.addListener(livingDeathEventListener);
+            ActiveRitualRegistry.register(this);
 
             this.setChanged();
             this.markNetworkDirty();
@@ -470,15 +484,80 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             if (this.remainingAdditionalIngredients != null)
                 this.remainingAdditionalIngredients.clear();
             this.consumedIngredients.clear();
+            this.sacrificialBowls = null;
+            this.pentacleRotation = null;
 
-            MinecraftForge.EVENT_BUS.unregister(rightClickItemListener);
-            MinecraftForge.EVENT_BUS.unregister(livingDeathEventListener);
+            ActiveRitualRegistry.unregister(this);
 
             this.setChanged();
             this.markNetworkDirty();
         }
     }
 
+    /**
+     * @return the sacrificial bowls in range of the running ritual.
+     */
+    public List<SacrificialBowlBlockEntity> getSacrificialBowls() {
+        if (this.sacrificialBowls == null)
+            this.sacrificialBowls = this.getCurrentRitualRecipe().getRitual().getSacrificialBowls(this.level,
+                    this.getBlockPos());
+        return this.sacrificialBowls;
+    }
+
+    /**
+     * @return true if the pentacle of the running ritual was valid at the last validation.
+     */
+    public boolean isPentacleValid() {
+        return this.pentacleRotation != null;
+    }
+
+    /**
+     * Marks the pentacle and sacrificial bowls of the running ritual for revalidation on the next tick.
+     */
+    public void invalidateStructure() {
+        this.structureDirty = true;
+        this.sacrificialBowls = null;
+    }
+
+    /**
+     * Called by {@link com.github.klikli_dev.occultism.handlers.RitualEventHandler} for block changes within
+     * {@link Ritual#STRUCTURE_CHANGE_RANGE}.
+     *
+     * @param pos the changed position.
+     */
+    public void onBlockChanged(BlockPos pos) {
+        RitualRecipe recipe = this.getCurrentRitualRecipe();
+        if (recipe == null || pos.getY() != this.getBlockPos().getY())
+            return; //pentacles and sacrificial bowls are on the same layer as the golden bowl
+
+        int range = Math.max(Ritual.SACRIFICIAL_BOWL_RANGE, recipe.getPentacle() == null ? 0 : recipe.getPentacle().getRadius());
+        if (Math.abs(pos.getX() - this.getBlockPos().getX()) <= range &&
+                Math.abs(pos.getZ() - this.getBlockPos().getZ()) <= range)
+            this.invalidateStructure();
+    }
+
+    /**
+     * Validates the pentacle if blocks nearby changed, or the periodic revalidation is due. The rotation the pentacle
+     * was last valid in is checked first, so the full validation is only needed if the pentacle was rebuilt.
+     */
+    protected void revalidateStructure() {
+        Pentacle pentacle = this.getCurrentRitualRecipe().getPentacle();
+        long time = this.level.getGameTime();
+        if (!this.structureDirty && this.pentacleRotation != null &&
+                time - this.lastStructureValidation < Occultism.SERVER_CONFIG.rituals.structureRevalidationInterval.get())
+            return;
+
+        this.structureDirty = false;
+        this.lastStructureValidation = time;
+        this.sacrificialBowls = null;
+        if (pentacle == null) {
+            this.pentacleRotation = null;
+        } else if (this.pentacleRotation == null ||
+                !pentacle.validate(this.level, this.getBlockPos(), this.pentacleRotation)) {
+            this.pentacleRotation = pentacle.getValidRotation(this.level, this.getBlockPos());
+        }
+    }
+
     public boolean sacrificeFulfilled() {
         return !this.getCurrentRitualRecipe().requiresSacrifice() || this.sacrificeProvided;
     }
@@ -510,27 +589,30 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
 
     }
 
+    /**
+     * Called by {@link com.github.klikli_dev.occultism.handlers.RitualEventHandler} for item uses within
+     * {@link Ritual#ITEM_USE_DETECTION_RANGE}.
+     */
     public void onPlayerRightClickItem(PlayerInteractEvent.RightClickItem event) {
         Player player = event.getPlayer();
         if (!player.level.isClientSide && this.getCurrentRitualRecipe() != null) {
-
-            if(this.getBlockPos().distSqr(event.getPos()) <= Ritual.ITEM_USE_DETECTION_RANGE_SQUARE){
-                if (this.getCurrentRitualRecipe().getRitual().isValidItemUse(event)) {
-                    this.notifyItemUse(event);
-                }
+            if (this.getCurrentRitualRecipe().getRitual().isValidItemUse(event)) {
+                this.notifyItemUse(event);
             }
         }
     }
 
+    /**
+     * Called by {@link com.github.klikli_dev.occultism.handlers.RitualEventHandler} for deaths within
+     * {@link Ritual#SACRIFICE_DETECTION_RANGE}.
+     */
     public void onLivingDeath(LivingDeathEvent event) {
         LivingEntity entityLivingBase = event.getEntityLiving();
         if (!entityLivingBase.level.isClientSide && this.getCurrentRitualRecipe() != null) {
             //Limit to player kills
             if (event.getSource().getEntity() instanceof Player) {
-                if(this.getBlockPos().distSqr(entityLivingBase.blockPosition()) <= Ritual.SACRIFICE_DETECTION_RANGE_SQUARE){
-                    if (this.getCurrentRitualRecipe().getRitual().isValidSacrifice(entityLivingBase)) {
-                        this.notifySacrifice(entityLivingBase);
-                    }
+                if (this.getCurrentRitualRecipe().getRitual().isValidSacrifice(entityLivingBase)) {
+                    this.notifySacrifice(entityLivingBase);
                 }
             }
         }
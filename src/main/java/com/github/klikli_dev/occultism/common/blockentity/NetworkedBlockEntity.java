@@ -22,16 +22,45 @@
 
 package com.github.klikli_dev.occultism.common.blockentity;
 
+import com.github.klikli_dev.occultism.network.MessageSyncBlockEntityFields;
+import com.github.klikli_dev.occultism.network.OccultismPackets;
+import io.netty.buffer.Unpooled;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A block entity that synchronizes a subset of its data to clients.
+ * <p>
+ * {@link #markNetworkDirty()} resends the entire network nbt. Frequently changing values should instead be
+ * registered as synced fields and marked dirty individually, only the dirty fields are then sent in a compact binary
+ * form. Both kinds of updates are coalesced and sent at most once per tick, see {@link BlockEntitySyncQueue}.
+ */
 public abstract class NetworkedBlockEntity extends BlockEntity {
 
+    //region Fields
+    /**
+     * The max amount of synced fields, limited by the size of the dirty mask.
+     */
+    public static final int MAX_SYNCED_FIELDS = Long.SIZE;
+
+    protected final List<SyncedField<?>> syncedFields = new ArrayList<>();
+    protected long dirtySyncedFields;
+    protected boolean networkDirty;
+    //endregion Fields
+
     public NetworkedBlockEntity(BlockEntityType<?> BlockEntityTypeIn, BlockPos worldPos, BlockState state) {
         super(BlockEntityTypeIn, worldPos, state);
     }
@@ -92,9 +121,116 @@ public abstract class NetworkedBlockEntity extends BlockEntity {
         return compound;
     }
 
+    /**
+     * Sends the entire network nbt to clients at the end of the tick.
+     */
     public void markNetworkDirty() {
         if (this.level != null) {
+            if (this.level.isClientSide) {
+                this.level.sendBlockUpdated(this.worldPosition, this.getBlockState(), this.getBlockState(), 2);
+            } else {
+                this.networkDirty = true;
+                BlockEntitySyncQueue.enqueue(this);
+            }
+        }
+    }
+
+    /**
+     * Sends the given field to clients at the end of the tick.
+     *
+     * @param field the changed field.
+     */
+    public void markSyncedFieldDirty(SyncedField<?> field) {
+        if (this.level != null && !this.level.isClientSide) {
+            this.dirtySyncedFields |= 1L << field.index;
+            BlockEntitySyncQueue.enqueue(this);
+        }
+    }
+
+    /**
+     * Registers a field to be synchronized individually. Should be called during construction, as the field index
+     * has to match on server and client.
+     *
+     * @param getter gets the current value.
+     * @param setter sets the received value on the client.
+     * @param writer writes the value.
+     * @param reader reads the value.
+     * @return the synced field, used to mark it dirty.
+     */
+    protected <T> SyncedField<T> registerSyncedField(Supplier<T> getter, Consumer<T> setter,
+                                                     BiConsumer<FriendlyByteBuf, T> writer,
+                                                     Function<FriendlyByteBuf, T> reader) {
+        if (this.syncedFields.size() >= MAX_SYNCED_FIELDS)
+            throw new IllegalStateException("Cannot register more than " + MAX_SYNCED_FIELDS + " synced fields.");
+
+        SyncedField<T> field = new SyncedField<>(this.syncedFields.size(), getter, setter, writer, reader);
+        this.syncedFields.add(field);
+        return field;
+    }
+
+    /**
+     * Sends pending network updates, called by the {@link BlockEntitySyncQueue} at the end of the tick.
+     */
+    public void sendNetworkUpdates() {
+        if (this.networkDirty) {
+            //the full update contains all fields
             this.level.sendBlockUpdated(this.worldPosition, this.getBlockState(), this.getBlockState(), 2);
+        } else if (this.dirtySyncedFields != 0) {
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+            this.writeSyncedFields(this.dirtySyncedFields, buf);
+            byte[] data = new byte[buf.readableBytes()];
+            buf.readBytes(data);
+            OccultismPackets.sendToTracking(this.level.getChunkAt(this.worldPosition),
+                    new MessageSyncBlockEntityFields(this.level.dimension(), this.worldPosition,
+                            this.dirtySyncedFields, data));
+        }
+        this.networkDirty = false;
+        this.dirtySyncedFields = 0;
+    }
+
+    public void writeSyncedFields(long mask, FriendlyByteBuf buf) {
+        for (SyncedField<?> field : this.syncedFields) {
+            if ((mask & (1L << field.index)) != 0)
+                field.write(buf);
+        }
+    }
+
+    public void readSyncedFields(long mask, FriendlyByteBuf buf) {
+        for (SyncedField<?> field : this.syncedFields) {
+            if ((mask & (1L << field.index)) != 0)
+                field.read(buf);
+        }
+    }
+    //endregion Methods
+
+    public static class SyncedField<T> {
+        //region Fields
+        protected final int index;
+        protected final Supplier<T> getter;
+        protected final Consumer<T> setter;
+        protected final BiConsumer<FriendlyByteBuf, T> writer;
+        protected final Function<FriendlyByteBuf, T> reader;
+        //endregion Fields
+
+        //region Initialization
+        protected SyncedField(int index, Supplier<T> getter, Consumer<T> setter,
+                              BiConsumer<FriendlyByteBuf, T> writer, Function<FriendlyByteBuf, T> reader) {
+            this.index = index;
+            this.getter = getter;
+            this.setter = setter;
+            this.writer = writer;
+            this.reader = reader;
+        }
+        //endregion Initialization
+
+        //region Methods
+        public void write(FriendlyByteBuf buf) {
+            this.writer.accept(buf, this.getter.get());
+        }
+
+        public void read(FriendlyByteBuf buf) {
+            this.setter.accept(this.reader.apply(buf));
         }
+        //endregion Methods
     }
 }
@@ -30,6 +30,7 @@ import com.github.klikli_dev.occultism.api.common.data.SortDirection;
 import com.github.klikli_dev.occultism.api.common.data.SortType;
 import com.github.klikli_dev.occultism.common.block.storage.StableWormholeBlock;
 import com.github.klikli_dev.occultism.common.container.storage.StableWormholeContainer;
+import com.github.klikli_dev.occultism.registry.OccultismCapabilities;
 import com.github.klikli_dev.occultism.registry.OccultismTiles;
 import com.github.klikli_dev.occultism.util.BlockEntityUtil;
 import net.minecraft.core.BlockPos;
@@ -37,6 +38,7 @@ import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
@@ -52,7 +54,9 @@ import net.minecraftforge.registries.ForgeRegistries;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class StableWormholeBlockEntity extends NetworkedBlockEntity implements IStorageControllerProxy, MenuProvider, IStorageAccessor {
@@ -63,6 +67,24 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
     protected ItemStack orderStack = ItemStack.EMPTY;
     protected SortDirection sortDirection = SortDirection.DOWN;
     protected SortType sortType = SortType.AMOUNT;
+
+    protected final SyncedField<SortDirection> sortDirectionField = this.registerSyncedField(
+            this::getSortDirection, this::setSortDirection,
+            FriendlyByteBuf::writeEnum, buf -> buf.readEnum(SortDirection.class));
+    protected final SyncedField<SortType> sortTypeField = this.registerSyncedField(
+            this::getSortType, this::setSortType,
+            FriendlyByteBuf::writeEnum, buf -> buf.readEnum(SortType.class));
+
+    /**
+     * The resolved storage controller, dropped when the link changes or the controller invalidates its capabilities.
+     */
+    protected IStorageController cachedStorageController;
+    /**
+     * The item handler and bulk item handler exposed by this wormhole, forwarding to the handlers of the linked
+     * controller. The controller exposes the same handlers on all sides, so one instance per capability serves all
+     * sides. They are invalidated whenever the link changes, so neighbours cache them safely.
+     */
+    protected Map<Capability<?>, LazyOptional<?>> cachedCapabilities = new HashMap<>();
     //endregion Fields
 
     //region Initialization
@@ -80,6 +102,7 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
     @Override
     public void setSortDirection(SortDirection sortDirection) {
         this.sortDirection = sortDirection;
+        this.markSyncedFieldDirty(this.sortDirectionField);
     }
 
     @Override
@@ -90,6 +113,7 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
     @Override
     public void setSortType(SortType sortType) {
         this.sortType = sortType;
+        this.markSyncedFieldDirty(this.sortTypeField);
     }
 
     @Override
@@ -116,12 +140,19 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
 
     @Override
     public IStorageController getLinkedStorageController() {
+        if (this.cachedStorageController != null) {
+            if (!((BlockEntity) this.cachedStorageController).isRemoved())
+                return this.cachedStorageController;
+            this.invalidateStorageControllerCache();
+        }
+
         if (this.linkedStorageControllerPosition != null) {
             BlockEntity blockEntity = BlockEntityUtil.get(this.level,
                     this.linkedStorageControllerPosition);
-            if (blockEntity instanceof IStorageController controller)
+            if (blockEntity instanceof IStorageController controller) {
+                this.cachedStorageController = controller;
                 return controller;
-            else if (!this.level.isClientSide) {
+            } else if (!this.level.isClientSide) {
                 //only reset the storage controller position if we are on logical server -> that means the position is not accessible.
                 //if we are on logical client it simply means we are out of render range, so we do not reset the pos
                 //resetting it would cause issues with e.g. stable wormhole
@@ -140,25 +171,48 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
     @Override
     public void setLinkedStorageControllerPosition(GlobalBlockPos blockPos) {
         this.linkedStorageControllerPosition = blockPos;
+        this.invalidateStorageControllerCache();
     }
 
     @Nonnull
     @Override
     public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, Direction side) {
-        if (cap == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) {
-            if (this.getLinkedStorageController() != null) {
-                return ((BlockEntity) this.getLinkedStorageController()).getCapability(cap, side);
+        if (cap == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY || cap == OccultismCapabilities.BULK_ITEM_HANDLER) {
+            LazyOptional<?> cached = this.cachedCapabilities.get(cap);
+            if (cached != null)
+                return cached.cast();
+
+            IStorageController storageController = this.getLinkedStorageController();
+            if (storageController != null) {
+                LazyOptional<T> controllerHandler = ((BlockEntity) storageController).getCapability(cap, side);
+                T handler = controllerHandler.orElse(null);
+                if (handler != null) {
+                    LazyOptional<T> forwardingHandler = LazyOptional.of(() -> handler);
+                    this.cachedCapabilities.put(cap, forwardingHandler);
+                    //controller unloaded or removed -> invalidate our handlers and resolve again on next access
+                    controllerHandler.addListener(invalidated -> {
+                        if (this.cachedCapabilities.get(cap) == forwardingHandler)
+                            this.invalidateStorageControllerCache();
+                    });
+                    return forwardingHandler;
+                }
             }
         }
         return super.getCapability(cap, side);
     }
 
+    @Override
+    public void invalidateCaps() {
+        super.invalidateCaps();
+        this.invalidateStorageControllerCache();
+    }
+
 
     @Override
     public void loadNetwork(CompoundTag compound) {
         if (compound.contains("linkedStorageControllerPosition"))
-            this.linkedStorageControllerPosition = GlobalBlockPos.from(compound.getCompound(
-                    "linkedStorageControllerPosition"));
+            this.setLinkedStorageControllerPosition(GlobalBlockPos.from(compound.getCompound(
+                    "linkedStorageControllerPosition")));
 
         this.setSortDirection(SortDirection.get(compound.getInt("sortDirection")));
         this.setSortType(SortType.get(compound.getInt("sortType")));
@@ -213,5 +267,16 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
     //endregion Overrides
 
     //region Methods
+
+    /**
+     * Drops the resolved storage controller and its item handler, they are resolved again on next access.
+     */
+    public void invalidateStorageControllerCache() {
+        this.cachedStorageController = null;
+        //clear first, listeners of the invalidated handlers may query the new handlers right away
+        List<LazyOptional<?>> capabilities = new ArrayList<>(this.cachedCapabilities.values());
+        this.cachedCapabilities.clear();
+        capabilities.forEach(LazyOptional::invalidate);
+    }
     //endregion Methods
 }
@@ -27,30 +27,37 @@ import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageAccessor;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageControllerProxy;
+import com.github.klikli_dev.occultism.api.common.capability.IBulkItemHandler;
 import com.github.klikli_dev.occultism.api.common.container.IItemStackComparator;
+import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
 import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.github.klikli_dev.occultism.api.common.data.MachineReference;
 import com.github.klikli_dev.occultism.api.common.data.SortDirection;
 import com.github.klikli_dev.occultism.api.common.data.SortType;
 import com.github.klikli_dev.occultism.common.block.storage.StorageStabilizerBlock;
 import com.github.klikli_dev.occultism.common.container.storage.StorageControllerContainer;
-import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
-import com.github.klikli_dev.occultism.common.job.ManageMachineJob;
-import com.github.klikli_dev.occultism.common.misc.DepositOrder;
+import com.github.klikli_dev.occultism.common.misc.DepositOrderDispatcher;
 import com.github.klikli_dev.occultism.common.misc.ItemStackComparator;
+import com.github.klikli_dev.occultism.common.misc.ItemStackKey;
 import com.github.klikli_dev.occultism.common.misc.StorageControllerItemStackHandler;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerPagedView;
 import com.github.klikli_dev.occultism.network.MessageUpdateStacks;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacksDelta;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacksPage;
+import com.github.klikli_dev.occultism.network.OccultismPackets;
 import com.github.klikli_dev.occultism.registry.OccultismBlocks;
+import com.github.klikli_dev.occultism.registry.OccultismCapabilities;
 import com.github.klikli_dev.occultism.registry.OccultismItems;
 import com.github.klikli_dev.occultism.registry.OccultismTiles;
-import com.github.klikli_dev.occultism.util.EntityUtil;
 import com.github.klikli_dev.occultism.util.Math3DUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
@@ -79,11 +86,12 @@ import software.bernie.geckolib3.core.manager.AnimationFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-public class StorageControllerBlockEntity extends NetworkedBlockEntity implements MenuProvider, IStorageController, IStorageAccessor, IStorageControllerProxy, IAnimatable {
+public class StorageControllerBlockEntity extends NetworkedBlockEntity implements MenuProvider, IStorageController, IStorageAccessor, IStorageControllerProxy, IBulkItemHandler, IAnimatable {
 
     //region Fields
     public static final int MAX_STABILIZER_DISTANCE = 5;
@@ -93,21 +101,52 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     public Map<Integer, ItemStack> matrix = new HashMap<>();
     public ItemStack orderStack = ItemStack.EMPTY;
     public Map<GlobalBlockPos, MachineReference> linkedMachines = new HashMap<>();
-    public Map<GlobalBlockPos, UUID> depositOrderSpirits = new HashMap<>();
+    protected final DepositOrderDispatcher depositOrderDispatcher = new DepositOrderDispatcher();
     protected SortDirection sortDirection = SortDirection.DOWN;
     protected SortType sortType = SortType.AMOUNT;
-    protected ItemStackHandler itemStackHandlerInternal = new StorageControllerItemStackHandler(this,
+    protected StorageControllerItemStackHandler itemStackHandlerInternal = new StorageControllerItemStackHandler(this,
             Occultism.SERVER_CONFIG.storage.controllerBaseSlots.get(),
             Occultism.SERVER_CONFIG.storage.controllerStackSize.get(),
             Occultism.SERVER_CONFIG.storage.overrideItemStackSizes.get()
     );
     protected LazyOptional<ItemStackHandler> itemStackHandler = LazyOptional.of(() -> this.itemStackHandlerInternal);
+    protected LazyOptional<IBulkItemHandler> bulkItemHandler = LazyOptional.of(() -> this);
     protected int maxSlots = Occultism.SERVER_CONFIG.storage.controllerBaseSlots.get();
-    protected int usedSlots = 0;
     protected boolean stabilizersInitialized = false;
     protected GlobalBlockPos globalPos;
 
-    protected MessageUpdateStacks cachedMessageUpdateStacks;
+    protected final SyncedField<SortDirection> sortDirectionField = this.registerSyncedField(
+            this::getSortDirection, this::setSortDirection,
+            FriendlyByteBuf::writeEnum, buf -> buf.readEnum(SortDirection.class));
+    protected final SyncedField<SortType> sortTypeField = this.registerSyncedField(
+            this::getSortType, this::setSortType,
+            FriendlyByteBuf::writeEnum, buf -> buf.readEnum(SortType.class));
+    protected final SyncedField<Integer> maxSlotsField = this.registerSyncedField(
+            this::getMaxSlots, this::setMaxSlots,
+            FriendlyByteBuf::writeVarInt, FriendlyByteBuf::readVarInt);
+
+    /**
+     * Full stack update for the current revision, shared by all viewers until the stacks change.
+     */
+    protected CompletableFuture<MessageUpdateStacks> cachedMessageUpdateStacks;
+
+    /**
+     * Stacks for the current revision, shared by all paged views until the stacks change.
+     */
+    protected List<ItemStack> cachedPagedViewStacks;
+
+    /**
+     * Players that have a container for this controller open, and receive coalesced stack updates.
+     */
+    protected Set<ServerPlayer> viewers = new HashSet<>();
+    protected boolean viewersDirty;
+    protected long lastViewerUpdate;
+
+    /**
+     * True while a bulk operation runs, so the contents changed handling runs once for the whole operation.
+     */
+    protected boolean inBulkOperation;
+    protected boolean bulkContentsChanged;
 
     private final AnimationFactory factory = new AnimationFactory(this);
     //endregion Fields
@@ -124,10 +163,44 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
                 this.stabilizersInitialized = true;
                 this.updateStabilizers();
             }
+
+            if (this.viewersDirty && this.level.getGameTime() - this.lastViewerUpdate >=
+                    Occultism.SERVER_CONFIG.storage.viewerUpdateInterval.get()) {
+                this.viewersDirty = false;
+                this.lastViewerUpdate = this.level.getGameTime();
+                this.updateViewers();
+            }
+
+            if (this.depositOrderDispatcher.hasPendingOrders() &&
+                    this.level.getGameTime() % DepositOrderDispatcher.DISPATCH_INTERVAL == 0) {
+                //the queue is only saved with the controller, so only mark dirty if it changed.
+                if (this.depositOrderDispatcher.dispatch(this.level.getServer(),
+                        this.getLinkedStorageControllerPosition(), this.level.getGameTime()))
+                    this.setChanged();
+            }
         }
     }
 
     //region Methods
+    /**
+     * Defers the contents changed handling until {@link #endBulkOperation()}.
+     */
+    protected void beginBulkOperation() {
+        this.inBulkOperation = true;
+        this.bulkContentsChanged = false;
+    }
+
+    /**
+     * Runs the contents changed handling once, if anything changed since {@link #beginBulkOperation()}.
+     */
+    protected void endBulkOperation() {
+        this.inBulkOperation = false;
+        if (this.bulkContentsChanged) {
+            this.bulkContentsChanged = false;
+            this.onContentsChanged();
+        }
+    }
+
     public void updateStabilizers() {
         int additionalSlots = 0;
         List<BlockPos> stabilizerLocations = this.findValidStabilizers();
@@ -171,39 +244,90 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         return 0;
     }
 
-    protected void mergeIntoList(List<ItemStack> list, ItemStack stackToAdd) {
-        boolean merged = false;
-        for (ItemStack stack : list) {
-            if (ItemHandlerHelper.canItemStacksStack(stackToAdd, stack)) {
-                stack.setCount(stack.getCount() + stackToAdd.getCount());
-                merged = true;
-                break;
+    /**
+     * Sends the changes since their last update to all viewers. Viewers at the same revision share one message.
+     */
+    protected void updateViewers() {
+        long revision = this.getStacksRevision();
+        Map<Long, List<ServerPlayer>> viewersByRevision = new HashMap<>();
+        Iterator<ServerPlayer> iterator = this.viewers.iterator();
+        while (iterator.hasNext()) {
+            ServerPlayer player = iterator.next();
+            //drop viewers that closed the container without us noticing
+            if (player.hasDisconnected() || !(player.containerMenu instanceof IStorageControllerContainer container) ||
+                    container.getStorageController() != this) {
+                iterator.remove();
+                continue;
             }
+            if (container.getPagedView().isEnabled()) {
+                //paged views each see their own search result, so they cannot share messages.
+                if (container.getSyncedRevision() != revision) {
+                    OccultismPackets.sendTo(player, this.getMessageUpdateStacksPage(container.getPagedView()));
+                    container.setSyncedRevision(revision);
+                }
+                continue;
+            }
+            if (container.getSyncedRevision() != revision &&
+                    container.getSyncedRevision() != IStorageControllerContainer.SYNC_PENDING)
+                viewersByRevision.computeIfAbsent(container.getSyncedRevision(), r -> new ArrayList<>()).add(player);
         }
-        if (!merged) {
-            list.add(stackToAdd);
+
+        for (Map.Entry<Long, List<ServerPlayer>> entry : viewersByRevision.entrySet()) {
+            MessageUpdateStacksDelta delta = entry.getKey() < 0 ? null :
+                    this.getMessageUpdateStacksDelta(entry.getKey());
+            if (delta != null) {
+                OccultismPackets.sendTo(entry.getValue(), delta);
+                for (ServerPlayer player : entry.getValue()) {
+                    ((IStorageControllerContainer) player.containerMenu).setSyncedRevision(revision);
+                }
+            } else {
+                this.sendMessageUpdateStacksAsync(entry.getValue());
+            }
         }
     }
 
+    /**
+     * Encodes the full stacks off thread and sends them once done, back on the server thread.
+     *
+     * @param players the players to send the stacks to.
+     */
+    protected void sendMessageUpdateStacksAsync(List<ServerPlayer> players) {
+        for (ServerPlayer player : players) {
+            ((IStorageControllerContainer) player.containerMenu).setSyncedRevision(IStorageControllerContainer.SYNC_PENDING);
+        }
+
+        CompletableFuture<MessageUpdateStacks> future = this.getMessageUpdateStacksAsync();
+        future.whenCompleteAsync((message, error) -> {
+            List<ServerPlayer> receivers = new ArrayList<>(players.size());
+            for (ServerPlayer player : players) {
+                //the player may have closed the container or switched controllers in the meantime
+                if (!player.hasDisconnected() && player.containerMenu instanceof IStorageControllerContainer container &&
+                        container.getStorageController() == this &&
+                        container.getSyncedRevision() == IStorageControllerContainer.SYNC_PENDING) {
+                    receivers.add(player);
+                    container.setSyncedRevision(error == null ? message.getRevision() : -1);
+                }
+            }
+
+            if (error != null) {
+                Occultism.LOGGER.error("Failed to encode storage controller stacks.", error);
+                if (this.cachedMessageUpdateStacks == future)
+                    this.cachedMessageUpdateStacks = null;
+            } else if (!receivers.isEmpty()) {
+                OccultismPackets.sendTo(receivers, message);
+            }
+
+            //catch up on changes made while encoding, retry after a failure and serve viewers that requested the
+            //stacks while they were being encoded.
+            this.viewersDirty = !this.viewers.isEmpty();
+        }, this.level.getServer());
+    }
+
     protected void validateLinkedMachines() {
         // remove all entries that lead to invalid block entities.
         this.linkedMachines.entrySet().removeIf(entry -> !entry.getValue().isValidFor(this.level));
     }
 
-    private List<Predicate<ItemStack>> getComparatorsSortedByAmount(Predicate<ItemStack> comparator) {
-        var handler = this.itemStackHandlerInternal;
-        var map = new HashMap<Item, Integer>();
-        for (int i = 0; i < handler.getSlots(); i++) {
-            var getStackInSlot = handler.getStackInSlot(i);
-            if (comparator.test(getStackInSlot)) {
-                var oldCount = map.getOrDefault(getStackInSlot.getItem(), 0);
-                map.put(getStackInSlot.getItem(), oldCount + getStackInSlot.getCount());
-            }
-        }
-        return map.entrySet().stream().sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .map(entry -> (Predicate<ItemStack>) stack -> stack.getItem() == entry.getKey()).toList();
-    }
-
     private <E extends IAnimatable> PlayState predicate(AnimationEvent<E> event) {
         event.getController().setAnimation(new AnimationBuilder().addAnimation("animation.dimensional_matrix.new", true));
         return PlayState.CONTINUE;
@@ -255,6 +379,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     @Override
     public void setSortDirection(SortDirection sortDirection) {
         this.sortDirection = sortDirection;
+        this.markSyncedFieldDirty(this.sortDirectionField);
     }
 
     @Override
@@ -265,34 +390,67 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     @Override
     public void setSortType(SortType sortType) {
         this.sortType = sortType;
+        this.markSyncedFieldDirty(this.sortTypeField);
     }
 
     @Override
     public List<ItemStack> getStacks() {
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-        int size = handler.getSlots();
-        int usedSlots = 0;
-        List<ItemStack> result = new ArrayList<>(size);
-        for (int slot = 0; slot < size; slot++) {
-            ItemStack stack = handler.getStackInSlot(slot);
-            if (!stack.isEmpty()) {
-                usedSlots++;
-                this.mergeIntoList(result, stack.copy());
-            }
-        }
-        this.usedSlots = usedSlots;
-        return result;
+        //the handler keeps the merged stacks up to date, so this is only a copy.
+        return this.itemStackHandlerInternal.getMergedStacks();
     }
 
     @Override
     public MessageUpdateStacks getMessageUpdateStacks() {
+        if (this.cachedMessageUpdateStacks == null || this.cachedMessageUpdateStacks.isCompletedExceptionally()) {
+            //needed right away, so encode on the calling thread
+            this.cachedMessageUpdateStacks = CompletableFuture.completedFuture(new MessageUpdateStacks(
+                    this.getStacks(), this.getUsedSlots(), this.getMaxSlots(), this.getStacksRevision()));
+        }
+        //never wait for an encode in flight on the server thread, the viewer update sends it once done.
+        return this.cachedMessageUpdateStacks.getNow(null);
+    }
+
+    @Override
+    public CompletableFuture<MessageUpdateStacks> getMessageUpdateStacksAsync() {
         if (this.cachedMessageUpdateStacks == null) {
-            List<ItemStack> stacks = this.getStacks();
-            this.cachedMessageUpdateStacks = new MessageUpdateStacks(stacks, this.getUsedSlots(), this.getMaxSlots());
+            //getStacks() returns a copy, so the encoder does not touch live storage
+            this.cachedMessageUpdateStacks = MessageUpdateStacks.createAsync(
+                    this.getStacks(), this.getUsedSlots(), this.getMaxSlots(), this.getStacksRevision());
         }
         return this.cachedMessageUpdateStacks;
     }
 
+    @Override
+    public MessageUpdateStacksDelta getMessageUpdateStacksDelta(long sinceRevision) {
+        Set<Item> changedItems = this.itemStackHandlerInternal.getChangeLog().getChangesSince(sinceRevision);
+        if (changedItems == null)
+            return null;
+
+        Map<Item, List<ItemStack>> changes = new HashMap<>(changedItems.size());
+        for (Item item : changedItems) {
+            changes.put(item, this.itemStackHandlerInternal.getMergedStacks(item));
+        }
+        return new MessageUpdateStacksDelta(sinceRevision, this.getStacksRevision(), changes, this.getUsedSlots(),
+                this.getMaxSlots());
+    }
+
+    @Override
+    public MessageUpdateStacksPage getMessageUpdateStacksPage(StorageControllerPagedView pagedView) {
+        if (this.cachedPagedViewStacks == null)
+            this.cachedPagedViewStacks = this.getStacks();
+        return pagedView.createPage(this, this.cachedPagedViewStacks);
+    }
+
+    @Override
+    public int getDistinctStackCount() {
+        return this.itemStackHandlerInternal.getMergedStackCount();
+    }
+
+    @Override
+    public long getStacksRevision() {
+        return this.itemStackHandlerInternal.getChangeLog().getRevision();
+    }
+
     @Override
     public int getMaxSlots() {
         return this.maxSlots;
@@ -303,13 +461,16 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         this.maxSlots = slots;
         this.itemStackHandlerInternal.setSize(this.maxSlots);
         //force resync
+        this.itemStackHandlerInternal.getChangeLog().reset();
         this.cachedMessageUpdateStacks = null;
-        this.markNetworkDirty();
+        this.cachedPagedViewStacks = null;
+        this.viewersDirty = !this.viewers.isEmpty();
+        this.markSyncedFieldDirty(this.maxSlotsField);
     }
 
     @Override
     public int getUsedSlots() {
-        return this.usedSlots;
+        return this.itemStackHandlerInternal.getOccupiedSlotCount();
     }
 
     @Override
@@ -332,35 +493,33 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         //check if the item is available in the desired amount, otherwise kill the order.
         ItemStack stack = this.getItemStack(comparator, amount, true);
         if (!stack.isEmpty()) {
-            UUID spiritUUID = this.depositOrderSpirits.get(linkedMachinePosition);
-            if (spiritUUID != null) {
-                EntityUtil.getEntityByUuiDGlobal(this.level.getServer(),
-                                spiritUUID).filter(SpiritEntity.class::isInstance).map(SpiritEntity.class::cast)
-                        .ifPresent(spirit -> {
-                            Optional<ManageMachineJob> job = spirit.getJob().filter(ManageMachineJob.class::isInstance)
-                                    .map(ManageMachineJob.class::cast);
-                            if (job.isPresent()) {
-                                job.get().addDepsitOrder(new DepositOrder((ItemStackComparator) comparator, amount));
-                            } else {
-                                this.removeDepositOrderSpirit(linkedMachinePosition);
-                            }
-                        });
+            if (this.depositOrderDispatcher.addOrder(linkedMachinePosition, (ItemStackComparator) comparator, amount,
+                    this.level.getGameTime())) {
+                //hand out right away if a spirit is idle
+                this.depositOrderDispatcher.dispatch(this.level.getServer(), this.getLinkedStorageControllerPosition(),
+                        this.level.getGameTime());
+                this.setChanged();
             } else {
-                //if the entity cannot be found, remove it from the list for now. it will re-register itself on spawn
-                this.removeDepositOrderSpirit(linkedMachinePosition);
+                //if no spirit manages the machine, unlink it for now. spirits re-register themselves on spawn
+                this.linkedMachines.remove(linkedMachinePosition);
             }
         }
     }
 
     @Override
     public void addDepositOrderSpirit(GlobalBlockPos linkedMachinePosition, UUID spiritId) {
-        this.depositOrderSpirits.put(linkedMachinePosition, spiritId);
+        this.depositOrderDispatcher.registerSpirit(linkedMachinePosition, spiritId);
+    }
+
+    @Override
+    public void removeDepositOrderSpirit(GlobalBlockPos linkedMachinePosition, UUID spiritId) {
+        if (!this.depositOrderDispatcher.unregisterSpirit(linkedMachinePosition, spiritId))
+            this.linkedMachines.remove(linkedMachinePosition);
     }
 
     @Override
-    public void removeDepositOrderSpirit(GlobalBlockPos linkedMachinePosition) {
-        this.linkedMachines.remove(linkedMachinePosition);
-        this.depositOrderSpirits.remove(linkedMachinePosition);
+    public DepositOrderDispatcher getDepositOrderDispatcher() {
+        return this.depositOrderDispatcher;
     }
 
     @Override
@@ -378,12 +537,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (this.isBlacklisted(stack))
             return stack.getCount();
 
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-        if (ItemHandlerHelper.insertItem(handler, stack, true).getCount() < stack.getCount()) {
-            stack = ItemHandlerHelper.insertItem(handler, stack, simulate);
-        }
-
-        return stack.getCount();
+        return this.itemStackHandlerInternal.insertItemIndexed(stack, simulate).getCount();
     }
 
     @Override
@@ -392,27 +546,19 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
             return ItemStack.EMPTY;
         }
 
-        var comparators = getComparatorsSortedByAmount(comparator);
+        StorageControllerItemStackHandler handler = this.itemStackHandlerInternal;
+        List<Map.Entry<Item, Integer>> itemsByAmount = handler.getMatchingCountsByItem(comparator).entrySet().stream()
+                .sorted((a, b) -> b.getValue().compareTo(a.getValue())).toList();
 
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-
-        //we start with the comparator representing the most common item, and if we don't find anything we move on.
+        //we start with the most common item, and if we don't find anything we move on.
         //Note: unless something weird happens we should always find something.
-        for (var currentComparator : comparators) {
-            for (int slot = 0; slot < handler.getSlots(); slot++) {
-
-                //first we force a simulation to check if the stack fits
-                ItemStack stack = handler.extractItem(slot, 1, true);
-                if (stack.isEmpty()) {
-                    continue;
-                }
-
-                if (currentComparator.test(stack)) {
-                    //now we do the actual operation (note: can still be a simulation, if caller wants to simulate=
-                    return handler.extractItem(slot, 1, simulate);
+        for (var entry : itemsByAmount) {
+            for (int slot : handler.getMatchingSlots(entry.getKey(), comparator)) {
+                //now we do the actual operation (note: can still be a simulation, if caller wants to simulate)
+                ItemStack stack = handler.extractItem(slot, 1, simulate);
+                if (!stack.isEmpty()) {
+                    return stack;
                 }
-
-                //this slot does not match so we move on in the loop.
             }
         }
 
@@ -425,25 +571,18 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (requestedSize <= 0 || comparator == null) {
             return ItemStack.EMPTY;
         }
-        ItemStackHandler handler = this.itemStackHandlerInternal;
+        StorageControllerItemStackHandler handler = this.itemStackHandlerInternal;
         ItemStack firstMatchedStack = ItemStack.EMPTY;
         int remaining = requestedSize;
-        for (int slot = 0; slot < handler.getSlots(); slot++) {
-
-            //first we force a simulation
-            ItemStack stack = handler.extractItem(slot, remaining, true);
+        //only visit slots the index reports as matching, in descending order so extraction cannot shift them.
+        for (int slot : handler.getMatchingSlots(comparator)) {
+            ItemStack stack = handler.getStackInSlot(slot);
             if (stack.isEmpty()) {
                 continue;
             }
 
-            //if we have not found anything yet we can just store the result or move on
+            //the first match determines which stacks we can merge with
             if (firstMatchedStack.isEmpty()) {
-
-                if (!comparator.test(stack)) {
-                    //this slot does not match so we move on
-                    continue;
-                }
-                //just take entire stack -> we're in sim mode
                 firstMatchedStack = stack.copy();
             } else {
                 //we already found something, so we need to make sure the stacks match up, if not we move on.
@@ -478,33 +617,118 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (comparator == null) {
             return 0;
         }
-        int totalCount = 0;
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-        int size = handler.getSlots();
-        for (int slot = 0; slot < size; slot++) {
-            ItemStack stack = handler.getStackInSlot(slot);
-            if (comparator.matches(stack))
-                totalCount += stack.getCount();
+        return this.itemStackHandlerInternal.getMatchingCount(comparator);
+    }
+
+    @Override
+    public List<ItemStack> insertStacks(List<ItemStack> stacks, boolean simulate) {
+        List<ItemStack> accepted = new ArrayList<>(stacks.size());
+        for (ItemStack stack : stacks) {
+            accepted.add(this.isBlacklisted(stack) ? ItemStack.EMPTY : stack);
         }
-        return totalCount;
+
+        this.beginBulkOperation();
+        List<ItemStack> remainders = this.itemStackHandlerInternal.insertItemsIndexed(accepted, simulate);
+        this.endBulkOperation();
+
+        //blacklisted stacks are not inserted at all
+        for (int i = 0; i < stacks.size(); i++) {
+            if (accepted.get(i).isEmpty() && !stacks.get(i).isEmpty())
+                remainders.set(i, stacks.get(i).copy());
+        }
+        return remainders;
+    }
+
+    @Override
+    public boolean insertAllStacks(List<ItemStack> stacks, boolean simulate) {
+        if (!this.insertStacks(stacks, true).stream().allMatch(ItemStack::isEmpty))
+            return false;
+        if (!simulate)
+            this.insertStacks(stacks, false);
+        return true;
+    }
+
+    @Override
+    public ItemStack extractStack(ItemStack key, int amount, boolean simulate) {
+        if (key.isEmpty())
+            return ItemStack.EMPTY;
+
+        this.beginBulkOperation();
+        ItemStack result = this.getItemStack(new ItemStackComparator(key, true), amount, simulate);
+        this.endBulkOperation();
+        return result;
+    }
+
+    @Override
+    public List<ItemStack> extractStacks(List<ItemStack> keys, boolean simulate) {
+        List<ItemStack> result = new ArrayList<>(keys.size());
+        //amounts already handed out per key, so a simulation does not hand out the same items twice.
+        Map<ItemStackKey, Integer> simulatedExtracted = new HashMap<>();
+
+        this.beginBulkOperation();
+        for (ItemStack key : keys) {
+            if (key.isEmpty()) {
+                result.add(ItemStack.EMPTY);
+            } else if (!simulate) {
+                result.add(this.getItemStack(new ItemStackComparator(key, true), key.getCount(), false));
+            } else {
+                ItemStackKey stackKey = ItemStackKey.of(key);
+                int extracted = simulatedExtracted.getOrDefault(stackKey, 0);
+                int amount = Math.min(key.getCount(), this.getCount(key) - extracted);
+                if (amount > 0) {
+                    simulatedExtracted.put(stackKey, extracted + amount);
+                    result.add(ItemHandlerHelper.copyStackWithSize(key, amount));
+                } else {
+                    result.add(ItemStack.EMPTY);
+                }
+            }
+        }
+        this.endBulkOperation();
+        return result;
+    }
+
+    @Override
+    public int getCount(ItemStack key) {
+        if (key.isEmpty())
+            return 0;
+        return this.itemStackHandlerInternal.getMatchingCount(new ItemStackComparator(key, true));
     }
 
     @Override
     public void onContentsChanged() {
+        if (this.inBulkOperation) {
+            this.bulkContentsChanged = true;
+            return;
+        }
+
         this.cachedMessageUpdateStacks = null;
+        this.cachedPagedViewStacks = null;
+        this.viewersDirty = !this.viewers.isEmpty();
         this.setChanged();
     }
 
+    @Override
+    public void addViewer(ServerPlayer player) {
+        this.viewers.add(player);
+    }
+
+    @Override
+    public void removeViewer(ServerPlayer player) {
+        this.viewers.remove(player);
+    }
+
     @Override
     public void invalidateCaps() {
         super.invalidateCaps();
         this.itemStackHandler.invalidate();
+        this.bulkItemHandler.invalidate();
     }
 
     @Override
     public void reviveCaps() {
         super.reviveCaps();
         this.itemStackHandler = LazyOptional.of(() -> this.itemStackHandlerInternal);
+        this.bulkItemHandler = LazyOptional.of(() -> this);
     }
     //endregion Overrides
 
@@ -514,6 +738,9 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (cap == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) {
             return this.itemStackHandler.cast();
         }
+        if (cap == OccultismCapabilities.BULK_ITEM_HANDLER) {
+            return this.bulkItemHandler.cast();
+        }
         return super.getCapability(cap, direction);
     }
 
@@ -527,6 +754,11 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
             this.itemStackHandlerInternal.deserializeNBT(compound.getCompound("items"));
             this.cachedMessageUpdateStacks = null;
         }
+
+        //read pending deposit orders
+        if (compound.contains("depositOrders")) {
+            this.depositOrderDispatcher.deserializeNBT(compound.getList("depositOrders", Tag.TAG_COMPOUND));
+        }
     }
 
     @Override
@@ -534,6 +766,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         super.saveAdditional(compound);
         compound.remove("linkedMachines"); //linked machines are not saved, they self-register.
         compound.put("items", this.itemStackHandlerInternal.serializeNBT());
+        compound.put("depositOrders", this.depositOrderDispatcher.serializeNBT());
     }
 
     @Override
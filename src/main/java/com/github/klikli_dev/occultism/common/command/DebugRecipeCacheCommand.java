@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.command;
+
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeCache;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+import java.util.List;
+
+public class DebugRecipeCacheCommand implements Command<CommandSourceStack> {
+
+    //region Fields
+    private static final DebugRecipeCacheCommand CMD = new DebugRecipeCacheCommand();
+    //endregion Fields
+
+    //region Static Methods
+    public static ArgumentBuilder<CommandSourceStack, ?> register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        return Commands.literal("recipes")
+                .requires(cs -> cs.hasPermission(1))
+                .executes(CMD);
+    }
+    //endregion Static Methods
+
+    //region Overrides
+    @Override
+    public int run(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        for (ItemRecipeCache<?, ?> cache : List.of(ItemRecipeCache.SPIRIT_FIRE, ItemRecipeCache.CRUSHING,
+                ItemRecipeCache.MINER)) {
+            context.getSource().sendSuccess(Component.literal("Recipe cache " + cache.getRecipeType() + ": " +
+                    cache.getHits() + " hits, " + cache.getMisses() + " misses"), false);
+        }
+        return 0;
+    }
+    //endregion Overrides
+}
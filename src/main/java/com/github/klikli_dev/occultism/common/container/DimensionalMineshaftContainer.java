@@ -30,6 +30,8 @@ import com.github.klikli_dev.occultism.util.RecipeUtil;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerData;
+import net.minecraft.world.inventory.SimpleContainerData;
 import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.RecipeManager;
@@ -44,6 +46,7 @@ public class DimensionalMineshaftContainer extends AbstractContainerMenu {
     public ItemStackHandler outputHandler;
     public DimensionalMineshaftBlockEntity otherworldMiner;
     public Inventory playerInventory;
+    protected ContainerData miningProgress;
     //endregion Fields
 
     //region Initialization
@@ -54,6 +57,10 @@ public class DimensionalMineshaftContainer extends AbstractContainerMenu {
         this.otherworldMiner = otherworldMiner;
         this.inputHandler = otherworldMiner.inputHandler.orElseThrow(ItemHandlerMissingException::new);
         this.outputHandler = otherworldMiner.outputHandler.orElseThrow(ItemHandlerMissingException::new);
+        //the client receives the progress through the data slots
+        this.miningProgress = playerInventory.player.level.isClientSide ? new SimpleContainerData(1) :
+                otherworldMiner.miningProgress;
+        this.addDataSlots(this.miningProgress);
 
         this.setupMinerInventory();
         this.setupPlayerInventorySlots(playerInventory.player);
@@ -61,6 +68,16 @@ public class DimensionalMineshaftContainer extends AbstractContainerMenu {
     }
     //endregion Initialization
 
+    //region Getter / Setter
+
+    /**
+     * @return the mining progress, scaled to {@link DimensionalMineshaftBlockEntity#MINING_PROGRESS_SCALE}.
+     */
+    public int getMiningProgress() {
+        return this.miningProgress.get(0);
+    }
+    //endregion Getter / Setter
+
     //region Overrides
     @Override
     public boolean stillValid(Player player) {
@@ -25,6 +25,7 @@ package com.github.klikli_dev.occultism.common.container.spirit;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.registry.OccultismContainers;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
@@ -41,6 +42,10 @@ public class SpiritContainer extends AbstractContainerMenu {
     //region Fields
     public ItemStackHandler inventory;
     public SpiritEntity spirit;
+    /**
+     * The index of the first entity inventory slot in the container slots.
+     */
+    protected int entityInventoryStart;
     //endregion Fields
 
     //region Initialization
@@ -55,6 +60,24 @@ public class SpiritContainer extends AbstractContainerMenu {
 
         this.setupSlots(playerInventory);
     }
+
+    /**
+     * Reads the spirit from the extra data sent by {@link SpiritEntity#openGUI(Player)} and sizes its client side
+     * inventory to match the server, as the loaded inventory may be larger than the configured size.
+     *
+     * @param playerInventory the client player's inventory.
+     * @param data            the extra data.
+     * @return the spirit.
+     */
+    public static SpiritEntity readClientSpirit(Inventory playerInventory, FriendlyByteBuf data) {
+        SpiritEntity spirit = (SpiritEntity) playerInventory.player.level.getEntity(data.readInt());
+        int inventorySize = data.readVarInt();
+        spirit.itemStackHandler.ifPresent(handler -> {
+            if (handler.getSlots() != inventorySize)
+                handler.setSize(inventorySize);
+        });
+        return spirit;
+    }
     //endregion Initialization
 
     //region Overrides
@@ -65,11 +88,12 @@ public class SpiritContainer extends AbstractContainerMenu {
         if (slot != null && slot.hasItem()) {
             ItemStack itemstack1 = slot.getItem();
             itemstack = itemstack1.copy();
-            if (index < this.inventory.getSlots()) {
-                if (!this.moveItemStackTo(itemstack1, this.inventory.getSlots(), this.slots.size(), true)) {
+            int entityInventoryEnd = this.entityInventoryStart + this.inventory.getSlots();
+            if (index >= this.entityInventoryStart && index < entityInventoryEnd) {
+                if (!this.moveItemStackTo(itemstack1, 0, this.entityInventoryStart, true)) {
                     return ItemStack.EMPTY;
                 }
-            } else if (!this.moveItemStackTo(itemstack1, 0, this.inventory.getSlots(), false)) {
+            } else if (!this.moveItemStackTo(itemstack1, this.entityInventoryStart, entityInventoryEnd, false)) {
                 return ItemStack.EMPTY;
             }
 
@@ -119,18 +143,24 @@ public class SpiritContainer extends AbstractContainerMenu {
     }
 
     protected void setupEntityInventory() {
-        this.addSlot(new SlotItemHandler(this.inventory, 0, 152, 54) {
-            //region Overrides
-            @Override
-            public boolean mayPlace(ItemStack stack) {
-                return super.mayPlace(stack);
-            }
+        this.entityInventoryStart = this.slots.size();
+        for (int i = 0; i < this.inventory.getSlots(); i++) {
+            //the first slot is the held item, additional slots are placed in columns next to the gui.
+            int x = i == 0 ? 152 : 180 + (i - 1) / 4 * 18;
+            int y = i == 0 ? 54 : 8 + (i - 1) % 4 * 18;
+            this.addSlot(new SlotItemHandler(this.inventory, i, x, y) {
+                //region Overrides
+                @Override
+                public boolean mayPlace(ItemStack stack) {
+                    return super.mayPlace(stack);
+                }
 
-            public void setChanged() {
-                this.container.setChanged();
-            }
-            //endregion Overrides
-        });
+                public void setChanged() {
+                    this.container.setChanged();
+                }
+                //endregion Overrides
+            });
+        }
     }
     //endregion Methods
 }
@@ -122,9 +122,8 @@ public class StableWormholeContainer extends StorageControllerContainerBase {
         if (this.storageController == null || this.stableWormhole == null)
             return false;
         Level level = this.stableWormhole.getLevel();
-        //send stack updates on a slow tick while interacting
+        //send linked machine updates on a slow tick while interacting, stacks are pushed by the controller
         if (!level.isClientSide && level.getGameTime() % 40 == 0) {
-            OccultismPackets.sendTo((ServerPlayer) player, this.storageController.getMessageUpdateStacks());
             OccultismPackets.sendTo((ServerPlayer) player,
                     new MessageUpdateLinkedMachines(this.storageController.getLinkedMachines()));
         }
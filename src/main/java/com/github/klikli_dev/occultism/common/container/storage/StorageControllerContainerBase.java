@@ -28,8 +28,9 @@ import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.github.klikli_dev.occultism.client.gui.storage.StorageControllerGuiBase;
 import com.github.klikli_dev.occultism.common.misc.ItemStackComparator;
 import com.github.klikli_dev.occultism.common.misc.StorageControllerCraftingInventory;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerPagedView;
 import com.github.klikli_dev.occultism.common.misc.StorageControllerSlot;
-import com.github.klikli_dev.occultism.network.OccultismPackets;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.NonNullList;
 import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
 import net.minecraft.server.level.ServerPlayer;
@@ -65,6 +66,13 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
      * used to lock recipe while crafting
      */
     protected boolean recipeLocked = false;
+
+    /**
+     * The storage controller revision last sent to the player.
+     */
+    protected long syncedRevision = -1;
+
+    protected StorageControllerPagedView pagedView = new StorageControllerPagedView();
     //endregion Fields
 
     //region Initialization
@@ -88,6 +96,21 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
                 (BlockEntity) this.getStorageController());
     }
 
+    @Override
+    public long getSyncedRevision() {
+        return this.syncedRevision;
+    }
+
+    @Override
+    public void setSyncedRevision(long revision) {
+        this.syncedRevision = revision;
+    }
+
+    @Override
+    public StorageControllerPagedView getPagedView() {
+        return this.pagedView;
+    }
+
     @Override
     public CraftingContainer getCraftMatrix() {
         return this.matrix;
@@ -139,7 +162,7 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
                 this.broadcastChanges();
 
                 //get updated stacks from storage controller and send to client
-                OccultismPackets.sendTo((ServerPlayer) player, storageController.getMessageUpdateStacks());
+                StorageUtil.sendStackUpdate((ServerPlayer) player, this);
 
                 if (!remainingItemStack.isEmpty()) {
                     slot.onTake(player, slotStack);
@@ -154,6 +177,11 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
     public void removed(Player playerIn) {
         this.updateCraftingSlots(false);
         this.updateOrderSlot(true); //only send network update on second call
+        if (playerIn instanceof ServerPlayer serverPlayer) {
+            IStorageController storageController = this.getStorageController();
+            if (storageController != null)
+                storageController.removeViewer(serverPlayer);
+        }
         super.removed(playerIn);
     }
 
@@ -242,6 +270,161 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
         //lock recipes to avoid modification while we shift craft
         this.recipeLocked = true;
 
+        //craft all at once if possible, otherwise fall back to crafting one by one
+        if (storageController == null || !this.craftShiftBatch(player, storageController)) {
+            this.craftShiftSingle(player);
+        }
+
+        this.broadcastChanges();
+
+        //unlock crafting matrix
+        this.recipeLocked = false;
+
+        //update crafting matrix to handle container items / items that survive crafting
+        this.slotsChanged(this.matrix);
+        StorageUtil.sendStackUpdate((ServerPlayer) player, this);
+    }
+
+    /**
+     * Crafts as many results as fit into one stack in a single pass: the craft count is computed up front from the
+     * matrix and the storage controller totals, ingredients are extracted in bulk and stackable container items are
+     * handed out in aggregate.
+     *
+     * @param player            the crafting player.
+     * @param storageController the storage controller to take ingredients from.
+     * @return false if the recipe cannot be batch crafted, e.g. because an unstackable ingredient survives crafting.
+     */
+    protected boolean craftShiftBatch(Player player, IStorageController storageController) {
+        ItemStack result = this.currentRecipe.assemble(this.matrix);
+        if (result.isEmpty() || !this.currentRecipe.matches(this.matrix, player.level)) {
+            return false;
+        }
+
+        int matrixSize = this.matrix.getContainerSize();
+        NonNullList<ItemStack> remainingItems = this.currentRecipe.getRemainingItems(this.matrix);
+        List<ItemStack> recipeCopy = new ArrayList<>(matrixSize);
+        List<IngredientGroup> groups = new ArrayList<>();
+        for (int i = 0; i < matrixSize; i++) {
+            ItemStack stackInSlot = this.matrix.getItem(i);
+            recipeCopy.add(stackInSlot.copy());
+            if (stackInSlot.isEmpty())
+                continue;
+
+            //tools and unstackable container items stay in the grid and change with every craft
+            if (!remainingItems.get(i).isEmpty() && !stackInSlot.isStackable())
+                return false;
+
+            //catalysts are returned to the grid unchanged, same as crafting one by one, so they are never consumed
+            if (ItemStack.isSameItemSameTags(remainingItems.get(i), stackInSlot)) {
+                remainingItems.set(i, ItemStack.EMPTY);
+                continue;
+            }
+
+            //identical ingredients share the stacks in the matrix and the supply in storage
+            IngredientGroup group = null;
+            for (IngredientGroup existing : groups) {
+                if (ItemStack.isSameItemSameTags(existing.stack, stackInSlot)) {
+                    group = existing;
+                    break;
+                }
+            }
+            if (group == null) {
+                group = new IngredientGroup(stackInSlot.copy());
+                groups.add(group);
+            }
+            group.slots.add(i);
+            group.inMatrix += stackInSlot.getCount();
+        }
+
+        //never craft more than one result stack, same as crafting one by one
+        int resultStackSize = result.getCount();
+        int crafts = result.getMaxStackSize() / resultStackSize;
+        for (IngredientGroup group : groups) {
+            int available = group.inMatrix + storageController.getAvailableAmount(group.comparator);
+            crafts = Math.min(crafts, available / group.slots.size());
+        }
+
+        //only craft what fits into the player inventory
+        ItemStack notInserted = ItemHandlerHelper.insertItemStacked(new PlayerMainInvWrapper(this.playerInventory),
+                ItemHandlerHelper.copyStackWithSize(result, crafts * resultStackSize), true);
+        crafts -= (notInserted.getCount() + resultStackSize - 1) / resultStackSize;
+        if (crafts <= 0)
+            return true;
+
+        //reserve the ingredients, if storage hands out less than it reported we craft less.
+        for (IngredientGroup group : groups) {
+            int required = crafts * group.slots.size() - group.inMatrix;
+            if (required > 0) {
+                group.extracted = storageController.getItemStack(group.comparator, required, false).getCount();
+            }
+            crafts = Math.min(crafts, (group.inMatrix + group.extracted) / group.slots.size());
+        }
+
+        //hand out the result first, only the result was checked to fit into the player inventory
+        ItemHandlerHelper.giveItemToPlayer(player, ItemHandlerHelper.copyStackWithSize(result, crafts * resultStackSize));
+
+        //consume the ingredients and put what is left back into the matrix, overflow goes back to storage
+        for (IngredientGroup group : groups) {
+            int left = group.inMatrix + group.extracted - crafts * group.slots.size();
+            for (int slot : group.slots) {
+                int count = Math.min(left, recipeCopy.get(slot).getCount());
+                this.matrix.setItem(slot, count > 0 ?
+                        ItemHandlerHelper.copyStackWithSize(group.stack, count) : ItemStack.EMPTY);
+                left -= count;
+            }
+            if (left > 0) {
+                ItemStack overflow = ItemHandlerHelper.copyStackWithSize(group.stack, left);
+                int notStored = storageController.insertStack(overflow, false);
+                if (notStored > 0)
+                    this.giveItemsToPlayer(player, overflow, notStored);
+            }
+        }
+
+        //hand out container items for all crafts at once
+        for (ItemStack remainingItem : remainingItems) {
+            if (!remainingItem.isEmpty()) {
+                this.giveItemsToPlayer(player, remainingItem, remainingItem.getCount() * crafts);
+            }
+        }
+
+        //refill emptied slots so the grid still shows the recipe
+        this.refillMatrix(recipeCopy);
+        return true;
+    }
+
+    /**
+     * Gives the given amount of the stack to the player, split into stacks of valid size.
+     */
+    protected void giveItemsToPlayer(Player player, ItemStack stack, int amount) {
+        while (amount > 0) {
+            int count = Math.min(amount, stack.getMaxStackSize());
+            ItemHandlerHelper.giveItemToPlayer(player, ItemHandlerHelper.copyStackWithSize(stack, count));
+            amount -= count;
+        }
+    }
+
+    /**
+     * Fills empty matrix slots with one of the most common matching item from the storage controller.
+     *
+     * @param recipeCopy the matrix contents before crafting.
+     */
+    protected void refillMatrix(List<ItemStack> recipeCopy) {
+        for (int i = 0; i < this.matrix.getContainerSize(); i++) {
+            ItemStack stackInSlot = this.matrix.getItem(i);
+            //if the stack is empty, refill from storage
+            if (stackInSlot.isEmpty()) {
+                ItemStack recipeStack = recipeCopy.get(i);
+
+                ItemStackComparator comparator = !recipeStack.isEmpty() ? new ItemStackComparator(
+                        recipeStack) : null;
+
+                ItemStack requestedItem = this.getStorageController().getOneOfMostCommonItem(comparator, false);
+                this.matrix.setItem(i, requestedItem);
+            }
+        }
+    }
+
+    protected void craftShiftSingle(Player player) {
         //copy the recipe stacks
         List<ItemStack> recipeCopy = new ArrayList<>(this.matrix.getContainerSize());
         for (int i = 0; i < this.matrix.getContainerSize(); i++) {
@@ -342,19 +525,8 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
 
 
             crafted += resultStackSize;
-            for (int i = 0; i < this.matrix.getContainerSize(); i++) {
-                ItemStack stackInSlot = this.matrix.getItem(i);
-                //if the stack is empty, refill from storage and then continue looping
-                if (stackInSlot.isEmpty()) {
-                    ItemStack recipeStack = recipeCopy.get(i);
-
-                    ItemStackComparator comparator = !recipeStack.isEmpty() ? new ItemStackComparator(
-                            recipeStack) : null;
-
-                    ItemStack requestedItem = this.getStorageController().getOneOfMostCommonItem(comparator, false);
-                    this.matrix.setItem(i, requestedItem);
-                }
-            }
+            //refill from storage and then continue looping
+            this.refillMatrix(recipeCopy);
             this.slotsChanged(this.matrix);
         }
 
@@ -364,16 +536,23 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
             finalResult.setCount(finalResult.getCount() + intermediateResult.getCount());
         }
         ItemHandlerHelper.giveItemToPlayer(player, finalResult);
-
-        this.broadcastChanges();
-
-        //unlock crafting matrix
-        this.recipeLocked = false;
-
-        //update crafting matrix to handle container items / items that survive crafting
-        this.slotsChanged(this.matrix);
-        OccultismPackets.sendTo((ServerPlayer) player, this.getStorageController().getMessageUpdateStacks());
-
     }
     //endregion Methods
+
+    protected static class IngredientGroup {
+        //region Fields
+        protected final ItemStack stack;
+        protected final ItemStackComparator comparator;
+        protected final List<Integer> slots = new ArrayList<>();
+        protected int inMatrix;
+        protected int extracted;
+        //endregion Fields
+
+        //region Initialization
+        public IngredientGroup(ItemStack stack) {
+            this.stack = stack;
+            this.comparator = new ItemStackComparator(stack, true);
+        }
+        //endregion Initialization
+    }
 }
@@ -125,10 +125,9 @@ public class StorageRemoteContainer extends StorageControllerContainerBase {
     public boolean stillValid(Player entityPlayer) {
         IStorageController storageController = this.getStorageController();
         //stillValid is constantly called, so we use it to send
-        //stack updates every 40 ticks.
+        //linked machine updates every 40 ticks, stacks are pushed by the controller.
         if (storageController != null && !entityPlayer.level.isClientSide &&
                 entityPlayer.level.getGameTime() % 40 == 0) {
-            OccultismPackets.sendTo((ServerPlayer) this.player, this.getStorageController().getMessageUpdateStacks());
             OccultismPackets.sendTo((ServerPlayer) this.player,
                     new MessageUpdateLinkedMachines(this.getStorageController().getLinkedMachines()));
         }
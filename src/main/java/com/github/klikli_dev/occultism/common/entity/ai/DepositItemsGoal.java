@@ -22,16 +22,17 @@
 
 package com.github.klikli_dev.occultism.common.entity.ai;
 
+import com.github.klikli_dev.occultism.api.common.capability.IBulkItemHandler;
 import com.github.klikli_dev.occultism.common.entity.ai.target.BlockPosMoveTarget;
 import com.github.klikli_dev.occultism.common.entity.ai.target.EntityMoveTarget;
 import com.github.klikli_dev.occultism.common.entity.ai.target.IMoveTarget;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
+import com.github.klikli_dev.occultism.registry.OccultismCapabilities;
 import com.github.klikli_dev.occultism.util.Math3DUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ClipContext;
@@ -41,15 +42,19 @@ import net.minecraft.world.phys.BlockHitResult;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
 import net.minecraftforge.items.ItemHandlerHelper;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public class DepositItemsGoal extends PausableGoal {
     //region Fields
     protected final SpiritEntity entity;
+    protected final GoalPathfinder pathfinder;
     protected final BlockSorter targetSorter;
     protected IMoveTarget moveTarget = null;
     //endregion Fields
@@ -57,6 +62,7 @@ public class DepositItemsGoal extends PausableGoal {
     //region Initialization
     public DepositItemsGoal(SpiritEntity entity) {
         this.entity = entity;
+        this.pathfinder = new GoalPathfinder(entity);
         this.targetSorter = new BlockSorter(entity);
         this.setFlags(EnumSet.of(Flag.TARGET));
     }
@@ -80,8 +86,8 @@ public class DepositItemsGoal extends PausableGoal {
         if (this.entity.getTarget() != null) {
             return false;
         }
-        //nothing to deposit in hand
-        if (this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty()) {
+        //nothing to deposit
+        if (this.entity.isJobInventoryEmpty()) {
             return false;
         }
         this.resetTarget();
@@ -90,11 +96,12 @@ public class DepositItemsGoal extends PausableGoal {
 
     @Override
     public boolean canContinueToUse() {
-        return !this.isPaused() && this.moveTarget != null && !this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty();
+        return !this.isPaused() && this.moveTarget != null && !this.entity.isJobInventoryEmpty();
     }
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.pathfinder.reset();
         this.resetTarget();
     }
 
@@ -119,10 +126,10 @@ public class DepositItemsGoal extends PausableGoal {
                 } else {
                     //continue moving
                     BlockPos moveTarget = this.getMoveTarget();
-                    this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                    this.pathfinder.moveTo(moveTarget, 1.0f);
                 }
 
-                //when close enough insert item
+                //when close enough insert items
                 if (distance < accessDistance && this.canSeeTarget()) {
 
                     LazyOptional<IItemHandler> handlerCapability = this.moveTarget.getCapability(
@@ -133,22 +140,28 @@ public class DepositItemsGoal extends PausableGoal {
                         return;
                     }
                     IItemHandler handler = handlerCapability.orElseThrow(ItemHandlerMissingException::new);
-                    ItemStack duplicate = this.entity.getItemInHand(InteractionHand.MAIN_HAND).copy();
-
-                    //simulate insertion
-                    ItemStack toInsert = ItemHandlerHelper.insertItem(handler, duplicate, true);
-                    //if anything was inserted go for real
-                    if (toInsert.getCount() != duplicate.getCount()) {
-                        ItemStack leftover = ItemHandlerHelper.insertItem(handler, duplicate, false);
-                        //if we inserted everything
-                        this.entity.setItemInHand(InteractionHand.MAIN_HAND, leftover);
-                        if (toInsert.isEmpty()) {
-                            this.moveTarget = null;
-                            this.stop();
-                        } else {
-                            //pause ai to retry again in a little while.
-                            this.pause(2000);
+                    List<ItemStack> duplicates = this.getCarriedStacks();
+
+                    LazyOptional<IBulkItemHandler> bulkHandlerCapability = this.moveTarget.getCapability(
+                            OccultismCapabilities.BULK_ITEM_HANDLER, this.entity.getDepositFacing());
+                    if (bulkHandlerCapability.isPresent()) {
+                        //storage controllers take all stacks in one pass, no need to simulate first.
+                        List<ItemStack> leftovers = bulkHandlerCapability.orElseThrow(ItemHandlerMissingException::new)
+                                .insertStacks(duplicates, false);
+                        this.onInserted(duplicates, leftovers);
+                    } else {
+                        List<ItemStack> leftovers = new ArrayList<>(duplicates.size());
+                        for (ItemStack duplicate : duplicates) {
+                            //simulate insertion
+                            ItemStack toInsert = ItemHandlerHelper.insertItem(handler, duplicate, true);
+                            //if anything was inserted go for real
+                            if (toInsert.getCount() != duplicate.getCount()) {
+                                leftovers.add(ItemHandlerHelper.insertItem(handler, duplicate, false));
+                            } else {
+                                leftovers.add(duplicate);
+                            }
                         }
+                        this.onInserted(duplicates, leftovers);
                     }
 
                     //after inserting, close chest
@@ -164,6 +177,59 @@ public class DepositItemsGoal extends PausableGoal {
     //endregion Overrides
 
     //region Methods
+
+    /**
+     * @return copies of all non-empty stacks in the job inventory.
+     */
+    protected List<ItemStack> getCarriedStacks() {
+        IItemHandler handler = this.entity.getJobItemHandler();
+        List<ItemStack> stacks = new ArrayList<>(handler.getSlots());
+        for (int i = 0; i < handler.getSlots(); i++) {
+            ItemStack stack = handler.getStackInSlot(i);
+            if (!stack.isEmpty())
+                stacks.add(stack.copy());
+        }
+        return stacks;
+    }
+
+    /**
+     * Updates the job inventory after inserting into the target.
+     *
+     * @param inserted  the stacks that were offered to the target.
+     * @param leftovers the part of each stack the target did not accept, in the same order.
+     */
+    public void onInserted(List<ItemStack> inserted, List<ItemStack> leftovers) {
+        int insertedCount = 0;
+        int leftoverCount = 0;
+        for (int i = 0; i < inserted.size(); i++) {
+            insertedCount += inserted.get(i).getCount();
+            leftoverCount += leftovers.get(i).getCount();
+        }
+        //nothing was inserted, keep trying
+        if (leftoverCount == insertedCount)
+            return;
+
+        //move the leftovers to the front, so the held item is always the first remaining stack.
+        IItemHandlerModifiable handler = this.entity.getJobItemHandler();
+        int slot = 0;
+        for (ItemStack leftover : leftovers) {
+            if (!leftover.isEmpty())
+                handler.setStackInSlot(slot++, leftover);
+        }
+        for (; slot < handler.getSlots(); slot++) {
+            handler.setStackInSlot(slot, ItemStack.EMPTY);
+        }
+
+        //if we inserted everything
+        if (leftoverCount == 0) {
+            this.moveTarget = null;
+            this.stop();
+        } else {
+            //pause ai to retry again in a little while.
+            this.pause(40);
+        }
+    }
+
     public boolean canSeeTarget() {
 
         ClipContext context = new ClipContext(this.entity.position(),
@@ -29,7 +29,6 @@ import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.Container;
-import net.minecraft.world.InteractionHand;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ClipContext;
 import net.minecraft.world.level.block.entity.BlockEntity;
@@ -46,6 +45,7 @@ import java.util.Optional;
 public class ExtractItemsGoal extends PausableGoal {
     //region Fields
     protected final SpiritEntity entity;
+    protected final GoalPathfinder pathfinder;
     protected final BlockSorter targetSorter;
     protected BlockPos targetBlock = null;
     //endregion Fields
@@ -53,6 +53,7 @@ public class ExtractItemsGoal extends PausableGoal {
     //region Initialization
     public ExtractItemsGoal(SpiritEntity entity) {
         this.entity = entity;
+        this.pathfinder = new GoalPathfinder(entity);
         this.targetSorter = new BlockSorter(entity);
         this.setFlags(EnumSet.of(Flag.TARGET));
     }
@@ -77,8 +78,8 @@ public class ExtractItemsGoal extends PausableGoal {
             return false;
         }
 
-        //hand already full, cannot pick up anythings
-        if (!this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty()) {
+        //already carrying items, deposit them first
+        if (!this.entity.isJobInventoryEmpty()) {
             return false;
         }
         this.resetTarget();
@@ -87,11 +88,12 @@ public class ExtractItemsGoal extends PausableGoal {
 
     @Override
     public boolean canContinueToUse() {
-        return !this.isPaused() && this.targetBlock != null && !this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty();
+        return !this.isPaused() && this.targetBlock != null && this.entity.isJobInventoryEmpty();
     }
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.pathfinder.reset();
         this.resetTarget();
     }
 
@@ -118,10 +120,10 @@ public class ExtractItemsGoal extends PausableGoal {
                 } else {
                     //continue moving
                     BlockPos moveTarget = this.getMoveTarget();
-                    this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                    this.pathfinder.moveTo(moveTarget, 1.0f);
                 }
 
-                //when close enough extract item
+                //when close enough extract items
                 if (distance < accessDistance && this.canSeeTarget()) {
 
                     LazyOptional<IItemHandler> handlerCapability = blockEntity.getCapability(
@@ -132,13 +134,12 @@ public class ExtractItemsGoal extends PausableGoal {
                         return;
                     }
                     IItemHandler blockEntityHandler = handlerCapability.orElseThrow(ItemHandlerMissingException::new);
-                    IItemHandler entityHandler =
-                            this.entity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, Direction.DOWN)
-                                    .orElseThrow(ItemHandlerMissingException::new);
+                    IItemHandler entityHandler = this.entity.getJobItemHandler();
 
-                    int slot = StorageUtil.getFirstMatchingSlot(blockEntityHandler,
-                            this.entity.getFilterItems().orElseThrow(ItemHandlerMissingException::new), this.entity.getTagFilter(), this.entity.isFilterBlacklist());
-                    if (slot >= 0) {
+                    //fill all slots in one go, so the whole inventory is carried on each trip.
+                    boolean extractedAny = false;
+                    int slot = StorageUtil.getFirstMatchingSlot(blockEntityHandler, this.entity.getItemFilter());
+                    while (slot >= 0 && this.entity.hasEmptyJobInventorySlot()) {
                         //simulate extraction
                         ItemStack toExtract = blockEntityHandler.extractItem(slot, Integer.MAX_VALUE, true).copy();
                         if (!toExtract.isEmpty()) {
@@ -147,10 +148,16 @@ public class ExtractItemsGoal extends PausableGoal {
                                 //if simulation went well, do for real
                                 ItemStack extracted = blockEntityHandler.extractItem(slot, toExtract.getCount() - remaining.getCount(), false);
                                 ItemHandlerHelper.insertItem(entityHandler, extracted, false);
+                                extractedAny = true;
                             }
                         }
+                        slot = StorageUtil.getFirstMatchingSlotAfter(blockEntityHandler, slot, this.entity.getItemFilter());
                     }
 
+                    //nothing to take, wait a little instead of checking again every tick.
+                    if (!extractedAny)
+                        this.pause(20);
+
                     //after extracting, close chest
                     if (blockEntity instanceof Container container) {
                         this.toggleChest(container, false);
@@ -25,16 +25,12 @@ package com.github.klikli_dev.occultism.common.entity.ai;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageControllerProxy;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.common.job.ManageMachineJob;
+import com.github.klikli_dev.occultism.util.WorkAreaUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.world.InteractionHand;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 
-import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * If there is a handheld item and no deposit location, it will try to deposit in a storage controller.
@@ -42,7 +38,6 @@ import java.util.stream.Collectors;
 public class FallbackDepositToControllerGoal extends PausableGoal {
     //region Fields
     protected final SpiritEntity entity;
-    protected final BlockSorter targetSorter;
     protected ManageMachineJob job;
     protected int retries = 0;
     //endregion Fields
@@ -51,7 +46,6 @@ public class FallbackDepositToControllerGoal extends PausableGoal {
     public FallbackDepositToControllerGoal(SpiritEntity entity, ManageMachineJob job) {
         this.entity = entity;
         this.job = job;
-        this.targetSorter = new BlockSorter(entity);
         this.setFlags(EnumSet.of(Flag.MOVE));
     }
     //endregion Initialization
@@ -68,8 +62,8 @@ public class FallbackDepositToControllerGoal extends PausableGoal {
         if (this.job.getStorageController() == null)
             return false;
 
-        //if we are holding something but have no deposit location we can execute this
-        return !this.isPaused() && !this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty() &&
+        //if we are carrying something but have no deposit location we can execute this
+        return !this.isPaused() && !this.entity.isJobInventoryEmpty() &&
                 !this.entity.getDepositPosition().isPresent();
     }
 
@@ -90,7 +84,7 @@ public class FallbackDepositToControllerGoal extends PausableGoal {
                 this.retries++;
 
             //wait before trying again.
-            this.pause(this.retries * 10000L);
+            this.pause(this.retries * 200L);
         }
 
     }
@@ -99,32 +93,17 @@ public class FallbackDepositToControllerGoal extends PausableGoal {
     //region Methods
 
     protected BlockEntity findClosestStorageProxy() {
-        Level level = this.entity.level;
-        List<BlockPos> allBlocks = new ArrayList<>();
         BlockPos machinePosition = this.job.getManagedMachine().insertGlobalPos.getPos();
 
         //get work area, but only half height, we don't need full.
         int workAreaSize = this.entity.getWorkAreaSize().getValue();
-        List<BlockPos> searchBlocks = BlockPos.betweenClosedStream(
-                        machinePosition.offset(-workAreaSize, -workAreaSize / 2, -workAreaSize),
-                        machinePosition.offset(workAreaSize, workAreaSize / 2, workAreaSize)).map(BlockPos::immutable)
-                .collect(Collectors.toList());
-
-        for (BlockPos pos : searchBlocks) {
-            BlockEntity blockEntity = level.getBlockEntity(pos);
-            if (blockEntity instanceof IStorageControllerProxy proxy) {
-                if (proxy.getLinkedStorageControllerPosition() != null &&
-                        proxy.getLinkedStorageControllerPosition().equals(this.job.getStorageControllerPosition()))
-                    allBlocks.add(pos);
-            }
-        }
-
-        //set closest log as target
-        if (!allBlocks.isEmpty()) {
-            allBlocks.sort(this.targetSorter);
-            return level.getBlockEntity(allBlocks.get(0));
-        }
-        return null;
+        return WorkAreaUtil.findClosestBlockEntity(this.entity.level,
+                machinePosition.offset(-workAreaSize, -workAreaSize / 2, -workAreaSize),
+                machinePosition.offset(workAreaSize, workAreaSize / 2, workAreaSize),
+                this.entity.getEyePosition(),
+                blockEntity -> blockEntity instanceof IStorageControllerProxy proxy &&
+                        proxy.getLinkedStorageControllerPosition() != null &&
+                        proxy.getLinkedStorageControllerPosition().equals(this.job.getStorageControllerPosition()));
     }
 
     //endregion Methods
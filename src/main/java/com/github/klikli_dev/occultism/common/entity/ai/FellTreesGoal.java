@@ -39,14 +39,12 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.LeavesBlock;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class FellTreesGoal extends Goal {
     public static final int WORKAREA_EMPTY_REFRESH_TIME = 20 * 15;
 
     protected final SpiritEntity entity;
-    protected final BlockSorter targetSorter;
+    protected final GoalPathfinder pathfinder;
     protected BlockPos targetBlock = null;
     protected BlockPos moveTarget = null;
     protected int breakingTime;
@@ -57,7 +55,7 @@ public class FellTreesGoal extends Goal {
 
     public FellTreesGoal(SpiritEntity entity) {
         this.entity = entity;
-        this.targetSorter = new BlockSorter(entity);
+        this.pathfinder = new GoalPathfinder(entity);
         this.setFlags(EnumSet.of(Flag.MOVE));
     }
 
@@ -97,6 +95,7 @@ public class FellTreesGoal extends Goal {
         this.shouldUseLumberjackDimensions = false;
         this.entity.refreshDimensions();
         this.entity.getNavigation().stop();
+        this.pathfinder.reset();
         this.targetBlock = null;
         this.moveTarget = null;
     }
@@ -105,7 +104,7 @@ public class FellTreesGoal extends Goal {
     public void tick() {
         if (this.targetBlock != null) {
 
-            this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(this.moveTarget, 0), 1.0f);
+            this.pathfinder.moveTo(this.moveTarget, 1.0f);
 
             if (Occultism.DEBUG.debugAI) {
                 OccultismPackets.sendToTracking(this.entity, new MessageSelectBlock(this.targetBlock, 5000, 0xffffff));
@@ -131,7 +130,7 @@ public class FellTreesGoal extends Goal {
                     } else {
                         this.isTargetTree = false;
                         this.entity.getJob().map(j -> (LumberjackJob) j).ifPresent(j -> {
-                            j.getIgnoredTrees().add(this.targetBlock);
+                            j.ignoreTree(this.targetBlock);
                         });
                         this.resetTarget();
                     }
@@ -159,7 +158,10 @@ public class FellTreesGoal extends Goal {
             this.breakingTime = 0;
             this.previousBreakProgress = -1;
             this.fellTree();
-            this.entity.getJob().map(j -> (LumberjackJob) j).ifPresent(j -> j.setLastFelledTree(this.targetBlock));
+            this.entity.getJob().map(j -> (LumberjackJob) j).ifPresent(j -> {
+                j.setLastFelledTree(this.targetBlock);
+                j.getStumpIndex().remove(this.targetBlock);
+            });
             this.targetBlock = null;
             this.stop();
         }
@@ -176,19 +178,22 @@ public class FellTreesGoal extends Goal {
         if (level.getGameTime() - this.lastWorkareaEmptyTime < WORKAREA_EMPTY_REFRESH_TIME) return;
 
 
-        Set<BlockPos> ignoredTrees = this.entity.getJob().map(j -> (LumberjackJob) j).map(LumberjackJob::getIgnoredTrees).orElse(new HashSet<>());
+        LumberjackJob job = this.entity.getJob().map(j -> (LumberjackJob) j).orElse(null);
+        if (job == null) return;
 
         BlockPos workAreaCenter = this.entity.getWorkAreaCenter();
         //get work area, but only half height, we don't need full.
         int workAreaSize = this.entity.getWorkAreaSize().getValue();
-        Stream<BlockPos> stream = BlockPos.betweenClosedStream(workAreaCenter.offset(-workAreaSize, -workAreaSize / 2, -workAreaSize), workAreaCenter.offset(workAreaSize, workAreaSize / 2, workAreaSize)).map(BlockPos::immutable);
 
-        //filter potential stumps
-        List<BlockPos> potentialStumps = stream.filter(pos -> isLog(level, pos) && isTreeSoil(level, pos.below()) && !ignoredTrees.contains(pos)).collect(Collectors.toList());
+        //find closest potential stump from the job's index instead of scanning the work area
+        BlockPos closestStump = job.getStumpIndex().getClosestStump(
+                workAreaCenter.offset(-workAreaSize, -workAreaSize / 2, -workAreaSize),
+                workAreaCenter.offset(workAreaSize, workAreaSize / 2, workAreaSize),
+                this.entity.getEyePosition(),
+                pos -> !job.isTreeIgnored(pos));
 
-        if (!potentialStumps.isEmpty()) {
-            potentialStumps.sort(this.targetSorter);
-            this.targetBlock = potentialStumps.get(0);
+        if (closestStump != null) {
+            this.targetBlock = closestStump;
 
             //Find a nearby empty block to move to
             this.moveTarget = null;
@@ -206,8 +211,9 @@ public class FellTreesGoal extends Goal {
                 this.shouldUseLumberjackDimensions = false;
             }
         } else {
-            //if we found nothing in our work area, go on a slow tick;
+            //if we found nothing in our work area, go on a slow tick and rescan the work area afterwards
             this.lastWorkareaEmptyTime = level.getGameTime();
+            job.getStumpIndex().invalidate();
             this.moveTarget = null;
             this.targetBlock = null;
             this.shouldUseLumberjackDimensions = false;
@@ -241,13 +247,21 @@ public class FellTreesGoal extends Goal {
      * @return the stump block position.
      */
     private BlockPos getStump(BlockPos log) {
-        //for all nearby logs and leaves, move one block down and recurse.
-        for (BlockPos pos : BlockPos.betweenClosedStream(log.offset(-4, -4, -4), log.offset(4, 0, 4)).map(BlockPos::immutable).collect(Collectors.toList())) {
-            if (isLog(this.entity.level, pos.below()) || isLeaf(this.entity.level, pos.below())) {
-                return this.getStump(pos.below());
+        //for all nearby logs and leaves, move one block down and repeat.
+        BlockPos current = log;
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            for (BlockPos pos : BlockPos.betweenClosed(current.offset(-4, -4, -4), current.offset(4, 0, 4))) {
+                BlockPos below = pos.below();
+                if (isLog(this.entity.level, below) || isLeaf(this.entity.level, below)) {
+                    current = below;
+                    moved = true;
+                    break;
+                }
             }
         }
-        return log;
+        return current;
     }
 
     private void fellTree() {
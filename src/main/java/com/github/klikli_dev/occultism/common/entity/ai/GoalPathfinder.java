@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.entity.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.navigation.PathNavigation;
+import net.minecraft.world.level.pathfinder.Path;
+
+/**
+ * Moves the entity of a goal towards a target, keeping the current path while the target does not change.
+ * A new path is only searched if the target changes, or after a short delay once the path ended without reaching
+ * the target, e.g. because the entity got stuck or the target is unreachable. New paths come from the
+ * {@link PathCache}, so spirits travelling between the same positions share their paths.
+ */
+public class GoalPathfinder {
+
+    //region Fields
+    /**
+     * Minimum ticks between two path searches towards the same target.
+     */
+    public static final int REPATH_INTERVAL = 10;
+
+    protected final Mob entity;
+    protected BlockPos target;
+    /**
+     * The path handed to the navigation, to notice if the navigation switched to another path in the meantime.
+     */
+    protected Path path;
+    protected long lastPathTime;
+    //endregion Fields
+
+    //region Initialization
+    public GoalPathfinder(Mob entity) {
+        this.entity = entity;
+    }
+    //endregion Initialization
+
+    //region Methods
+
+    /**
+     * Moves towards the given target, searching for a new path only if needed.
+     *
+     * @param target the target position.
+     * @param speed  the speed modifier.
+     */
+    public void moveTo(BlockPos target, double speed) {
+        PathNavigation navigation = this.entity.getNavigation();
+        long time = this.entity.level.getGameTime();
+        if (target.equals(this.target)) {
+            //still following our path to this target
+            if (navigation.getPath() == this.path && !navigation.isDone())
+                return;
+            //path ended without reaching the target, or got replaced: wait a little before searching again.
+            if (time - this.lastPathTime < REPATH_INTERVAL)
+                return;
+        }
+
+        this.target = target.immutable();
+        this.lastPathTime = time;
+        navigation.moveTo(PathCache.get(this.entity.level).createPath(this.entity, this.target), speed);
+        //the navigation keeps its current instance if the new path is the same
+        this.path = navigation.getPath();
+    }
+
+    /**
+     * Moves towards the block position of the given entity, searching for a new path only if needed.
+     *
+     * @param target the target entity.
+     * @param speed  the speed modifier.
+     */
+    public void moveTo(Entity target, double speed) {
+        this.moveTo(target.blockPosition(), speed);
+    }
+
+    /**
+     * Forgets the current target, so the next move searches for a new path right away.
+     */
+    public void reset() {
+        this.target = null;
+        this.path = null;
+    }
+    //endregion Methods
+}
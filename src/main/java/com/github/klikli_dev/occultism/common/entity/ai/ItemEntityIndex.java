@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.entity.ai;
+
+import com.github.klikli_dev.occultism.Occultism;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.entity.EntityTypeTest;
+import net.minecraft.world.phys.AABB;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A per level grid of the item entities, shared by all item collecting spirits.
+ * Item entities are tracked via join and leave events, the grid itself is rebuilt at most once per tick on first
+ * query, as items move. Spirits claim the item they are heading for, so other spirits pick a different one.
+ * Only used on the logical server.
+ */
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ItemEntityIndex {
+
+    //region Fields
+    /**
+     * Claims expire if not renewed, in case a spirit stops pursuing an item without releasing it.
+     */
+    public static final int CLAIM_DURATION = 20 * 10;
+
+    private static final Map<ResourceKey<Level>, ItemEntityIndex> indices = new HashMap<>();
+
+    protected final ServerLevel level;
+    protected final Set<ItemEntity> items = new HashSet<>();
+    /**
+     * The items by section (16x16x16 cell), rebuilt once per tick on demand.
+     */
+    protected final Long2ObjectMap<List<ItemEntity>> grid = new Long2ObjectOpenHashMap<>();
+    protected final Map<ItemEntity, Claim> claims = new HashMap<>();
+    protected long gridTime = -1;
+    //endregion Fields
+
+    //region Initialization
+    protected ItemEntityIndex(ServerLevel level) {
+        this.level = level;
+        this.items.addAll(level.getEntities(EntityTypeTest.forClass(ItemEntity.class), Entity::isAlive));
+    }
+    //endregion Initialization
+
+    //region Static Methods
+    public static ItemEntityIndex get(ServerLevel level) {
+        return indices.computeIfAbsent(level.dimension(), key -> new ItemEntityIndex(level));
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoinWorld(EntityJoinWorldEvent event) {
+        if (event.getEntity() instanceof ItemEntity item && !event.getWorld().isClientSide) {
+            ItemEntityIndex index = indices.get(event.getWorld().dimension());
+            if (index != null)
+                index.items.add(item);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeaveWorld(EntityLeaveWorldEvent event) {
+        if (event.getEntity() instanceof ItemEntity item && !event.getWorld().isClientSide) {
+            ItemEntityIndex index = indices.get(event.getWorld().dimension());
+            if (index != null) {
+                index.items.remove(item);
+                index.claims.remove(item);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level && !level.isClientSide)
+            indices.remove(level.dimension());
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Finds the item closest to the claimer within the given box, that is not claimed by another entity and matches
+     * the filter. The filter is only tested on the candidates in order of distance until one matches.
+     *
+     * @param claimer the entity looking for an item.
+     * @param box     the area to search.
+     * @param filter  the filter for items.
+     * @return the closest matching item, or null if none found.
+     */
+    public ItemEntity findClosest(Entity claimer, AABB box, Predicate<? super ItemEntity> filter) {
+        this.updateGrid();
+
+        List<ItemEntity> candidates = new ArrayList<>();
+        int minX = SectionPos.posToSectionCoord(box.minX), maxX = SectionPos.posToSectionCoord(box.maxX);
+        int minY = SectionPos.posToSectionCoord(box.minY), maxY = SectionPos.posToSectionCoord(box.maxY);
+        int minZ = SectionPos.posToSectionCoord(box.minZ), maxZ = SectionPos.posToSectionCoord(box.maxZ);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    List<ItemEntity> cell = this.grid.get(SectionPos.asLong(x, y, z));
+                    if (cell == null)
+                        continue;
+
+                    for (ItemEntity item : cell) {
+                        if (item.isAlive() && box.intersects(item.getBoundingBox()) && !this.isClaimedByOther(item, claimer))
+                            candidates.add(item);
+                    }
+                }
+            }
+        }
+
+        candidates.sort(new EntitySorter(claimer));
+        for (ItemEntity item : candidates) {
+            if (filter.test(item))
+                return item;
+        }
+        return null;
+    }
+
+    /**
+     * Claims the item for the given entity, or renews the claim.
+     *
+     * @param item    the item.
+     * @param claimer the claiming entity.
+     */
+    public void claim(ItemEntity item, Entity claimer) {
+        this.claims.put(item, new Claim(claimer, this.level.getGameTime() + CLAIM_DURATION));
+    }
+
+    /**
+     * Releases the claim on the item, if it is held by the given entity.
+     *
+     * @param item    the item.
+     * @param claimer the claiming entity.
+     */
+    public void release(ItemEntity item, Entity claimer) {
+        Claim claim = this.claims.get(item);
+        if (claim != null && claim.claimer == claimer)
+            this.claims.remove(item);
+    }
+
+    public boolean isClaimedByOther(ItemEntity item, Entity claimer) {
+        Claim claim = this.claims.get(item);
+        return claim != null && claim.claimer != claimer && claim.claimer.isAlive() &&
+                claim.expires > this.level.getGameTime();
+    }
+
+    protected void updateGrid() {
+        long time = this.level.getGameTime();
+        if (this.gridTime == time)
+            return;
+        this.gridTime = time;
+
+        this.grid.clear();
+        Iterator<ItemEntity> iterator = this.items.iterator();
+        while (iterator.hasNext()) {
+            ItemEntity item = iterator.next();
+            if (item.isRemoved()) {
+                iterator.remove();
+                continue;
+            }
+            long section = SectionPos.asLong(SectionPos.posToSectionCoord(item.getX()),
+                    SectionPos.posToSectionCoord(item.getY()), SectionPos.posToSectionCoord(item.getZ()));
+            this.grid.computeIfAbsent(section, key -> new ArrayList<>()).add(item);
+        }
+
+        this.claims.entrySet().removeIf(entry -> entry.getKey().isRemoved() || !entry.getValue().claimer.isAlive() ||
+                entry.getValue().expires <= time);
+    }
+    //endregion Methods
+
+    protected static class Claim {
+        //region Fields
+        protected final Entity claimer;
+        protected final long expires;
+        //endregion Fields
+
+        //region Initialization
+        public Claim(Entity claimer, long expires) {
+            this.claimer = claimer;
+            this.expires = expires;
+        }
+        //endregion Initialization
+    }
+}
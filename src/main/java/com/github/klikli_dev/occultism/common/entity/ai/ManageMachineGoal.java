@@ -28,11 +28,10 @@ import com.github.klikli_dev.occultism.api.common.data.MachineReference;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.common.job.ManageMachineJob;
 import com.github.klikli_dev.occultism.common.misc.DepositOrder;
-import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.util.Math3DUtil;
+import com.github.klikli_dev.occultism.util.WorkAreaUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ClipContext;
@@ -43,15 +42,13 @@ import net.minecraft.world.phys.BlockHitResult;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
 
-import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.List;
-import java.util.stream.Stream;
 
 public class ManageMachineGoal extends Goal {
     protected final SpiritEntity entity;
-    protected final BlockSorter targetSorter;
+    protected final GoalPathfinder pathfinder;
     protected BlockPos targetBlock = null;
     protected BlockEntity cachedStorageAccessor;
     protected DepositOrder cachedStorageAccessorOrder;
@@ -59,8 +56,8 @@ public class ManageMachineGoal extends Goal {
 
     public ManageMachineGoal(SpiritEntity entity, ManageMachineJob job) {
         this.entity = entity;
+        this.pathfinder = new GoalPathfinder(entity);
         this.job = job;
-        this.targetSorter = new BlockSorter(entity);
         this.setFlags(EnumSet.of(Flag.MOVE));
     }
 
@@ -79,8 +76,8 @@ public class ManageMachineGoal extends Goal {
         if (this.entity.getTarget() != null) {
             return false;
         }
-        //if we have something in hand, we can
-        if (!this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty()) {
+        //if we carry something, deposit it first
+        if (!this.entity.isJobInventoryEmpty()) {
             return false;
         }
         this.resetTarget();
@@ -89,11 +86,12 @@ public class ManageMachineGoal extends Goal {
 
     @Override
     public boolean canContinueToUse() {
-        return this.targetBlock != null && this.entity.getItemInHand(InteractionHand.MAIN_HAND).isEmpty();
+        return this.targetBlock != null && this.entity.isJobInventoryEmpty();
     }
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.pathfinder.reset();
         this.resetTarget();
     }
 
@@ -118,7 +116,7 @@ public class ManageMachineGoal extends Goal {
                 } else {
                     //continue moving
                     BlockPos moveTarget = this.getMoveTarget();
-                    this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                    this.pathfinder.moveTo(moveTarget, 1.0f);
                 }
 
                 //when close enough, interact
@@ -127,18 +125,10 @@ public class ManageMachineGoal extends Goal {
                     MachineReference machineReference = this.job.getManagedMachine();
                     if (blockEntity instanceof IStorageControllerProxy && currentOrder != null) {
                         //if we reached the storage controller proxy, we take out items as per our order
-                        ItemStack itemToExtract = this.job.getStorageController()
-                                .getItemStack(currentOrder.comparator, currentOrder.amount,
-                                        true);
-                        IItemHandler handler = this.entity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY,
-                                Direction.UP).orElseThrow(ItemHandlerMissingException::new);
-                        if (!itemToExtract.isEmpty() &&
-                                ItemHandlerHelper.insertItem(handler, itemToExtract, true).isEmpty()) {
-                            //we can insert all, so we can perform for real now
-                            ItemStack extracted = this.job.getStorageController()
-                                    .getItemStack(currentOrder.comparator, currentOrder.amount,
-                                            false);
-                            ItemHandlerHelper.insertItem(handler, extracted, false);
+                        IItemHandler handler = this.entity.getJobItemHandler();
+                        if (this.extractOrder(currentOrder, handler)) {
+                            //fill the remaining slots with the next queued orders, so one trip serves several orders.
+                            this.extractQueuedOrders(handler);
 
                             //job fulfilled, deposit ai will take over
                             this.entity.setDepositPosition(machineReference.insertGlobalPos.getPos());
@@ -153,9 +143,7 @@ public class ManageMachineGoal extends Goal {
                         blockEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY,
                                 machineReference.extractFacing).ifPresent(machineHandler -> {
 
-                            IItemHandler entityHandler = this.entity.getCapability(
-                                            CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, Direction.UP)
-                                    .orElseThrow(ItemHandlerMissingException::new);
+                            IItemHandler entityHandler = this.entity.getJobItemHandler();
 
                             boolean movedAnyItems = false;
                             for (int i = 0; i < machineHandler.getSlots(); i++) {
@@ -215,32 +203,111 @@ public class ManageMachineGoal extends Goal {
         return true;
     }
 
+    /**
+     * Takes the items for the given order out of the storage controller, if they fit into the given handler.
+     *
+     * @param order   the order.
+     * @param handler the handler to insert into.
+     * @return true if the order was extracted.
+     */
+    protected boolean extractOrder(DepositOrder order, IItemHandler handler) {
+        IStorageController storageController = this.job.getStorageController();
+        ItemStack itemToExtract = storageController.getItemStack(order.comparator, order.amount, true);
+        if (!itemToExtract.isEmpty() && ItemHandlerHelper.insertItem(handler, itemToExtract, true).isEmpty()) {
+            //we can insert all, so we can perform for real now
+            ItemStack extracted = storageController.getItemStack(order.comparator, order.amount, false);
+            ItemHandlerHelper.insertItem(handler, extracted, false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Extracts queued orders into the free slots of the given handler, as long as the managed machine accepts them.
+     *
+     * @param handler the handler to insert into.
+     */
+    protected void extractQueuedOrders(IItemHandler handler) {
+        BlockEntity machine = this.job.getManagedMachineBlockEntity();
+        if (machine == null)
+            return;
+
+        IItemHandler machineHandler = machine.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY,
+                this.job.getManagedMachine().insertFacing).orElse(null);
+        if (machineHandler == null)
+            return;
+
+        //simulate against a copy of the machine that already holds everything the spirit carries, so each order is
+        //checked against the combined load of all orders taken on this trip.
+        IItemHandler simulatedMachine = this.copyMachineHandler(machineHandler);
+        for (int i = 0; i < handler.getSlots(); i++) {
+            if (!ItemHandlerHelper.insertItem(simulatedMachine, handler.getStackInSlot(i).copy(), false).isEmpty())
+                return;
+        }
+
+        while (this.entity.hasEmptyJobInventorySlot()) {
+            DepositOrder nextOrder = this.job.peekDepositOrder();
+            if (nextOrder == null || nextOrder.comparator == null)
+                break;
+
+            //only take orders the machine has space for, otherwise the spirit would be stuck with the items.
+            ItemStack orderStack = this.job.getStorageController()
+                    .getItemStack(nextOrder.comparator, nextOrder.amount, true);
+            if (orderStack.isEmpty() || !ItemHandlerHelper.insertItem(simulatedMachine, orderStack, false).isEmpty())
+                break;
+
+            if (!this.extractOrder(nextOrder, handler))
+                break;
+            this.job.pollDepositOrder();
+        }
+    }
+
+    /**
+     * Copies the contents of the given machine handler into a handler that follows the same slot rules.
+     *
+     * @param machineHandler the machine handler.
+     * @return the copy.
+     */
+    protected IItemHandler copyMachineHandler(IItemHandler machineHandler) {
+        ItemStackHandler copy = new ItemStackHandler(machineHandler.getSlots()) {
+            //region Overrides
+            @Override
+            public int getSlotLimit(int slot) {
+                return machineHandler.getSlotLimit(slot);
+            }
+
+            @Override
+            public boolean isItemValid(int slot, ItemStack stack) {
+                return machineHandler.isItemValid(slot, stack);
+            }
+            //endregion Overrides
+        };
+        for (int i = 0; i < machineHandler.getSlots(); i++) {
+            copy.setStackInSlot(i, machineHandler.getStackInSlot(i).copy());
+        }
+        return copy;
+    }
+
     protected BlockEntity findClosestStorageProxy() {
         if (this.cachedStorageAccessor != null && this.cachedStorageAccessorOrder == this.job.getCurrentDepositOrder())
             return this.cachedStorageAccessor;
 
         Level level = this.entity.level;
-        List<BlockPos> allBlocks = new ArrayList<>();
         BlockPos machinePosition = this.job.getManagedMachine().insertGlobalPos.getPos();
 
         //get work area, but only half height, we don't need full.
         int workAreaSize = this.entity.getWorkAreaSize().getValue();
-        Stream<BlockPos> searchBlocks = BlockPos.betweenClosedStream(
+        BlockEntity closest = WorkAreaUtil.findClosestBlockEntity(level,
                 machinePosition.offset(-workAreaSize, -workAreaSize / 2, -workAreaSize),
-                machinePosition.offset(workAreaSize, workAreaSize / 2, workAreaSize));
-        searchBlocks.forEachOrdered(pos -> {
-            BlockEntity blockEntity = level.getBlockEntity(pos);
-            if (blockEntity instanceof IStorageControllerProxy proxy) {
-                if (proxy.getLinkedStorageControllerPosition() != null &&
-                        proxy.getLinkedStorageControllerPosition().equals(this.job.getStorageControllerPosition()))
-                    allBlocks.add(pos.immutable());
-            }
-        });
-
-        //set closest log as target
-        if (!allBlocks.isEmpty()) {
-            allBlocks.sort(this.targetSorter);
-            this.cachedStorageAccessor = level.getBlockEntity(allBlocks.get(0));
+                machinePosition.offset(workAreaSize, workAreaSize / 2, workAreaSize),
+                this.entity.getEyePosition(),
+                blockEntity -> blockEntity instanceof IStorageControllerProxy proxy &&
+                        proxy.getLinkedStorageControllerPosition() != null &&
+                        proxy.getLinkedStorageControllerPosition().equals(this.job.getStorageControllerPosition()));
+
+        //set closest proxy as target
+        if (closest != null) {
+            this.cachedStorageAccessor = closest;
             this.cachedStorageAccessorOrder = this.job.getCurrentDepositOrder();
             return this.cachedStorageAccessor;
         }
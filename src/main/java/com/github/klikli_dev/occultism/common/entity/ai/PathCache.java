@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.entity.ai;
+
+import com.github.klikli_dev.occultism.Occultism;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.pathfinder.Node;
+import net.minecraft.world.level.pathfinder.NodeEvaluator;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A per level cache of recently computed paths, shared by all spirits. Spirits moving items back and forth travel
+ * between the same few positions, so paths from the same start block to the same target can be reused for a short
+ * time instead of running a new search. Only used on the logical server.
+ */
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PathCache {
+
+    //region Fields
+    /**
+     * Paths are only reused for a short time, as the world may have changed in the meantime.
+     */
+    public static final int PATH_CACHE_DURATION = 20 * 5;
+    public static final int MAX_CACHED_PATHS = 256;
+
+    private static final Map<ResourceKey<Level>, PathCache> caches = new HashMap<>();
+
+    protected final Level level;
+    protected final Map<PathKey, CachedPath> paths = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PathKey, CachedPath> eldest) {
+            return this.size() > MAX_CACHED_PATHS;
+        }
+    };
+    //endregion Fields
+
+    //region Initialization
+    protected PathCache(Level level) {
+        this.level = level;
+    }
+    //endregion Initialization
+
+    //region Static Methods
+    public static PathCache get(Level level) {
+        return caches.computeIfAbsent(level.dimension(), key -> new PathCache(level));
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level && !level.isClientSide)
+            caches.remove(level.dimension());
+    }
+
+    /**
+     * Copies the given path, so each entity follows its own instance. The nodes are not modified while following a
+     * path, so they can be shared.
+     *
+     * @param path the path to copy.
+     * @return the copy.
+     */
+    protected static Path copy(Path path) {
+        List<Node> nodes = new ArrayList<>(path.getNodeCount());
+        for (int i = 0; i < path.getNodeCount(); i++) {
+            nodes.add(path.getNode(i));
+        }
+        return new Path(nodes, path.getTarget(), path.canReach());
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Gets a path from the current position of the entity to the given target, reusing a recent path between the
+     * same blocks if possible.
+     *
+     * @param entity the entity to create the path for.
+     * @param target the target position.
+     * @return the path, or null if none could be created.
+     */
+    @Nullable
+    public Path createPath(Mob entity, BlockPos target) {
+        PathKey key = new PathKey(entity, target);
+        long time = this.level.getGameTime();
+        CachedPath cached = this.paths.get(key);
+        if (cached != null && time - cached.time < PATH_CACHE_DURATION)
+            return copy(cached.path);
+
+        Path path = entity.getNavigation().createPath(target, 0);
+        //partial paths depend on where the search gave up, so only complete ones are shared.
+        if (path != null && path.canReach())
+            this.paths.put(key, new CachedPath(copy(path), time));
+        else
+            this.paths.remove(key);
+        return path;
+    }
+    //endregion Methods
+
+    protected static class PathKey {
+        //region Fields
+        protected final EntityType<?> entityType;
+        protected final long start;
+        protected final long target;
+        /**
+         * The current size of the entity, as e.g. lumberjack foliots change their dimensions while felling trees.
+         */
+        protected final float width;
+        protected final float height;
+        /**
+         * The navigation settings, as e.g. transporter spirits can open doors while others cannot.
+         */
+        protected final boolean canOpenDoors;
+        protected final boolean canPassDoors;
+        protected final boolean canFloat;
+        //endregion Fields
+
+        //region Initialization
+        protected PathKey(Mob entity, BlockPos target) {
+            NodeEvaluator nodeEvaluator = entity.getNavigation().getNodeEvaluator();
+            this.entityType = entity.getType();
+            this.start = entity.blockPosition().asLong();
+            this.target = target.asLong();
+            this.width = entity.getBbWidth();
+            this.height = entity.getBbHeight();
+            this.canOpenDoors = nodeEvaluator.canOpenDoors();
+            this.canPassDoors = nodeEvaluator.canPassDoors();
+            this.canFloat = nodeEvaluator.canFloat();
+        }
+        //endregion Initialization
+
+        //region Overrides
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || this.getClass() != o.getClass())
+                return false;
+
+            PathKey other = (PathKey) o;
+            return this.start == other.start && this.target == other.target &&
+                    this.entityType == other.entityType && this.width == other.width && this.height == other.height &&
+                    this.canOpenDoors == other.canOpenDoors &&
+                    this.canPassDoors == other.canPassDoors && this.canFloat == other.canFloat;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.entityType, this.start, this.target, this.width, this.height, this.canOpenDoors,
+                    this.canPassDoors, this.canFloat);
+        }
+        //endregion Overrides
+    }
+
+    protected static class CachedPath {
+        //region Fields
+        protected final Path path;
+        protected final long time;
+        //endregion Fields
+
+        //region Initialization
+        protected CachedPath(Path path, long time) {
+            this.path = path;
+            this.time = time;
+        }
+        //endregion Initialization
+    }
+}
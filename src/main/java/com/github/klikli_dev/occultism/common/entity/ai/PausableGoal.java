@@ -22,7 +22,9 @@
 
 package com.github.klikli_dev.occultism.common.entity.ai;
 
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.entity.ai.goal.Goal;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 public abstract class PausableGoal extends Goal {
 
@@ -33,9 +35,7 @@ public abstract class PausableGoal extends Goal {
 
     //region Getter / Setter
     public boolean isPaused() {
-
-        long currentTime = System.currentTimeMillis();
-        return this.lastPaused + this.pauseDuration > currentTime;
+        return this.lastPaused + this.pauseDuration > getCurrentTick();
     }
     //endregion Getter / Setter
 
@@ -51,10 +51,30 @@ public abstract class PausableGoal extends Goal {
     }
     //endregion Overrides
 
+    //region Static Methods
+
+    /**
+     * Gets the current server tick. Pauses are measured in ticks, so they last the same amount of game time even if the
+     * server is lagging.
+     *
+     * @return the tick count of the server.
+     */
+    protected static long getCurrentTick() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        return server != null ? server.getTickCount() : 0;
+    }
+    //endregion Static Methods
+
     //region Methods
-    public void pause(long i) {
-        this.pauseDuration = i;
-        this.lastPaused = System.currentTimeMillis();
+
+    /**
+     * Pauses the goal.
+     *
+     * @param ticks the duration of the pause in ticks.
+     */
+    public void pause(long ticks) {
+        this.pauseDuration = ticks;
+        this.lastPaused = getCurrentTick();
     }
 
     public void unpause() {
@@ -23,26 +23,25 @@
 package com.github.klikli_dev.occultism.common.entity.ai;
 
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
-import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.google.common.base.Predicate;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.ai.goal.target.TargetGoal;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.phys.AABB;
+import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
-import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nullable;
 import java.util.EnumSet;
-import java.util.List;
 
 public class PickupItemsGoal extends TargetGoal {
 
     //region Fields
 
     protected final SpiritEntity entity;
+    protected final GoalPathfinder pathfinder;
     protected final Predicate<? super ItemEntity> targetItemSelector;
-    protected final EntitySorter entitySorter;
     protected ItemEntity targetItem;
     protected int executionChance;
     protected float pickupRange;
@@ -58,6 +57,7 @@ public class PickupItemsGoal extends TargetGoal {
     public PickupItemsGoal(SpiritEntity entity, float pickupRange, int executionChance) {
         super(entity, false, false);
         this.entity = entity;
+        this.pathfinder = new GoalPathfinder(entity);
         this.pickupRange = pickupRange;
         this.executionChance = executionChance;
         this.targetItemSelector = new Predicate<ItemEntity>() {
@@ -66,12 +66,10 @@ public class PickupItemsGoal extends TargetGoal {
             public boolean apply(@Nullable ItemEntity item) {
                 ItemStack stack = item.getItem();
                 return !stack.isEmpty() && entity.canPickupItem(item) && ItemHandlerHelper.insertItemStacked(
-                        entity.itemStackHandler.orElseThrow(ItemHandlerMissingException::new), stack, true).getCount() <
-                        stack.getCount();
+                        entity.getJobItemHandler(), stack, true).getCount() < stack.getCount();
             }
             //endregion Overrides
         };
-        this.entitySorter = new EntitySorter(entity);
         this.setFlags(EnumSet.of(Flag.MOVE));
     }
     //endregion Initialization
@@ -94,13 +92,16 @@ public class PickupItemsGoal extends TargetGoal {
         AABB targetBox = new AABB(-workAreaSize, -workAreaSize / 2.0, -workAreaSize, workAreaSize,
                 workAreaSize / 2.0, workAreaSize).move(this.entity.getWorkAreaCenter());
 
-        List<ItemEntity> list = this.mob.level
-                .getEntitiesOfClass(ItemEntity.class, targetBox, this.targetItemSelector);
-        if (list.isEmpty()) {
+        ItemEntityIndex index = ItemEntityIndex.get((ServerLevel) this.mob.level);
+        ItemEntity item = index.findClosest(this.entity, targetBox, this.targetItemSelector);
+        if (item == null) {
             return false;
         } else {
-            list.sort(this.entitySorter);
-            this.targetItem = list.get(0);
+            if (this.targetItem != null && this.targetItem != item)
+                index.release(this.targetItem, this.entity);
+            this.targetItem = item;
+            //claim the item so other spirits look for a different one
+            index.claim(this.targetItem, this.entity);
             return true;
         }
     }
@@ -111,14 +112,15 @@ public class PickupItemsGoal extends TargetGoal {
             this.stop();
             this.mob.getNavigation().stop();
         } else {
-            this.mob.getNavigation().moveTo(this.mob.getNavigation().createPath(this.targetItem, 0), 1.0f);
+            ItemEntityIndex.get((ServerLevel) this.mob.level).claim(this.targetItem, this.entity);
+            this.pathfinder.moveTo(this.targetItem, 1.0f);
             double distance = this.entity.position().distanceTo(this.targetItem.position());
             if (distance < this.pickupRange) {
                 this.entity.setDeltaMovement(0, 0, 0);
                 this.entity.getNavigation().stop();
 
                 ItemStack duplicate = this.targetItem.getItem().copy();
-                ItemStackHandler handler = this.entity.itemStackHandler.orElseThrow(ItemHandlerMissingException::new);
+                IItemHandler handler = this.entity.getJobItemHandler();
                 if (ItemHandlerHelper.insertItemStacked(handler, duplicate, true).getCount() < duplicate.getCount()) {
                     ItemStack remaining = ItemHandlerHelper.insertItemStacked(handler, duplicate, false);
                     this.targetItem.getItem().setCount(remaining.getCount());
@@ -132,9 +134,19 @@ public class PickupItemsGoal extends TargetGoal {
         return !this.mob.getNavigation().isDone();
     }
 
+    @Override
+    public void stop() {
+        if (this.targetItem != null) {
+            ItemEntityIndex.get((ServerLevel) this.mob.level).release(this.targetItem, this.entity);
+            this.targetItem = null;
+        }
+        this.pathfinder.reset();
+        super.stop();
+    }
+
     @Override
     public void start() {
-        this.mob.getNavigation().moveTo(this.mob.getNavigation().createPath(this.targetItem, 0), 1.0f);
+        this.pathfinder.moveTo(this.targetItem, 1.0f);
         super.start();
     }
     //endregion Overrides
@@ -37,11 +37,13 @@ import java.util.EnumSet;
 
 public class ReplantSaplingGoal extends Goal {
     protected final SpiritEntity entity;
+    protected final GoalPathfinder pathfinder;
     protected final BlockSorter targetSorter;
     protected BlockPos moveTarget = null;
 
     public ReplantSaplingGoal(SpiritEntity entity) {
         this.entity = entity;
+        this.pathfinder = new GoalPathfinder(entity);
         this.targetSorter = new BlockSorter(entity);
         this.setFlags(EnumSet.of(Flag.MOVE));
     }
@@ -74,6 +76,7 @@ public class ReplantSaplingGoal extends Goal {
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.pathfinder.reset();
         this.resetTarget();
     }
 
@@ -106,7 +109,7 @@ public class ReplantSaplingGoal extends Goal {
             } else {
                 //continue moving
                 BlockPos moveTarget = this.getMoveTarget();
-                this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                this.pathfinder.moveTo(moveTarget, 1.0f);
             }
         } else {
             this.resetTarget(); //if there is no tile entity, recheck
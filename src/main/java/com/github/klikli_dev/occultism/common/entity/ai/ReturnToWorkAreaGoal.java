@@ -33,6 +33,7 @@ public class ReturnToWorkAreaGoal extends Goal {
     //region Fields
 
     protected final SpiritEntity entity;
+    protected final GoalPathfinder pathfinder;
     protected int executionChance;
     //endregion Fields
 
@@ -44,6 +45,7 @@ public class ReturnToWorkAreaGoal extends Goal {
 
     public ReturnToWorkAreaGoal(SpiritEntity entity, int executionChance) {
         this.entity = entity;
+        this.pathfinder = new GoalPathfinder(entity);
         this.executionChance = executionChance;
         this.setFlags(EnumSet.of(Flag.TARGET));
     }
@@ -71,8 +73,7 @@ public class ReturnToWorkAreaGoal extends Goal {
             this.stop();
             this.entity.getNavigation().stop();
         } else {
-            this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(
-                    this.entity.getWorkAreaPosition().orElse(this.entity.blockPosition()), 0), 1.0f);
+            this.pathfinder.moveTo(this.entity.getWorkAreaPosition().orElse(this.entity.blockPosition()), 1.0f);
             double distance = this.entity.position().distanceTo(
                     Vec3.atCenterOf(this.entity.getWorkAreaPosition().orElse(this.entity.blockPosition())));
             if (distance < 1F) {
@@ -89,8 +90,9 @@ public class ReturnToWorkAreaGoal extends Goal {
 
     @Override
     public void start() {
-        this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(
-                this.entity.getWorkAreaPosition().orElse(this.entity.blockPosition()), 0), 1.0f);
+        //a new run of this goal should not wait for the previous path search
+        this.pathfinder.reset();
+        this.pathfinder.moveTo(this.entity.getWorkAreaPosition().orElse(this.entity.blockPosition()), 1.0f);
         super.start();
     }
     //endregion Overrides
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.entity.ai;
+
+import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Decides each tick which spirits may run their AI. All spirits share a per tick time budget, spirits that would
+ * exceed it are deferred to a later tick. Spirits without a player nearby only run their AI every few ticks.
+ * Only used on the logical server.
+ */
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class SpiritAIScheduler {
+
+    //region Fields
+    /**
+     * A spirit is never deferred for more than this many ticks in a row, so spirits late in the tick order still make
+     * progress when the budget is used up every tick.
+     */
+    public static final int MAX_DEFERRED_TICKS = 10;
+    /**
+     * The interval in ticks at which a spirit checks for nearby players.
+     */
+    public static final int PLAYER_CHECK_INTERVAL = 20;
+
+    private static final SpiritAIScheduler INSTANCE = new SpiritAIScheduler();
+
+    protected long tickNanos;
+
+    protected long ticks;
+    protected long ran;
+    protected long deferred;
+    protected long lodSkipped;
+    protected long totalNanos;
+    protected long maxTickNanos;
+    //endregion Fields
+
+    //region Static Methods
+    public static SpiritAIScheduler get() {
+        return INSTANCE;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START)
+            INSTANCE.startTick();
+    }
+    //endregion Static Methods
+
+    //region Methods
+    protected void startTick() {
+        this.maxTickNanos = Math.max(this.maxTickNanos, this.tickNanos);
+        this.tickNanos = 0;
+        this.ticks++;
+    }
+
+    /**
+     * Checks if the given spirit may run its AI in the current tick.
+     *
+     * @param spirit the spirit.
+     * @param state  the scheduling state of the spirit.
+     * @return true if the AI should run, false if it is deferred.
+     */
+    public boolean shouldRunAi(SpiritEntity spirit, State state) {
+        long gameTime = spirit.level.getGameTime();
+
+        int lodRadius = Occultism.SERVER_CONFIG.spiritJobs.aiLodRadius.get();
+        if (lodRadius > 0) {
+            if (gameTime - state.lastPlayerCheck >= PLAYER_CHECK_INTERVAL || state.lastPlayerCheck > gameTime) {
+                state.lastPlayerCheck = gameTime;
+                state.playerNearby = spirit.level.hasNearbyAlivePlayer(spirit.getX(), spirit.getY(), spirit.getZ(), lodRadius);
+            }
+
+            int lodInterval = Math.max(1, Occultism.SERVER_CONFIG.spiritJobs.aiLodInterval.get());
+            //offset by entity id to spread the throttled spirits over the interval.
+            if (!state.playerNearby && (gameTime + spirit.getId()) % lodInterval != 0) {
+                this.lodSkipped++;
+                return false;
+            }
+        }
+
+        long budget = Occultism.SERVER_CONFIG.spiritJobs.aiTickBudget.get() * 1000L;
+        if (budget > 0 && this.tickNanos >= budget && state.deferredTicks < MAX_DEFERRED_TICKS) {
+            state.deferredTicks++;
+            this.deferred++;
+            return false;
+        }
+
+        state.deferredTicks = 0;
+        this.ran++;
+        return true;
+    }
+
+    /**
+     * Records the time a spirit spent on its AI against the budget of the current tick.
+     *
+     * @param nanos the time spent in nanoseconds.
+     */
+    public void recordAiTime(long nanos) {
+        this.tickNanos += nanos;
+        this.totalNanos += nanos;
+    }
+
+    /**
+     * Creates a summary of the work done and deferred since the last reset, and resets the statistics.
+     *
+     * @return the summary.
+     */
+    public String reportAndReset() {
+        long ticks = Math.max(1, this.ticks);
+        String report = String.format(
+                "Spirit AI over %d ticks: %d ran, %d deferred by budget, %d throttled (no player nearby), " +
+                        "avg %.3f ms/tick, max %.3f ms/tick",
+                this.ticks, this.ran, this.deferred, this.lodSkipped,
+                this.totalNanos / (double) ticks / 1_000_000.0,
+                Math.max(this.maxTickNanos, this.tickNanos) / 1_000_000.0);
+
+        this.ticks = 0;
+        this.ran = 0;
+        this.deferred = 0;
+        this.lodSkipped = 0;
+        this.totalNanos = 0;
+        this.maxTickNanos = 0;
+        return report;
+    }
+    //endregion Methods
+
+    public static class State {
+        //region Fields
+        protected int deferredTicks;
+        protected boolean playerNearby = true;
+        protected long lastPlayerCheck = Long.MIN_VALUE / 2;
+        //endregion Fields
+    }
+}
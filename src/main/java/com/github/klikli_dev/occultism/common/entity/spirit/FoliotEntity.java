@@ -22,6 +22,7 @@
 
 package com.github.klikli_dev.occultism.common.entity.spirit;
 
+import com.github.klikli_dev.occultism.Occultism;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.ai.attributes.AttributeSupplier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
@@ -35,6 +36,13 @@ public class FoliotEntity extends SpiritEntity {
     }
     //endregion Initialization
 
+    //region Getter / Setter
+    @Override
+    public int getInventorySize() {
+        return Occultism.SERVER_CONFIG.spiritJobs.tier1SpiritInventorySlots.get();
+    }
+    //endregion Getter / Setter
+
     //region Static Methods
     public static AttributeSupplier.Builder createAttributes() {
         return SpiritEntity.createAttributes()
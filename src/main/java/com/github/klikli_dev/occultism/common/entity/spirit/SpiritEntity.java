@@ -25,14 +25,18 @@ package com.github.klikli_dev.occultism.common.entity.spirit;
 import com.github.klikli_dev.occultism.api.common.data.WorkAreaSize;
 import com.github.klikli_dev.occultism.common.container.spirit.SpiritContainer;
 import com.github.klikli_dev.occultism.common.entity.ISkinnedCreatureMixin;
+import com.github.klikli_dev.occultism.common.entity.ai.SpiritAIScheduler;
 import com.github.klikli_dev.occultism.common.item.spirit.BookOfCallingItem;
 import com.github.klikli_dev.occultism.common.job.SpiritJob;
+import com.github.klikli_dev.occultism.common.misc.SpiritItemFilter;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.registry.OccultismSounds;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.syncher.EntityDataAccessor;
 import net.minecraft.network.syncher.EntityDataSerializers;
 import net.minecraft.network.syncher.SynchedEntityData;
@@ -64,7 +68,10 @@ import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
 import net.minecraftforge.items.ItemStackHandler;
+import net.minecraftforge.items.wrapper.RangedWrapper;
 import net.minecraftforge.network.NetworkHooks;
 
 import javax.annotation.Nullable;
@@ -79,6 +86,7 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
      */
     public static final int DEFAULT_MAX_AGE = -1;//default age is unlimited.
     public static final int MAX_FILTER_SLOTS = 14;
+    public static final int MAX_INVENTORY_SLOTS = 9;
     private static final EntityDataAccessor<Optional<BlockPos>> DEPOSIT_POSITION =
             SynchedEntityData.defineId(SpiritEntity.class, EntityDataSerializers.OPTIONAL_BLOCK_POS);
     private static final EntityDataAccessor<Optional<UUID>> DEPOSIT_ENTITY_UUID =
@@ -127,7 +135,7 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
     private static final EntityDataAccessor<String> TAG_FILTER = SynchedEntityData
             .defineId(SpiritEntity.class, EntityDataSerializers.STRING);
 
-    public LazyOptional<ItemStackHandler> itemStackHandler = LazyOptional.of(ItemStackHandler::new);
+    public LazyOptional<ItemStackHandler> itemStackHandler = LazyOptional.of(() -> new ItemStackHandler(this.getInventorySize()));
     public LazyOptional<ItemStackHandler> filterItemStackHandler = LazyOptional.of(() -> new ItemStackHandler(MAX_FILTER_SLOTS) {
         @Override
         protected void onContentsChanged(int slot) {
@@ -135,8 +143,21 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
             SpiritEntity.this.entityData.set(FILTER_ITEMS, this.serializeNBT());
         }
     });
+    /**
+     * The view of the first inventory slot used by jobs that only carry a single stack, created on first use.
+     */
+    protected IItemHandlerModifiable heldItemHandler;
     protected Optional<SpiritJob> job = Optional.empty();
     protected boolean isInitialized = false;
+    /**
+     * The compiled filter, null if the filter settings changed since it was last compiled.
+     */
+    protected SpiritItemFilter itemFilter;
+    protected final SpiritAIScheduler.State aiScheduleState = new SpiritAIScheduler.State();
+    /**
+     * True while the AI is deferred by the scheduler for the current tick.
+     */
+    protected boolean aiDeferred;
 
     public SpiritEntity(EntityType<? extends SpiritEntity> type, Level worldIn) {
         super(type, worldIn);
@@ -155,6 +176,10 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
     public void onSyncedDataUpdated(EntityDataAccessor<?> key) {
         super.onSyncedDataUpdated(key);
 
+        if (key == FILTER_ITEMS || key == TAG_FILTER || key == IS_FILTER_BLACKLIST) {
+            this.itemFilter = null;
+        }
+
         if (key == FILTER_ITEMS) {
             //restore filter item handler from data param on client
             if (this.level.isClientSide) {
@@ -323,6 +348,64 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
         return this.filterItemStackHandler;
     }
 
+    /**
+     * @return the filter compiled from filter items, tag filter and filter mode.
+     */
+    public SpiritItemFilter getItemFilter() {
+        if (this.itemFilter == null) {
+            this.itemFilter = new SpiritItemFilter(
+                    this.filterItemStackHandler.orElseThrow(ItemHandlerMissingException::new),
+                    this.getTagFilter(), this.isFilterBlacklist());
+        }
+        return this.itemFilter;
+    }
+
+    /**
+     * @return the amount of inventory slots of this spirit.
+     */
+    public int getInventorySize() {
+        return 1;
+    }
+
+    /**
+     * Gets the part of the inventory the current job works with. Jobs that can carry multiple stacks use the whole
+     * inventory, all others only the first slot, which is the held item.
+     *
+     * @return the item handler for the job.
+     */
+    public IItemHandlerModifiable getJobItemHandler() {
+        ItemStackHandler handler = this.itemStackHandler.orElseThrow(ItemHandlerMissingException::new);
+        if (this.job.map(SpiritJob::canCarryMultipleStacks).orElse(false))
+            return handler;
+        if (this.heldItemHandler == null)
+            this.heldItemHandler = new RangedWrapper(handler, 0, 1);
+        return this.heldItemHandler;
+    }
+
+    /**
+     * @return true if the job inventory holds no items.
+     */
+    public boolean isJobInventoryEmpty() {
+        IItemHandler handler = this.getJobItemHandler();
+        for (int i = 0; i < handler.getSlots(); i++) {
+            if (!handler.getStackInSlot(i).isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the job inventory has at least one empty slot.
+     */
+    public boolean hasEmptyJobInventorySlot() {
+        IItemHandler handler = this.getJobItemHandler();
+        for (int i = 0; i < handler.getSlots(); i++) {
+            if (handler.getStackInSlot(i).isEmpty())
+                return true;
+        }
+        return false;
+    }
+
     public Optional<SpiritJob> getJob() {
         return this.job;
     }
@@ -386,13 +469,30 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
                     this.remove(RemovalReason.DISCARDED);
                 }
             }
+            SpiritAIScheduler scheduler = SpiritAIScheduler.get();
+            this.aiDeferred = !scheduler.shouldRunAi(this, this.aiScheduleState);
+            long start = System.nanoTime();
+
+            //jobs count ticks in their update, so they are updated every tick, only the goals are scheduled.
             if (!this.dead)
                 this.job.ifPresent(SpiritJob::update);
+            this.updateSwingTime();
+            super.aiStep();
+
+            scheduler.recordAiTime(System.nanoTime() - start);
+            this.aiDeferred = false;
+            return;
         }
         this.updateSwingTime();
         super.aiStep();
     }
 
+    @Override
+    protected boolean isImmobile() {
+        //skips goals, navigation and movement input for the tick if the scheduler deferred the AI.
+        return this.aiDeferred || super.isImmobile();
+    }
+
     @Override
     public boolean hurt(DamageSource source, float amount) {
         if (this.isInvulnerableTo(source)) {
@@ -541,7 +641,10 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
         //set up inventory and read items
 
         if (compound.contains("inventory")) {
-            this.itemStackHandler.ifPresent(handler -> handler.deserializeNBT(compound.getCompound("inventory")));
+            CompoundTag inventory = compound.getCompound("inventory");
+            //resize to the configured size, but never drop items if the size was reduced since saving.
+            inventory.putInt("Size", Math.max(this.getInventorySize(), this.getHighestUsedSlot(inventory) + 1));
+            this.itemStackHandler.ifPresent(handler -> handler.deserializeNBT(inventory));
         }
 
         //read job
@@ -557,6 +660,7 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
         if (compound.contains("filterItems")) {
             compound.getCompound("filterItems").putInt("Size", MAX_FILTER_SLOTS); //override legacy filter size
             this.filterItemStackHandler.ifPresent(handler -> handler.deserializeNBT(compound.getCompound("filterItems")));
+            this.itemFilter = null;
         }
 
         if (compound.contains("tagFilter")) {
@@ -564,6 +668,21 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
         }
     }
 
+    /**
+     * Gets the highest non-empty slot stored in a serialized item handler.
+     *
+     * @param inventory the serialized item handler.
+     * @return the highest used slot, or -1 if there is none.
+     */
+    protected int getHighestUsedSlot(CompoundTag inventory) {
+        int highest = -1;
+        ListTag items = inventory.getList("Items", Tag.TAG_COMPOUND);
+        for (int i = 0; i < items.size(); i++) {
+            highest = Math.max(highest, items.getCompound(i).getInt("Slot"));
+        }
+        return highest;
+    }
+
     @Override
     public void setTame(boolean tamed) {
         super.setTame(tamed);
@@ -658,7 +777,12 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
             if (currentJob instanceof MenuProvider)
                 menuProvider = (MenuProvider) currentJob;
 
-            NetworkHooks.openGui((ServerPlayer) playerEntity, menuProvider, (buf) -> buf.writeInt(this.getId()));
+            int inventorySize = this.itemStackHandler.map(ItemStackHandler::getSlots).orElse(this.getInventorySize());
+            NetworkHooks.openGui((ServerPlayer) playerEntity, menuProvider, (buf) -> {
+                buf.writeInt(this.getId());
+                //the loaded inventory may be larger than configured, so the client needs the actual size.
+                buf.writeVarInt(inventorySize);
+            });
         }
     }
 }
@@ -26,8 +26,8 @@ import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.entity.ai.PickupItemsGoal;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.crafting.recipe.CrushingRecipe;
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeCache;
 import com.github.klikli_dev.occultism.crafting.recipe.ItemStackFakeInventory;
-import com.github.klikli_dev.occultism.registry.OccultismRecipes;
 import com.github.klikli_dev.occultism.registry.OccultismSounds;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.nbt.CompoundTag;
@@ -36,14 +36,10 @@ import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.phys.Vec3;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 public class CrusherJob extends SpiritJob {
 
@@ -59,8 +55,6 @@ public class CrusherJob extends SpiritJob {
 
     protected Optional<CrushingRecipe> currentRecipe = Optional.empty();
     protected PickupItemsGoal pickupItemsGoal;
-
-    protected List<Ingredient> itemsToPickUp = new ArrayList<>();
     //endregion Fields
 
 
@@ -76,9 +70,6 @@ public class CrusherJob extends SpiritJob {
     @Override
     public void init() {
         this.entity.targetSelector.addGoal(1, this.pickupItemsGoal = new PickupItemsGoal(this.entity));
-        this.itemsToPickUp = this.entity.level.getRecipeManager().getRecipes().stream()
-                .filter(recipe -> recipe.getType() == OccultismRecipes.CRUSHING_TYPE.get())
-                .flatMap(recipe -> recipe.getIngredients().stream()).collect(Collectors.toList());
     }
 
     @Override
@@ -92,8 +83,8 @@ public class CrusherJob extends SpiritJob {
         ItemStackFakeInventory fakeInventory = new ItemStackFakeInventory(handHeld);
 
         if (!this.currentRecipe.isPresent() && !handHeld.isEmpty()) {
-            this.currentRecipe = this.entity.level.getRecipeManager().getRecipeFor(OccultismRecipes.CRUSHING_TYPE.get(),
-                    fakeInventory, this.entity.level);
+            this.currentRecipe = ItemRecipeCache.CRUSHING.getRecipeFor(this.entity.level, handHeld,
+                    ItemStackFakeInventory::new);
             this.crushingTimer = 0;
 
             if (this.currentRecipe.isPresent()) {
@@ -175,7 +166,7 @@ public class CrusherJob extends SpiritJob {
             return false; //cannot pick up items a crusher (most likely *this* one) dropped util delay elapsed.
 
         ItemStack stack = entity.getItem();
-        return !stack.isEmpty() && this.itemsToPickUp.stream().anyMatch(i -> i.test(stack));
+        return ItemRecipeCache.CRUSHING.isInput(this.entity.level, stack, ItemStackFakeInventory::new);
     }
     //endregion Overrides
 
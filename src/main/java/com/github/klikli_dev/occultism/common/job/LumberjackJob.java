@@ -34,7 +34,6 @@ import com.github.klikli_dev.occultism.registry.OccultismTags;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.LongTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.tags.ItemTags;
 import net.minecraft.world.entity.EntityDimensions;
@@ -44,25 +43,44 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 public class LumberjackJob extends SpiritJob {
 
+    /**
+     * The max amount of ignored trees, the oldest entry is dropped first.
+     */
+    public static final int MAX_IGNORED_TREES = 256;
+    /**
+     * Time in ticks until an ignored tree is checked again, it may have grown into a proper tree by then.
+     */
+    public static final long IGNORED_TREE_DURATION = 20 * 60 * 5;
+
     protected EntityDimensions lumberJackDimensions;
     protected ReplantSaplingGoal replantSaplingGoal;
     protected PickupItemsGoal pickupItemsGoal;
     protected FellTreesGoal fellTreesGoal;
     protected DepositItemsGoal depositItemsGoal;
     protected List<IItemStackComparator> itemsToPickUp = new ArrayList<>();
-    private Set<BlockPos> ignoredTrees = new HashSet<>();
+    protected StumpIndex stumpIndex;
+    /**
+     * Trees that turned out not to be trees, mapped to the game time they expire at.
+     */
+    private final Map<BlockPos, Long> ignoredTrees = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BlockPos, Long> eldest) {
+            return this.size() > MAX_IGNORED_TREES;
+        }
+    };
     private BlockPos lastFelledTree = null;
 
 
     public LumberjackJob(SpiritEntity entity) {
         super(entity);
         this.lumberJackDimensions = EntityDimensions.scalable(0.9f, 0.9f);
+        this.stumpIndex = new StumpIndex(entity);
     }
 
     @Override
@@ -77,6 +95,8 @@ public class LumberjackJob extends SpiritJob {
         this.itemsToPickUp.add(new ItemTagComparator(ItemTags.SAPLINGS));
         this.itemsToPickUp.add(new ItemTagComparator(OccultismTags.FRUITS));
         this.itemsToPickUp.add(new ItemStackComparator(new ItemStack(Items.STICK), false));
+
+        StumpIndex.register(this.stumpIndex);
     }
 
     @Override
@@ -85,6 +105,8 @@ public class LumberjackJob extends SpiritJob {
         this.entity.targetSelector.removeGoal(this.pickupItemsGoal);
         this.entity.goalSelector.removeGoal(this.fellTreesGoal);
         this.entity.goalSelector.removeGoal(this.depositItemsGoal);
+
+        StumpIndex.unregister(this.stumpIndex);
     }
 
     @Override
@@ -107,8 +129,11 @@ public class LumberjackJob extends SpiritJob {
     public CompoundTag serializeNBT() {
         CompoundTag compound = super.serializeNBT();
         ListTag list = new ListTag();
-        for (BlockPos ignoredTree : this.ignoredTrees) {
-            list.add(LongTag.valueOf(ignoredTree.asLong()));
+        for (Map.Entry<BlockPos, Long> entry : this.ignoredTrees.entrySet()) {
+            CompoundTag ignoredTree = new CompoundTag();
+            ignoredTree.putLong("pos", entry.getKey().asLong());
+            ignoredTree.putLong("expires", entry.getValue());
+            list.add(ignoredTree);
         }
         compound.put("ignoredTrees", list);
         return compound;
@@ -118,21 +143,40 @@ public class LumberjackJob extends SpiritJob {
     public void deserializeNBT(CompoundTag nbt) {
         super.deserializeNBT(nbt);
 
-        this.ignoredTrees = new HashSet<>();
+        this.ignoredTrees.clear();
         if (nbt.contains("ignoredTrees")) {
-            ListTag list = nbt.getList("ignoredTrees", Tag.TAG_LIST);
+            ListTag list = nbt.getList("ignoredTrees", Tag.TAG_COMPOUND);
             for (int i = 0; i < list.size(); i++) {
-                this.ignoredTrees.add(BlockPos.of(((LongTag) list.get(i)).getAsLong()));
+                CompoundTag ignoredTree = list.getCompound(i);
+                this.ignoredTrees.put(BlockPos.of(ignoredTree.getLong("pos")), ignoredTree.getLong("expires"));
             }
         }
     }
 
-    public Set<BlockPos> getIgnoredTrees() {
-        return this.ignoredTrees;
+    public StumpIndex getStumpIndex() {
+        return this.stumpIndex;
     }
 
-    public void setIgnoredTrees(Set<BlockPos> ignoredTrees) {
-        this.ignoredTrees = ignoredTrees;
+    /**
+     * Ignores the given tree until {@link #IGNORED_TREE_DURATION} has passed.
+     *
+     * @param pos the stump position.
+     */
+    public void ignoreTree(BlockPos pos) {
+        //re-insert to move it to the end of the eviction order
+        this.ignoredTrees.remove(pos);
+        this.ignoredTrees.put(pos, this.entity.level.getGameTime() + IGNORED_TREE_DURATION);
+    }
+
+    public boolean isTreeIgnored(BlockPos pos) {
+        Long expires = this.ignoredTrees.get(pos);
+        if (expires == null)
+            return false;
+        if (expires <= this.entity.level.getGameTime()) {
+            this.ignoredTrees.remove(pos);
+            return false;
+        }
+        return true;
     }
 
     public BlockPos getLastFelledTree() {
@@ -38,8 +38,8 @@ import net.minecraft.world.entity.ai.goal.OpenDoorGoal;
 import net.minecraft.world.entity.ai.navigation.GroundPathNavigation;
 import net.minecraft.world.level.block.entity.BlockEntity;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ManageMachineJob extends SpiritJob {
     //region Fields
@@ -50,7 +50,10 @@ public class ManageMachineJob extends SpiritJob {
     protected GlobalBlockPos storageControllerPosition;
     protected MachineReference managedMachine;
     protected DepositOrder currentDepositOrder;
-    protected Queue<DepositOrder> depositOrderQueue = new ArrayDeque<>();
+    /**
+     * Orders queued by older versions in the spirit itself, handed to the storage controller once it is available.
+     */
+    protected List<DepositOrder> legacyDepositOrders = new ArrayList<>();
     protected IStorageController storageController;
     protected BlockEntity managedMachineBlockEntity;
     protected BlockEntity extractBlockEntity;
@@ -166,18 +169,16 @@ public class ManageMachineJob extends SpiritJob {
 
     @Override
     public void update() {
-        //we are basically inactive until we have both a storage controller and a managed machine.
-        if (this.storageControllerPosition != null && this.managedMachine != null) {
-            //if we don't have an order and there is one available, take it from queue.
-            if (this.getCurrentDepositOrder() == null && !this.depositOrderQueue.isEmpty()) {
-                this.setCurrentDepositOrder(this.depositOrderQueue.poll());
-            }
-        }
-
+        //orders are handed out by the storage controller, see DepositOrderDispatcher
         if (this.currentDepositOrder != null && this.currentDepositOrder.comparator == null)
             this.setCurrentDepositOrder(null);
     }
 
+    @Override
+    public boolean canCarryMultipleStacks() {
+        return true;
+    }
+
     @Override
     public CompoundTag writeJobToNBT(CompoundTag compound) {
         if (this.storageControllerPosition != null)
@@ -189,11 +190,15 @@ public class ManageMachineJob extends SpiritJob {
         if (this.getCurrentDepositOrder() != null)
             compound.put("currentDepositOrder", this.getCurrentDepositOrder().writeToNBT(new CompoundTag()));
 
-        ListTag nbtOrderList = new ListTag();
-        for (DepositOrder depositOrder : this.depositOrderQueue) {
-            nbtOrderList.add(depositOrder.writeToNBT(new CompoundTag()));
+        //orders from old saves are kept until they have been handed over to the storage controller
+        if (!this.legacyDepositOrders.isEmpty()) {
+            ListTag nbtOrderList = new ListTag();
+            for (DepositOrder depositOrder : this.legacyDepositOrders) {
+                nbtOrderList.add(depositOrder.writeToNBT(new CompoundTag()));
+            }
+            compound.put("depositOrders", nbtOrderList);
         }
-        compound.put("depositOrders", nbtOrderList);
+
         return super.writeJobToNBT(compound);
     }
 
@@ -208,12 +213,14 @@ public class ManageMachineJob extends SpiritJob {
         if (compound.contains("currentDepositOrder"))
             this.setCurrentDepositOrder(DepositOrder.from(compound.getCompound("currentDepositOrder")));
 
-        this.depositOrderQueue = new ArrayDeque<>();
+        //orders are now queued in the storage controller, take over orders saved by older versions.
+        this.legacyDepositOrders = new ArrayList<>();
         if (compound.contains("depositOrders")) {
             ListTag nbtOrderList = compound.getList("depositOrders", Tag.TAG_COMPOUND);
             for (int i = 0; i < nbtOrderList.size(); i++) {
                 DepositOrder depositOrder = DepositOrder.from(nbtOrderList.getCompound(i));
-                this.depositOrderQueue.add(depositOrder);
+                if (depositOrder.comparator != null)
+                    this.legacyDepositOrders.add(depositOrder);
             }
         }
 
@@ -221,13 +228,32 @@ public class ManageMachineJob extends SpiritJob {
     }
 
     //region Methods
-    public void addDepsitOrder(DepositOrder order) {
-        this.depositOrderQueue.add(order);
+
+    /**
+     * @return the next order queued in the storage controller for the managed machine, without removing it, or null
+     * if there is none.
+     */
+    public DepositOrder peekDepositOrder() {
+        IStorageController storageController = this.getStorageController();
+        if (storageController == null || this.managedMachine == null)
+            return null;
+        return storageController.getDepositOrderDispatcher().peekOrder(this.managedMachine.insertGlobalPos);
+    }
+
+    /**
+     * @return the next order queued in the storage controller for the managed machine, removed from the queue, or
+     * null if there is none.
+     */
+    public DepositOrder pollDepositOrder() {
+        IStorageController storageController = this.getStorageController();
+        if (storageController == null || this.managedMachine == null)
+            return null;
+        return storageController.getDepositOrderDispatcher().pollOrder(this.managedMachine.insertGlobalPos,
+                this.entity.level.getGameTime());
     }
 
     public void clearAllOrders() {
         this.currentDepositOrder = null;
-        this.depositOrderQueue.clear();
     }
 
     protected void registerWithStorageController() {
@@ -236,6 +262,10 @@ public class ManageMachineJob extends SpiritJob {
         if (storageController != null && this.managedMachine != null) {
             storageController.addDepositOrderSpirit(this.managedMachine.insertGlobalPos, this.entity.getUUID());
             storageController.linkMachine(this.managedMachine);
+            for (DepositOrder order : this.legacyDepositOrders) {
+                storageController.addDepositOrder(this.managedMachine.insertGlobalPos, order.comparator, order.amount);
+            }
+            this.legacyDepositOrders.clear();
             BlockEntityUtil.updateTile(this.entity.level, this.getStorageControllerPosition().getPos());
         }
     }
@@ -243,8 +273,13 @@ public class ManageMachineJob extends SpiritJob {
     protected void unregisterFromStorageController() {
         if (this.storageControllerPosition != null && this.managedMachine != null) {
             IStorageController storageController = this.getStorageController();
-            if (storageController != null)
-                storageController.removeDepositOrderSpirit(this.managedMachine.insertGlobalPos);
+            if (storageController != null) {
+                //give an order we did not start on back, so another spirit can take it.
+                if (this.currentDepositOrder != null)
+                    storageController.getDepositOrderDispatcher().returnOrder(this.managedMachine.insertGlobalPos,
+                            this.currentDepositOrder, this.entity.level.getGameTime());
+                storageController.removeDepositOrderSpirit(this.managedMachine.insertGlobalPos, this.entity.getUUID());
+            }
         }
     }
     //endregion Methods
@@ -112,6 +112,15 @@ public abstract class SpiritJob implements INBTSerializable<CompoundTag> {
         return false;
     }
 
+    /**
+     * Determines if the spirit uses its whole inventory on this job, or only the held item.
+     *
+     * @return true to use all inventory slots.
+     */
+    public boolean canCarryMultipleStacks() {
+        return false;
+    }
+
     public EntityDimensions getDimensions(Pose pPose, EntityDimensions original) {
         return original;
     }
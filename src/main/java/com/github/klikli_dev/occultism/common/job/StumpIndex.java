@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.job;
+
+import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.entity.ai.FellTreesGoal;
+import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import com.github.klikli_dev.occultism.util.WorkAreaUtil;
+import net.minecraft.core.BlockPos;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.SaplingGrowTreeEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of the potential tree stumps (logs on tree soil) around a lumberjack spirit.
+ * The index is built once with a work area scan, and then kept up to date from block place, break and sapling grow
+ * events, so finding the next tree does not need to scan the work area.
+ * Candidates are verified when selected, so the index may contain positions that are no longer stumps.
+ */
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class StumpIndex {
+
+    //region Fields
+    /**
+     * The indexed area is larger than the work area, so a work area that moves with the spirit does not cause a
+     * rebuild on every step.
+     */
+    public static final int AREA_MARGIN = 16;
+    /**
+     * Rebuild interval to pick up changes that do not fire events, such as world generation or other mods.
+     */
+    public static final int REBUILD_INTERVAL = 20 * 60 * 5;
+
+    private static final Set<StumpIndex> indices = Collections.newSetFromMap(new WeakHashMap<>());
+
+    protected final SpiritEntity entity;
+    protected final Set<BlockPos> stumps = new HashSet<>();
+    protected BlockPos min;
+    protected BlockPos max;
+    protected long lastRebuildTime;
+    //endregion Fields
+
+    //region Initialization
+    public StumpIndex(SpiritEntity entity) {
+        this.entity = entity;
+    }
+    //endregion Initialization
+
+    //region Static Methods
+    public static void register(StumpIndex index) {
+        if (!index.entity.level.isClientSide)
+            indices.add(index);
+    }
+
+    public static void unregister(StumpIndex index) {
+        indices.remove(index);
+    }
+
+    public static boolean isStump(Level level, BlockPos pos) {
+        return FellTreesGoal.isLog(level, pos) && FellTreesGoal.isTreeSoil(level, pos.below());
+    }
+
+    @SubscribeEvent
+    public static void onBlockPlaced(BlockEvent.EntityPlaceEvent event) {
+        //placing a log on soil or soil under a log both can create a stump
+        onBlockChanged(event.getWorld(), event.getPos(), true);
+        onBlockChanged(event.getWorld(), event.getPos().above(), true);
+    }
+
+    //lowest priority, so breaks cancelled by e.g. claim mods never reach us and keep valid stumps indexed
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockBroken(BlockEvent.BreakEvent event) {
+        onBlockChanged(event.getWorld(), event.getPos(), false);
+        onBlockChanged(event.getWorld(), event.getPos().above(), false);
+    }
+
+    @SubscribeEvent
+    public static void onSaplingGrowTree(SaplingGrowTreeEvent event) {
+        //the tree is not grown yet, so add the sapling and its neighbours (for 2x2 trees) unverified.
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                onBlockChanged(event.getWorld(), event.getPos().offset(x, 0, z), true);
+            }
+        }
+    }
+
+    protected static void onBlockChanged(LevelAccessor level, BlockPos pos, boolean added) {
+        if (level.isClientSide() || indices.isEmpty())
+            return;
+
+        for (StumpIndex index : indices) {
+            if (index.entity.level == level && index.contains(pos)) {
+                if (added)
+                    index.stumps.add(pos.immutable());
+                else
+                    index.stumps.remove(pos);
+            }
+        }
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Gets the stump closest to the origin within the given work area. Candidates that are no longer stumps are
+     * dropped from the index.
+     *
+     * @param min    the min corner of the work area, inclusive.
+     * @param max    the max corner of the work area, inclusive.
+     * @param origin the position to measure distance from.
+     * @param filter additional filter for candidates, e.g. to skip ignored trees.
+     * @return the closest stump, or null if none found.
+     */
+    @Nullable
+    public BlockPos getClosestStump(BlockPos min, BlockPos max, Vec3 origin, Predicate<BlockPos> filter) {
+        this.ensureIndexed(min, max);
+
+        Level level = this.entity.level;
+        BlockPos closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        Iterator<BlockPos> iterator = this.stumps.iterator();
+        while (iterator.hasNext()) {
+            BlockPos pos = iterator.next();
+            if (pos.getX() < min.getX() || pos.getY() < min.getY() || pos.getZ() < min.getZ() ||
+                    pos.getX() > max.getX() || pos.getY() > max.getY() || pos.getZ() > max.getZ())
+                continue;
+
+            double distance = origin.distanceToSqr(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+            if (distance >= closestDistance)
+                continue;
+
+            if (!level.isLoaded(pos))
+                continue;
+            if (!isStump(level, pos)) {
+                iterator.remove();
+                continue;
+            }
+
+            if (filter.test(pos)) {
+                closest = pos;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Removes the given position, e.g. after the tree was felled.
+     *
+     * @param pos the position.
+     */
+    public void remove(BlockPos pos) {
+        this.stumps.remove(pos);
+    }
+
+    /**
+     * Forces a rebuild on next use.
+     */
+    public void invalidate() {
+        this.min = null;
+        this.max = null;
+    }
+
+    protected boolean contains(BlockPos pos) {
+        return this.min != null &&
+                pos.getX() >= this.min.getX() && pos.getY() >= this.min.getY() && pos.getZ() >= this.min.getZ() &&
+                pos.getX() <= this.max.getX() && pos.getY() <= this.max.getY() && pos.getZ() <= this.max.getZ();
+    }
+
+    protected void ensureIndexed(BlockPos min, BlockPos max) {
+        if (this.contains(min) && this.contains(max) &&
+                this.entity.level.getGameTime() - this.lastRebuildTime < REBUILD_INTERVAL)
+            return;
+
+        this.min = min.offset(-AREA_MARGIN, -AREA_MARGIN / 2, -AREA_MARGIN);
+        this.max = max.offset(AREA_MARGIN, AREA_MARGIN / 2, AREA_MARGIN);
+        this.lastRebuildTime = this.entity.level.getGameTime();
+
+        Level level = this.entity.level;
+        this.stumps.clear();
+        WorkAreaUtil.forEachBlock(level, this.min, this.max, state -> state.is(BlockTags.LOGS), pos -> {
+            if (FellTreesGoal.isTreeSoil(level, pos.below()))
+                this.stumps.add(pos);
+        });
+    }
+    //endregion Methods
+}
@@ -76,6 +76,11 @@ public class TransportItemsJob extends SpiritJob implements MenuProvider {
         this.entity.goalSelector.removeGoal(this.openDoorGoal);
     }
 
+    @Override
+    public boolean canCarryMultipleStacks() {
+        return true;
+    }
+
     @Nullable
     @Override
     public AbstractContainerMenu createMenu(int id, Inventory playerInventory, Player player) {
@@ -0,0 +1,340 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
+import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import com.github.klikli_dev.occultism.common.job.ManageMachineJob;
+import com.github.klikli_dev.occultism.util.EntityUtil;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.*;
+
+/**
+ * Owns all pending deposit orders of a storage controller and hands them out to the machine manager spirits
+ * registered for the target machine. Several spirits may manage the same machine, idle spirits with the lowest load
+ * and the shortest distance to the machine get orders first. Compatible orders for the same machine are merged.
+ * Only used on the logical server.
+ */
+public class DepositOrderDispatcher {
+
+    //region Fields
+    /**
+     * The interval in ticks at which pending orders are handed out to idle spirits.
+     */
+    public static final int DISPATCH_INTERVAL = 10;
+
+    protected final Map<GlobalBlockPos, Deque<PendingOrder>> pendingOrders = new LinkedHashMap<>();
+    /**
+     * The spirits managing each machine. Not saved, spirits register themselves when their job is initialized.
+     */
+    protected final Map<GlobalBlockPos, Set<UUID>> spirits = new HashMap<>();
+
+    //statistics since the last reset
+    protected long dispatchedOrders;
+    protected long mergedOrders;
+    protected long totalLatency;
+    protected long maxLatency;
+    //endregion Fields
+
+    //region Getter / Setter
+
+    /**
+     * @return the amount of orders waiting for a spirit.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Deque<PendingOrder> orders : this.pendingOrders.values()) {
+            depth += orders.size();
+        }
+        return depth;
+    }
+
+    public boolean hasPendingOrders() {
+        return !this.pendingOrders.isEmpty();
+    }
+
+    public boolean hasSpirits(GlobalBlockPos machine) {
+        Set<UUID> machineSpirits = this.spirits.get(machine);
+        return machineSpirits != null && !machineSpirits.isEmpty();
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+    public void registerSpirit(GlobalBlockPos machine, UUID spiritId) {
+        this.spirits.computeIfAbsent(machine, key -> new HashSet<>()).add(spiritId);
+    }
+
+    /**
+     * Removes the given spirit from the spirits managing the given machine. Pending orders of the machine are dropped
+     * if no other spirit manages it.
+     *
+     * @param machine  the machine.
+     * @param spiritId the spirit.
+     * @return true if other spirits still manage the machine.
+     */
+    public boolean unregisterSpirit(GlobalBlockPos machine, UUID spiritId) {
+        Set<UUID> machineSpirits = this.spirits.get(machine);
+        if (machineSpirits != null) {
+            machineSpirits.remove(spiritId);
+            if (!machineSpirits.isEmpty())
+                return true;
+            this.spirits.remove(machine);
+        }
+        this.pendingOrders.remove(machine);
+        return false;
+    }
+
+    /**
+     * Queues an order for the given machine, merging it into the last queued order if both request the same item and
+     * the result still fits into one stack.
+     *
+     * @param machine    the machine to deposit in.
+     * @param comparator the item stack comparator.
+     * @param amount     the amount to deposit.
+     * @param gameTime   the current game time.
+     * @return true if the order was queued, false if no spirit manages the machine.
+     */
+    public boolean addOrder(GlobalBlockPos machine, ItemStackComparator comparator, int amount, long gameTime) {
+        if (!this.hasSpirits(machine))
+            return false;
+
+        Deque<PendingOrder> orders = this.pendingOrders.computeIfAbsent(machine, key -> new ArrayDeque<>());
+        PendingOrder last = orders.peekLast();
+        if (last != null && this.canMerge(last.order, comparator, amount)) {
+            last.order.amount += amount;
+            this.mergedOrders++;
+            return true;
+        }
+        orders.addLast(new PendingOrder(new DepositOrder(comparator, amount), gameTime));
+        return true;
+    }
+
+    /**
+     * Puts an order that was not started back at the front of the queue, e.g. if the spirit that had it left.
+     *
+     * @param machine  the machine to deposit in.
+     * @param order    the order.
+     * @param gameTime the current game time.
+     */
+    public void returnOrder(GlobalBlockPos machine, DepositOrder order, long gameTime) {
+        if (this.hasSpirits(machine) && order.comparator != null)
+            this.pendingOrders.computeIfAbsent(machine, key -> new ArrayDeque<>())
+                    .addFirst(new PendingOrder(order, gameTime));
+    }
+
+    /**
+     * @param machine the machine.
+     * @return the next order for the given machine, without removing it, or null if there is none.
+     */
+    public DepositOrder peekOrder(GlobalBlockPos machine) {
+        Deque<PendingOrder> orders = this.pendingOrders.get(machine);
+        return orders != null && !orders.isEmpty() ? orders.peekFirst().order : null;
+    }
+
+    /**
+     * Removes the next order for the given machine.
+     *
+     * @param machine  the machine.
+     * @param gameTime the current game time.
+     * @return the order, or null if there is none.
+     */
+    public DepositOrder pollOrder(GlobalBlockPos machine, long gameTime) {
+        Deque<PendingOrder> orders = this.pendingOrders.get(machine);
+        if (orders == null)
+            return null;
+
+        PendingOrder pending = orders.pollFirst();
+        if (orders.isEmpty())
+            this.pendingOrders.remove(machine);
+        if (pending == null)
+            return null;
+
+        long latency = gameTime - pending.created;
+        this.dispatchedOrders++;
+        this.totalLatency += latency;
+        this.maxLatency = Math.max(this.maxLatency, latency);
+        return pending.order;
+    }
+
+    /**
+     * Hands out pending orders to idle spirits, one order per spirit. Spirits carrying the fewest stacks are served
+     * first, then the spirits closest to the machine.
+     *
+     * @param server             the server.
+     * @param controllerPosition the position of the storage controller owning this dispatcher.
+     * @param gameTime           the current game time.
+     * @return true if any order was handed out.
+     */
+    public boolean dispatch(MinecraftServer server, GlobalBlockPos controllerPosition, long gameTime) {
+        boolean dispatched = false;
+        for (GlobalBlockPos machine : new ArrayList<>(this.pendingOrders.keySet())) {
+            List<Candidate> candidates = this.findIdleSpirits(server, machine, controllerPosition);
+            candidates.sort(Comparator.<Candidate>comparingInt(candidate -> candidate.load)
+                    .thenComparingDouble(candidate -> candidate.distance));
+            for (Candidate candidate : candidates) {
+                DepositOrder order = this.pollOrder(machine, gameTime);
+                if (order == null)
+                    break;
+                candidate.job.setCurrentDepositOrder(order);
+                dispatched = true;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Creates a summary of the queue and the order latency since the last reset, and resets the statistics.
+     *
+     * @param gameTime the current game time.
+     * @return the summary lines.
+     */
+    public List<String> reportAndReset(long gameTime) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Pending orders: %d for %d machines, %d machines managed",
+                this.getQueueDepth(), this.pendingOrders.size(), this.spirits.size()));
+        for (Map.Entry<GlobalBlockPos, Deque<PendingOrder>> entry : this.pendingOrders.entrySet()) {
+            PendingOrder oldest = entry.getValue().peekFirst();
+            Set<UUID> machineSpirits = this.spirits.getOrDefault(entry.getKey(), Collections.emptySet());
+            lines.add(String.format("  %s %s: %d pending, oldest waiting %d ticks, %d spirits",
+                    entry.getKey().getDimensionKey().location(), entry.getKey().getPos().toShortString(),
+                    entry.getValue().size(), oldest != null ? gameTime - oldest.created : 0,
+                    machineSpirits.size()));
+        }
+        lines.add(String.format("Dispatched orders: %d (%d merged into others), avg wait %.1f ticks, max wait %d ticks",
+                this.dispatchedOrders, this.mergedOrders,
+                this.dispatchedOrders > 0 ? this.totalLatency / (double) this.dispatchedOrders : 0.0,
+                this.maxLatency));
+
+        this.dispatchedOrders = 0;
+        this.mergedOrders = 0;
+        this.totalLatency = 0;
+        this.maxLatency = 0;
+        return lines;
+    }
+
+    public ListTag serializeNBT() {
+        ListTag list = new ListTag();
+        for (Map.Entry<GlobalBlockPos, Deque<PendingOrder>> entry : this.pendingOrders.entrySet()) {
+            for (PendingOrder pending : entry.getValue()) {
+                CompoundTag compound = new CompoundTag();
+                compound.put("machine", entry.getKey().serializeNBT());
+                compound.put("order", pending.order.serializeNBT());
+                compound.putLong("created", pending.created);
+                list.add(compound);
+            }
+        }
+        return list;
+    }
+
+    public void deserializeNBT(ListTag list) {
+        this.pendingOrders.clear();
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag compound = list.getCompound(i);
+            DepositOrder order = DepositOrder.from(compound.getCompound("order"));
+            if (order.comparator == null)
+                continue;
+            this.pendingOrders.computeIfAbsent(GlobalBlockPos.from(compound.getCompound("machine")),
+                    key -> new ArrayDeque<>()).addLast(new PendingOrder(order, compound.getLong("created")));
+        }
+    }
+
+    protected boolean canMerge(DepositOrder order, ItemStackComparator comparator, int amount) {
+        ItemStack stack = order.comparator.getFilterStack();
+        return order.comparator.getMatchNbt() == comparator.getMatchNbt() &&
+                ItemStack.isSameItemSameTags(stack, comparator.getFilterStack()) &&
+                order.amount + amount <= stack.getMaxStackSize();
+    }
+
+    protected List<Candidate> findIdleSpirits(MinecraftServer server, GlobalBlockPos machine,
+                                              GlobalBlockPos controllerPosition) {
+        List<Candidate> candidates = new ArrayList<>();
+        Vec3 machineCenter = Vec3.atCenterOf(machine.getPos());
+        for (UUID spiritId : this.spirits.getOrDefault(machine, Collections.emptySet())) {
+            EntityUtil.getEntityByUuiDGlobal(server, spiritId)
+                    .filter(SpiritEntity.class::isInstance).map(SpiritEntity.class::cast)
+                    .ifPresent(spirit -> spirit.getJob()
+                            .filter(ManageMachineJob.class::isInstance).map(ManageMachineJob.class::cast)
+                            .filter(job -> job.getCurrentDepositOrder() == null &&
+                                    job.getManagedMachine() != null &&
+                                    machine.equals(job.getManagedMachine().insertGlobalPos) &&
+                                    controllerPosition.equals(job.getStorageControllerPosition()))
+                            .ifPresent(job -> {
+                                double distance = spirit.level.dimension() == machine.getDimensionKey() ?
+                                        spirit.distanceToSqr(machineCenter) : Double.MAX_VALUE;
+                                candidates.add(new Candidate(job, this.getLoad(spirit), distance));
+                            }));
+        }
+        return candidates;
+    }
+
+    /**
+     * @param spirit the spirit.
+     * @return the amount of stacks the spirit is still carrying.
+     */
+    protected int getLoad(SpiritEntity spirit) {
+        IItemHandler handler = spirit.getJobItemHandler();
+        int load = 0;
+        for (int i = 0; i < handler.getSlots(); i++) {
+            if (!handler.getStackInSlot(i).isEmpty())
+                load++;
+        }
+        return load;
+    }
+    //endregion Methods
+
+    protected static class PendingOrder {
+        //region Fields
+        protected final DepositOrder order;
+        protected final long created;
+        //endregion Fields
+
+        //region Initialization
+        protected PendingOrder(DepositOrder order, long created) {
+            this.order = order;
+            this.created = created;
+        }
+        //endregion Initialization
+    }
+
+    protected static class Candidate {
+        //region Fields
+        protected final ManageMachineJob job;
+        protected final int load;
+        protected final double distance;
+        //endregion Fields
+
+        //region Initialization
+        protected Candidate(ManageMachineJob job, int load, double distance) {
+            this.job = job;
+            this.load = load;
+            this.distance = distance;
+        }
+        //endregion Initialization
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Identifies stacks that can be merged, based on their item and nbt tag.
+ * Keys created via {@link #of(ItemStack)} hold a copy of the tag, so they are not affected by later changes to the stack.
+ */
+public class ItemStackKey {
+
+    //region Fields
+    protected final Item item;
+    @Nullable
+    protected final CompoundTag tag;
+    protected final int hash;
+    //endregion Fields
+
+    //region Initialization
+    protected ItemStackKey(Item item, @Nullable CompoundTag tag) {
+        this.item = item;
+        this.tag = tag;
+        this.hash = 31 * item.hashCode() + Objects.hashCode(tag);
+    }
+    //endregion Initialization
+
+    //region Static Methods
+    public static ItemStackKey of(ItemStack stack) {
+        return new ItemStackKey(stack.getItem(), stack.getTag() != null ? stack.getTag().copy() : null);
+    }
+
+    /**
+     * Creates a key that shares the tag of the given stack. Only use for short-lived lookups.
+     *
+     * @param stack the stack to create the key for.
+     * @return the lookup key.
+     */
+    public static ItemStackKey lookup(ItemStack stack) {
+        return new ItemStackKey(stack.getItem(), stack.getTag());
+    }
+    //endregion Static Methods
+
+    //region Getter / Setter
+    public Item getItem() {
+        return this.item;
+    }
+    //endregion Getter / Setter
+
+    //region Overrides
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ItemStackKey other))
+            return false;
+        return this.hash == other.hash && this.item == other.item && Objects.equals(this.tag, other.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+    //endregion Overrides
+
+    //region Methods
+
+    /**
+     * @param stack the stack to check.
+     * @return true if the given stack has this key.
+     */
+    public boolean matches(ItemStack stack) {
+        return stack.getItem() == this.item && Objects.equals(stack.getTag(), this.tag);
+    }
+
+    /**
+     * @param count the count of the stack.
+     * @return a new stack with this item and tag.
+     */
+    public ItemStack toStack(int count) {
+        ItemStack stack = new ItemStack(this.item, 1);
+        stack.setTag(this.tag != null ? this.tag.copy() : null);
+        stack.setCount(count);
+        return stack;
+    }
+    //endregion Methods
+}
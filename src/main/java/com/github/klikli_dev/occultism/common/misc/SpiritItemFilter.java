@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import com.github.klikli_dev.occultism.Occultism;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The item and tag filter of a spirit, compiled once from the filter slots, the tag filter string and the filter
+ * mode. Matches only depend on the item, so they are memoized per item until tags are reloaded.
+ * <p>
+ * The tag filter is a ";" separated list of wildcard patterns, matched against the item tags, or against the item
+ * id if prefixed with "item:".
+ */
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class SpiritItemFilter implements Predicate<ItemStack> {
+
+    //region Fields
+    /**
+     * Increased whenever tags are reloaded, as tag matches memoized before are no longer valid.
+     */
+    private static volatile int tagGeneration;
+
+    protected final Set<Item> filteredItems = new HashSet<>();
+    protected final List<Pattern> itemPatterns = new ArrayList<>();
+    protected final List<Pattern> tagPatterns = new ArrayList<>();
+    protected final boolean isBlacklist;
+    protected final Map<Item, Boolean> matches = new HashMap<>();
+    protected int matchesGeneration = tagGeneration;
+    //endregion Fields
+
+    //region Initialization
+    public SpiritItemFilter(IItemHandler filterItems, String tagFilter, boolean isBlacklist) {
+        this.isBlacklist = isBlacklist;
+
+        for (int i = 0; i < filterItems.getSlots(); i++) {
+            ItemStack filtered = filterItems.getStackInSlot(i);
+            if (!filtered.isEmpty())
+                this.filteredItems.add(filtered.getItem());
+        }
+
+        for (String filter : tagFilter.split(";")) {
+            if (filter.isEmpty())
+                continue;
+
+            if (filter.startsWith("item:")) {
+                this.itemPatterns.add(compileWildcard(filter.substring(5)));
+            } else {
+                //tags should not be prefixed, but we allow it and handle it
+                if (filter.startsWith("tag:")) {
+                    filter = filter.substring(4);
+                }
+                this.tagPatterns.add(compileWildcard(filter));
+            }
+        }
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    public boolean isBlacklist() {
+        return this.isBlacklist;
+    }
+    //endregion Getter / Setter
+
+    //region Overrides
+
+    /**
+     * Checks if the stack passes the filter, taking into account the filter mode.
+     *
+     * @param stack the stack to check.
+     * @return true if the stack is matched in whitelist mode, or not matched in blacklist mode.
+     */
+    @Override
+    public boolean test(ItemStack stack) {
+        //if we're in blacklist mode, if the item matches either item or tag -> it does not pass
+        //if we're in whitelist mode, if the item matches either item or tag -> it passes
+        return !stack.isEmpty() && this.matches(stack) != this.isBlacklist;
+    }
+    //endregion Overrides
+
+    //region Static Methods
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        tagGeneration++;
+    }
+
+    /**
+     * Compiles a case-insensitive wildcard pattern, "*" matches any number of characters, "?" a single character.
+     */
+    protected static Pattern compileWildcard(String wildcard) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : wildcard.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty())
+            regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Checks if the stack matches the filter items or the tag filter, ignoring the filter mode.
+     *
+     * @param stack the stack to check.
+     * @return true if the stack matches.
+     */
+    public boolean matches(ItemStack stack) {
+        if (this.filteredItems.contains(stack.getItem()))
+            return true;
+        if (this.itemPatterns.isEmpty() && this.tagPatterns.isEmpty())
+            return false;
+
+        if (this.matchesGeneration != tagGeneration) {
+            this.matches.clear();
+            this.matchesGeneration = tagGeneration;
+        }
+        return this.matches.computeIfAbsent(stack.getItem(), item -> this.matchesPatterns(stack));
+    }
+
+    protected boolean matchesPatterns(ItemStack stack) {
+        if (!this.itemPatterns.isEmpty()) {
+            String id = ForgeRegistries.ITEMS.getKey(stack.getItem()).toString();
+            for (Pattern pattern : this.itemPatterns) {
+                if (pattern.matcher(id).matches())
+                    return true;
+            }
+        }
+
+        if (!this.tagPatterns.isEmpty()) {
+            return stack.getTags().anyMatch(tag -> {
+                String id = tag.location().toString();
+                for (Pattern pattern : this.tagPatterns) {
+                    if (pattern.matcher(id).matches())
+                        return true;
+                }
+                return false;
+            });
+        }
+        return false;
+    }
+    //endregion Methods
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import net.minecraft.world.item.Item;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers which items in a storage controller changed at which revision, so viewers can be sent only the items
+ * that changed since the revision they last received.
+ * Only the most recent change per item is kept, and only for a limited amount of distinct items.
+ */
+public class StorageControllerChangeLog {
+
+    //region Fields
+    protected final int capacity;
+    /**
+     * The item changes, ordered from oldest to newest change. Re-inserting an item moves it to the end.
+     */
+    protected final LinkedHashMap<Item, Long> changes = new LinkedHashMap<>();
+    protected long revision;
+    /**
+     * The oldest revision a delta can be built from. Anything older requires a full update.
+     */
+    protected long oldestRevision;
+    //endregion Fields
+
+    //region Initialization
+    public StorageControllerChangeLog(int capacity) {
+        this.capacity = capacity;
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    public long getRevision() {
+        return this.revision;
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Records a change of the stored amount of the given item.
+     *
+     * @param item the item that changed.
+     */
+    public void recordChange(Item item) {
+        this.revision++;
+        this.changes.remove(item);
+        this.changes.put(item, this.revision);
+
+        if (this.changes.size() > this.capacity) {
+            Map.Entry<Item, Long> eldest = this.changes.entrySet().iterator().next();
+            this.changes.remove(eldest.getKey());
+            //the evicted change is no longer known, so deltas must start at or after it.
+            this.oldestRevision = eldest.getValue();
+        }
+    }
+
+    /**
+     * Forgets all changes, forcing viewers to receive a full update.
+     */
+    public void reset() {
+        this.revision++;
+        this.changes.clear();
+        this.oldestRevision = this.revision;
+    }
+
+    /**
+     * Gets all items that changed after the given revision.
+     *
+     * @param sinceRevision the revision the viewer last received.
+     * @return the changed items, or null if the changes are no longer known and a full update is required.
+     */
+    public Set<Item> getChangesSince(long sinceRevision) {
+        if (sinceRevision < this.oldestRevision || sinceRevision > this.revision)
+            return null;
+
+        Set<Item> result = new HashSet<>();
+        for (Map.Entry<Item, Long> entry : this.changes.entrySet()) {
+            if (entry.getValue() > sinceRevision)
+                result.add(entry.getKey());
+        }
+        return result;
+    }
+    //endregion Methods
+}
@@ -22,17 +22,22 @@
 
 package com.github.klikli_dev.occultism.common.misc;
 
+import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.common.data.NonNullArrayList;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nonnull;
-import java.util.Collections;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
 
 public class StorageControllerItemStackHandler extends ItemStackHandler {
 
@@ -41,6 +46,37 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
     protected int maxSlots;
     protected boolean overrideItemStackSizes;
     protected IStorageController storageController;
+
+    /**
+     * Index of the slots occupied by each item, kept in sync via onContentsChanged.
+     */
+    protected Map<Item, BitSet> slotsByItem = new HashMap<>();
+    /**
+     * Running total of items stored per item, across all slots.
+     */
+    protected Map<Item, Integer> totalsByItem = new HashMap<>();
+    /**
+     * All non-empty slots, used to find free slots without scanning.
+     */
+    protected BitSet occupiedSlots = new BitSet();
+    /**
+     * All stored stacks merged by item and nbt, with the total count as stack size.
+     */
+    protected Map<ItemStackKey, ItemStack> mergedStacks = new LinkedHashMap<>();
+    /**
+     * The merged stack keys per item.
+     */
+    protected Map<Item, Set<ItemStackKey>> keysByItem = new HashMap<>();
+    /**
+     * The key and count each slot had when it was last indexed, used to compute the index delta on change.
+     */
+    protected ItemStackKey[] indexedKeys = new ItemStackKey[0];
+    protected int[] indexedCounts = new int[0];
+    /**
+     * Tracks which items changed, so viewers can be sent incremental updates.
+     */
+    protected StorageControllerChangeLog changeLog = new StorageControllerChangeLog(
+            Occultism.SERVER_CONFIG.storage.changeLogSize.get());
     //endregion Fields
 
     //region Initialization
@@ -52,9 +88,46 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
         this.maxSlots = size;
         this.maxStackSize = maxStackSize;
         this.overrideItemStackSizes = overrideItemStackSizes;
+        this.rebuildIndex();
     }
     //endregion Initialization
 
+    //region Getter / Setter
+
+    /**
+     * @return the items currently stored in this handler.
+     */
+    public Set<Item> getIndexedItems() {
+        return Collections.unmodifiableSet(this.slotsByItem.keySet());
+    }
+
+    /**
+     * @param item the item to look up.
+     * @return the total amount of the given item across all slots.
+     */
+    public int getTotalCount(Item item) {
+        return this.totalsByItem.getOrDefault(item, 0);
+    }
+
+    /**
+     * @return the amount of non-empty slots.
+     */
+    public int getOccupiedSlotCount() {
+        return this.occupiedSlots.cardinality();
+    }
+
+    /**
+     * @return the amount of distinct item and nbt combinations stored.
+     */
+    public int getMergedStackCount() {
+        return this.mergedStacks.size();
+    }
+
+    public StorageControllerChangeLog getChangeLog() {
+        return this.changeLog;
+    }
+    //endregion Getter / Setter
+
     //region Overrides
     @Override
     public void setSize(int size) {
@@ -72,6 +145,7 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
         else if (size < this.stacks.size()) {
             this.prune();
         }
+        this.ensureIndexCapacity(this.stacks.size());
     }
 
     @Nonnull
@@ -89,8 +163,11 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
 
         if (!simulate && this.stacks.size() > this.maxSlots) {
             //in real mode if we are above desired size, delete empty slots.
-            if (this.stacks.get(slot).isEmpty())
+            if (this.stacks.get(slot).isEmpty()) {
                 this.stacks.remove(slot);
+                //removing a slot shifts all following slot indices
+                this.rebuildIndex();
+            }
         }
 
         return result;
@@ -176,18 +253,401 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
         this.onLoad();
     }
 
+    @Override
+    protected void onLoad() {
+        this.rebuildIndex();
+    }
+
     @Override
     protected void onContentsChanged(int slot) {
+        this.updateIndex(slot);
         this.storageController.onContentsChanged();
     }
+    //endregion Overrides
 
     //region Methods
     public void prune() {
+        boolean removed = false;
         //iterate from the end and remove empty stuff until we have our desired size
         for (int i = this.stacks.size() - 1; i >= 0 && this.stacks.size() > this.maxSlots; i--) {
-            if (this.stacks.get(i).isEmpty())
+            if (this.stacks.get(i).isEmpty()) {
                 this.stacks.remove(i);
+                removed = true;
+            }
+        }
+        if (removed)
+            this.rebuildIndex();
+    }
+
+    /**
+     * Gets the slots that may hold stacks matching the given comparator, in descending order.
+     * Descending order allows callers to extract while iterating, as removing an oversized slot only shifts the
+     * slots after it.
+     *
+     * @param comparator the comparator to match against.
+     * @return the matching slots.
+     */
+    public int[] getMatchingSlots(Predicate<ItemStack> comparator) {
+        List<Integer> result = new ArrayList<>();
+        for (Item item : this.getCandidateItems(comparator)) {
+            this.collectMatchingSlots(item, comparator, result);
+        }
+        result.sort(Comparator.reverseOrder());
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gets the slots holding the given item that match the given comparator, in descending order.
+     *
+     * @param item       the item to look up.
+     * @param comparator the comparator to match against.
+     * @return the matching slots.
+     */
+    public int[] getMatchingSlots(Item item, Predicate<ItemStack> comparator) {
+        List<Integer> result = new ArrayList<>();
+        this.collectMatchingSlots(item, comparator, result);
+        result.sort(Comparator.reverseOrder());
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gets the total amount of items matching the given comparator.
+     *
+     * @param comparator the comparator to match against.
+     * @return the total amount.
+     */
+    public int getMatchingCount(Predicate<ItemStack> comparator) {
+        //fast path: plain item comparators can use the running totals directly.
+        if (comparator instanceof ItemStackComparator itemStackComparator && !itemStackComparator.getMatchNbt())
+            return this.getTotalCount(itemStackComparator.getFilterStack().getItem());
+
+        int totalCount = 0;
+        for (Item item : this.getCandidateItems(comparator)) {
+            BitSet slots = this.slotsByItem.get(item);
+            if (slots == null)
+                continue;
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                ItemStack stack = this.stacks.get(slot);
+                if (comparator.test(stack))
+                    totalCount += stack.getCount();
+            }
+        }
+        return totalCount;
+    }
+
+    /**
+     * Gets the total amount per item of all stacks matching the given comparator.
+     *
+     * @param comparator the comparator to match against.
+     * @return the total amount per matching item.
+     */
+    public Map<Item, Integer> getMatchingCountsByItem(Predicate<ItemStack> comparator) {
+        Map<Item, Integer> result = new HashMap<>();
+        for (Item item : this.getCandidateItems(comparator)) {
+            BitSet slots = this.slotsByItem.get(item);
+            if (slots == null)
+                continue;
+            int count = 0;
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                ItemStack stack = this.stacks.get(slot);
+                if (comparator.test(stack))
+                    count += stack.getCount();
+            }
+            if (count > 0)
+                result.put(item, count);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts the given stack, first topping up slots holding the same item, then filling free slots.
+     * Equivalent to {@link ItemHandlerHelper#insertItem(net.minecraftforge.items.IItemHandler, ItemStack, boolean)},
+     * but only visits relevant slots.
+     *
+     * @param stack    the stack to insert.
+     * @param simulate true for simulation.
+     * @return the remainder that could not be inserted.
+     */
+    @Nonnull
+    public ItemStack insertItemIndexed(@Nonnull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty())
+            return stack;
+
+        BitSet slots = this.slotsByItem.get(stack.getItem());
+        if (slots != null) {
+            //copy, as a real insert may modify the index while we iterate.
+            for (int slot : slots.stream().toArray()) {
+                stack = this.insertItem(slot, stack, simulate);
+                if (stack.isEmpty())
+                    return ItemStack.EMPTY;
+            }
+        }
+
+        int size = Math.min(this.maxSlots, this.stacks.size());
+        for (int slot = this.occupiedSlots.nextClearBit(0); slot < size; slot = this.occupiedSlots.nextClearBit(slot + 1)) {
+            stack = this.insertItem(slot, stack, simulate);
+            if (stack.isEmpty())
+                return ItemStack.EMPTY;
+        }
+        return stack;
+    }
+
+    /**
+     * Inserts the given stacks as by {@link #insertItemIndexed(ItemStack, boolean)}.
+     * Unlike simulating each stack on its own, a simulation takes into account the space used up by earlier stacks.
+     *
+     * @param stacks   the stacks to insert.
+     * @param simulate true for simulation.
+     * @return the remainder for each stack, in the same order.
+     */
+    public List<ItemStack> insertItemsIndexed(List<ItemStack> stacks, boolean simulate) {
+        List<ItemStack> remainders = new ArrayList<>(stacks.size());
+        if (!simulate) {
+            for (ItemStack stack : stacks)
+                remainders.add(this.insertItemIndexed(stack, false));
+            return remainders;
+        }
+
+        //simulated contents of the slots touched so far, and the free slots they used up.
+        Map<Integer, ItemStack> simulatedStacks = new HashMap<>();
+        Map<Item, BitSet> simulatedSlotsByItem = new HashMap<>();
+        BitSet simulatedOccupiedSlots = (BitSet) this.occupiedSlots.clone();
+        int size = Math.min(this.maxSlots, this.stacks.size());
+
+        for (ItemStack stack : stacks) {
+            if (stack.isEmpty()) {
+                remainders.add(ItemStack.EMPTY);
+                continue;
+            }
+
+            int remaining = stack.getCount();
+            BitSet slots = new BitSet();
+            if (this.slotsByItem.containsKey(stack.getItem()))
+                slots.or(this.slotsByItem.get(stack.getItem()));
+            if (simulatedSlotsByItem.containsKey(stack.getItem()))
+                slots.or(simulatedSlotsByItem.get(stack.getItem()));
+
+            for (int slot = slots.nextSetBit(0); slot >= 0 && remaining > 0; slot = slots.nextSetBit(slot + 1)) {
+                remaining -= this.simulateInsert(slot, stack, remaining, simulatedStacks);
+            }
+
+            for (int slot = simulatedOccupiedSlots.nextClearBit(0); slot < size && remaining > 0;
+                 slot = simulatedOccupiedSlots.nextClearBit(slot + 1)) {
+                int inserted = this.simulateInsert(slot, stack, remaining, simulatedStacks);
+                if (inserted > 0) {
+                    simulatedOccupiedSlots.set(slot);
+                    simulatedSlotsByItem.computeIfAbsent(stack.getItem(), item -> new BitSet()).set(slot);
+                    remaining -= inserted;
+                }
+            }
+
+            remainders.add(remaining > 0 ? ItemHandlerHelper.copyStackWithSize(stack, remaining) : ItemStack.EMPTY);
+        }
+        return remainders;
+    }
+
+    /**
+     * Gets all stored stacks, merged into one stack per distinct item and nbt combination.
+     *
+     * @return copies of the merged stacks.
+     */
+    public List<ItemStack> getMergedStacks() {
+        List<ItemStack> result = new ArrayList<>(this.mergedStacks.size());
+        for (ItemStack stack : this.mergedStacks.values()) {
+            result.add(stack.copy());
+        }
+        return result;
+    }
+
+    /**
+     * Gets all stacks of the given item, merged into one stack per distinct item and nbt combination.
+     *
+     * @param item the item to look up.
+     * @return copies of the merged stacks, empty if the item is not stored.
+     */
+    public List<ItemStack> getMergedStacks(Item item) {
+        List<ItemStack> result = new ArrayList<>();
+        Set<ItemStackKey> keys = this.keysByItem.get(item);
+        if (keys == null)
+            return result;
+
+        for (ItemStackKey key : keys) {
+            result.add(this.mergedStacks.get(key).copy());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the items that may match the given comparator, narrowing down to a single item or the items of an
+     * ingredient where possible.
+     *
+     * @param comparator the comparator to match against.
+     * @return the candidate items.
+     */
+    protected Collection<Item> getCandidateItems(Predicate<ItemStack> comparator) {
+        if (comparator instanceof ItemStackComparator itemStackComparator)
+            return Collections.singleton(itemStackComparator.getFilterStack().getItem());
+
+        if (comparator instanceof Ingredient ingredient && ingredient.isSimple()) {
+            Set<Item> items = new HashSet<>();
+            for (ItemStack stack : ingredient.getItems())
+                items.add(stack.getItem());
+            return items;
+        }
+
+        return new ArrayList<>(this.slotsByItem.keySet());
+    }
+
+    protected void collectMatchingSlots(Item item, Predicate<ItemStack> comparator, List<Integer> result) {
+        BitSet slots = this.slotsByItem.get(item);
+        if (slots == null)
+            return;
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            if (comparator.test(this.stacks.get(slot)))
+                result.add(slot);
+        }
+    }
+
+    /**
+     * Simulates inserting into the given slot, based on the simulated contents if the slot was touched before.
+     *
+     * @param slot            the slot to insert into.
+     * @param stack           the stack to insert.
+     * @param amount          the amount left to insert.
+     * @param simulatedStacks the simulated slot contents, updated with the result.
+     * @return the amount inserted.
+     */
+    protected int simulateInsert(int slot, ItemStack stack, int amount, Map<Integer, ItemStack> simulatedStacks) {
+        if (slot > this.maxSlots - 1 || !this.isItemValid(slot, stack))
+            return 0;
+
+        ItemStack existing = simulatedStacks.getOrDefault(slot, this.stacks.get(slot));
+        if (!existing.isEmpty() && !ItemHandlerHelper.canItemStacksStack(stack, existing))
+            return 0;
+
+        int toInsert = Math.min(amount, this.getStackLimit(slot, stack) - existing.getCount());
+        if (toInsert <= 0)
+            return 0;
+
+        simulatedStacks.put(slot, ItemHandlerHelper.copyStackWithSize(stack, existing.getCount() + toInsert));
+        return toInsert;
+    }
+
+    protected void ensureIndexCapacity(int size) {
+        if (this.indexedKeys.length < size) {
+            this.indexedKeys = Arrays.copyOf(this.indexedKeys, size);
+            this.indexedCounts = Arrays.copyOf(this.indexedCounts, size);
+        }
+    }
+
+    /**
+     * Updates the index for the given slot and records the affected items in the change log.
+     *
+     * @param slot the slot that changed.
+     */
+    protected void updateIndex(int slot) {
+        this.ensureIndexCapacity(this.stacks.size());
+
+        Item oldItem = this.indexedKeys[slot] != null ? this.indexedKeys[slot].getItem() : null;
+        this.indexSlot(slot);
+        Item newItem = this.indexedKeys[slot] != null ? this.indexedKeys[slot].getItem() : null;
+
+        if (oldItem != null && oldItem != newItem)
+            this.changeLog.recordChange(oldItem);
+        if (newItem != null)
+            this.changeLog.recordChange(newItem);
+    }
+
+    /**
+     * Updates the index for the given slot by diffing against the last indexed state of the slot.
+     *
+     * @param slot the slot to index.
+     */
+    protected void indexSlot(int slot) {
+        ItemStack stack = this.stacks.get(slot);
+        ItemStackKey oldKey = this.indexedKeys[slot];
+        int oldCount = this.indexedCounts[slot];
+        ItemStackKey newKey = stack.isEmpty() ? null : this.getKey(stack, oldKey);
+        int newCount = stack.isEmpty() ? 0 : stack.getCount();
+        Item oldItem = oldKey != null ? oldKey.getItem() : null;
+        Item newItem = newKey != null ? newKey.getItem() : null;
+
+        if (oldKey != null) {
+            this.totalsByItem.computeIfPresent(oldItem, (item, total) -> total - oldCount > 0 ? total - oldCount : null);
+            ItemStack merged = this.mergedStacks.get(oldKey);
+            merged.shrink(oldCount);
+            if (merged.isEmpty() && oldKey != newKey) {
+                this.mergedStacks.remove(oldKey);
+                Set<ItemStackKey> keys = this.keysByItem.get(oldItem);
+                keys.remove(oldKey);
+                if (keys.isEmpty())
+                    this.keysByItem.remove(oldItem);
+            }
+            if (oldItem != newItem) {
+                BitSet slots = this.slotsByItem.get(oldItem);
+                if (slots != null) {
+                    slots.clear(slot);
+                    if (slots.isEmpty())
+                        this.slotsByItem.remove(oldItem);
+                }
+            }
+        }
+
+        if (newKey != null) {
+            this.totalsByItem.merge(newItem, newCount, Integer::sum);
+            this.mergedStacks.computeIfAbsent(newKey, key -> {
+                this.keysByItem.computeIfAbsent(key.getItem(), item -> new HashSet<>()).add(key);
+                return key.toStack(0);
+            }).grow(newCount);
+            this.slotsByItem.computeIfAbsent(newItem, item -> new BitSet()).set(slot);
+            this.occupiedSlots.set(slot);
+        } else {
+            this.occupiedSlots.clear(slot);
+        }
+
+        this.indexedKeys[slot] = newKey;
+        this.indexedCounts[slot] = newCount;
+    }
+
+    /**
+     * Gets the merged stack key for the given stack, reusing existing keys so each distinct key is only created once.
+     *
+     * @param stack   the stack to get the key for.
+     * @param lastKey the key previously indexed for the slot, checked first as slots rarely change item.
+     * @return the key.
+     */
+    protected ItemStackKey getKey(ItemStack stack, @Nullable ItemStackKey lastKey) {
+        if (lastKey != null && lastKey.matches(stack))
+            return lastKey;
+
+        ItemStackKey lookup = ItemStackKey.lookup(stack);
+        ItemStack merged = this.mergedStacks.get(lookup);
+        if (merged != null) {
+            //find the stored key instance, the lookup key shares the tag with the stack
+            for (ItemStackKey key : this.keysByItem.get(stack.getItem())) {
+                if (key.equals(lookup))
+                    return key;
+            }
+        }
+        return ItemStackKey.of(stack);
+    }
+
+    /**
+     * Rebuilds the full index from the current stacks.
+     */
+    public void rebuildIndex() {
+        this.slotsByItem.clear();
+        this.totalsByItem.clear();
+        this.occupiedSlots.clear();
+        this.mergedStacks.clear();
+        this.keysByItem.clear();
+        this.indexedKeys = new ItemStackKey[this.stacks.size()];
+        this.indexedCounts = new int[this.stacks.size()];
+        for (int slot = 0; slot < this.stacks.size(); slot++) {
+            this.indexSlot(slot);
         }
+        //slot indices may have shifted, so viewers need to start over.
+        this.changeLog.reset();
     }
     //endregion Methods
 
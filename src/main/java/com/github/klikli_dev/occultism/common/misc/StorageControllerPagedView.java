@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
+import com.github.klikli_dev.occultism.api.common.data.SortDirection;
+import com.github.klikli_dev.occultism.api.common.data.SortType;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacksPage;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The server side view of a player on a large storage controller. The server filters and sorts the stacks as the
+ * player requests, and only sends the page the player can currently see.
+ */
+public class StorageControllerPagedView {
+
+    //region Fields
+    /**
+     * Upper bound for the stacks sent in one page, regardless of what the client asks for.
+     */
+    public static final int MAX_PAGE_SIZE = 256;
+
+    /**
+     * Translations and tooltips are only available on the client, so the server searches and sorts by registry name
+     * instead.
+     */
+    protected StorageControllerSearchCache searchCache = new StorageControllerSearchCache(
+            stack -> ForgeRegistries.ITEMS.getKey(stack.getItem()).getPath(),
+            stack -> ForgeRegistries.ITEMS.getKey(stack.getItem()).toString());
+
+    protected boolean enabled;
+    protected String searchText = "";
+    protected SortType sortType = SortType.AMOUNT;
+    protected SortDirection sortDirection = SortDirection.DOWN;
+    protected int offset;
+    protected int pageSize;
+    //endregion Fields
+
+    //region Getter / Setter
+
+    /**
+     * @return true if the player receives pages instead of all stacks.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Updates what the player wants to see.
+     *
+     * @param searchText    the search text.
+     * @param sortType      the sort type.
+     * @param sortDirection the sort direction.
+     * @param offset        the index of the first stack of the page in the filtered and sorted stacks.
+     * @param pageSize      the amount of stacks to send.
+     */
+    public void setQuery(String searchText, SortType sortType, SortDirection sortDirection, int offset, int pageSize) {
+        this.searchText = searchText;
+        this.sortType = sortType;
+        this.sortDirection = sortDirection;
+        this.offset = Math.max(0, offset);
+        this.pageSize = Math.max(0, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Creates the page message for the current query.
+     *
+     * @param storageController the storage controller viewed.
+     * @param stacks            the stacks of the storage controller. A new list has to be passed whenever the stacks
+     *                          change, the list may be shared between views.
+     * @return the page message.
+     */
+    public MessageUpdateStacksPage createPage(IStorageController storageController, List<ItemStack> stacks) {
+        List<ItemStack> result = this.searchCache.getResult(stacks, this.searchText, this.sortType,
+                this.sortDirection);
+
+        int offset = Math.min(this.offset, result.size());
+        int end = Math.min(offset + this.pageSize, result.size());
+        return new MessageUpdateStacksPage(storageController.getStacksRevision(),
+                storageController.getUsedSlots(), storageController.getMaxSlots(), result.size(), offset,
+                new ArrayList<>(result.subList(offset, end)));
+    }
+    //endregion Methods
+}
@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import com.github.klikli_dev.occultism.api.common.data.SortDirection;
+import com.github.klikli_dev.occultism.api.common.data.SortType;
+import com.github.klikli_dev.occultism.util.TextUtil;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Caches the search strings of the stacks shown in a storage controller gui or paged view, and the filtered and
+ * sorted result.
+ * The result is only recomputed if the stacks, the search text or the sort settings change.
+ */
+public class StorageControllerSearchCache {
+
+    //region Fields
+    protected final Function<ItemStack, String> nameProvider;
+    protected final Function<ItemStack, String> tooltipProvider;
+
+    protected List<ItemStack> stacks;
+    protected List<Entry> entries = new ArrayList<>();
+
+    protected String searchText = "";
+    protected SortType sortType;
+    protected SortDirection sortDirection;
+
+    /**
+     * The entries matching the search text, in sorted order.
+     */
+    protected List<Entry> filtered;
+    protected List<ItemStack> result;
+    //endregion Fields
+
+    //region Initialization
+
+    /**
+     * @param nameProvider    provides the name of a stack, used for name searches and sorting by name.
+     * @param tooltipProvider provides the lower case tooltip text of a stack, only called for tooltip searches.
+     */
+    public StorageControllerSearchCache(Function<ItemStack, String> nameProvider,
+                                        Function<ItemStack, String> tooltipProvider) {
+        this.nameProvider = nameProvider;
+        this.tooltipProvider = tooltipProvider;
+    }
+    //endregion Initialization
+
+    //region Static Methods
+    protected static boolean isNarrowing(String previousSearchText, String searchText) {
+        if (previousSearchText.isEmpty())
+            return true;
+        //each prefix searches a different text, so only the query after the same prefix can narrow down
+        return getSearchMode(previousSearchText) == getSearchMode(searchText) &&
+                getQuery(searchText).contains(getQuery(previousSearchText));
+    }
+
+    protected static char getSearchMode(String searchText) {
+        char first = searchText.isEmpty() ? ' ' : searchText.charAt(0);
+        return first == '@' || first == '#' || first == '$' ? first : ' ';
+    }
+
+    protected static String getQuery(String searchText) {
+        return getSearchMode(searchText) == ' ' ? searchText : searchText.substring(1);
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Gets the stacks matching the search text in sorted order.
+     *
+     * @param stacks        the stacks in the storage controller. A new list has to be passed whenever the stacks change.
+     * @param searchText    the search text.
+     * @param sortType      the sort type.
+     * @param sortDirection the sort direction.
+     * @return the stacks to display. Must not be modified.
+     */
+    public List<ItemStack> getResult(List<ItemStack> stacks, String searchText, SortType sortType,
+                                     SortDirection sortDirection) {
+        searchText = searchText.toLowerCase();
+
+        if (stacks != this.stacks) {
+            this.updateEntries(stacks);
+            this.filtered = null;
+        }
+
+        boolean resort = this.filtered == null || sortType != this.sortType || sortDirection != this.sortDirection;
+        if (this.filtered == null) {
+            this.filtered = this.filter(this.entries, searchText);
+        } else if (!searchText.equals(this.searchText)) {
+            //while typing the query usually gets longer, so only the previous matches need to be checked.
+            //filtering keeps the order, so the narrowed down result is still sorted.
+            boolean narrowing = isNarrowing(this.searchText, searchText);
+            this.filtered = this.filter(narrowing ? this.filtered : this.entries, searchText);
+            resort |= !narrowing;
+        } else if (!resort && this.result != null) {
+            return this.result;
+        }
+
+        if (resort)
+            this.sort(this.filtered, sortType, sortDirection);
+
+        this.searchText = searchText;
+        this.sortType = sortType;
+        this.sortDirection = sortDirection;
+
+        this.result = new ArrayList<>(this.filtered.size());
+        for (Entry entry : this.filtered) {
+            this.result.add(entry.stack);
+        }
+        return this.result;
+    }
+
+    /**
+     * Builds the entries for the given stacks. Entries of stacks that did not change are reused. Stacks whose count
+     * changed, or that are copies of previous stacks, reuse the search strings of the previous entry.
+     *
+     * @param stacks the new stacks.
+     */
+    protected void updateEntries(List<ItemStack> stacks) {
+        Map<ItemStack, Entry> previous = new IdentityHashMap<>(this.entries.size());
+        Map<ItemStackKey, Entry> previousByKey = new HashMap<>(this.entries.size());
+        for (Entry entry : this.entries) {
+            previous.put(entry.stack, entry);
+            previousByKey.put(ItemStackKey.lookup(entry.stack), entry);
+        }
+
+        this.stacks = stacks;
+        this.entries = new ArrayList<>(stacks.size());
+        for (ItemStack stack : stacks) {
+            Entry entry = previous.get(stack);
+            if (entry == null) {
+                Entry previousEntry = previousByKey.get(ItemStackKey.lookup(stack));
+                entry = previousEntry != null ? new Entry(stack, previousEntry) : new Entry(stack);
+            }
+            this.entries.add(entry);
+        }
+    }
+
+    protected List<Entry> filter(List<Entry> entries, String searchText) {
+        if (searchText.isEmpty())
+            return new ArrayList<>(entries);
+
+        char mode = getSearchMode(searchText);
+        String query = getQuery(searchText);
+        List<Entry> filtered = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.getSearchString(mode).contains(query))
+                filtered.add(entry);
+        }
+        return filtered;
+    }
+
+    protected void sort(List<Entry> entries, SortType sortType, SortDirection sortDirection) {
+        Comparator<Entry> comparator = switch (sortType) {
+            case AMOUNT -> Comparator.comparingInt((Entry entry) -> entry.stack.getCount()).reversed();
+            case NAME -> Comparator.comparing((Entry entry) -> entry.name);
+            case MOD -> Comparator.comparing((Entry entry) -> entry.modName);
+        };
+        entries.sort(sortDirection.isDown() ? comparator.reversed() : comparator);
+    }
+    //endregion Methods
+
+    public class Entry {
+        //region Fields
+        public final ItemStack stack;
+        public final String name;
+        public final String modName;
+        public final String tags;
+        protected String tooltip;
+        //endregion Fields
+
+        //region Initialization
+        public Entry(ItemStack stack) {
+            this.stack = stack;
+            this.name = StorageControllerSearchCache.this.nameProvider.apply(stack).toLowerCase();
+            this.modName = TextUtil.getModNameForGameObject(stack.getItem()).toLowerCase();
+
+            StringBuilder tagStringBuilder = new StringBuilder();
+            stack.getTags().forEach(tag -> tagStringBuilder.append(tag.location()).append(" "));
+            this.tags = tagStringBuilder.toString().toLowerCase();
+        }
+
+        /**
+         * Creates an entry for a stack of the same item and nbt as the previous entry, reusing its search strings.
+         *
+         * @param stack    the stack.
+         * @param previous the previous entry.
+         */
+        public Entry(ItemStack stack, Entry previous) {
+            this.stack = stack;
+            this.name = previous.name;
+            this.modName = previous.modName;
+            this.tags = previous.tags;
+            this.tooltip = previous.tooltip;
+        }
+        //endregion Initialization
+
+        //region Getter / Setter
+
+        /**
+         * @return the tooltip text, built on first use as it is expensive and only needed for tooltip searches.
+         */
+        public String getTooltip() {
+            if (this.tooltip == null)
+                this.tooltip = StorageControllerSearchCache.this.tooltipProvider.apply(this.stack);
+            return this.tooltip;
+        }
+
+        public String getSearchString(char mode) {
+            return switch (mode) {
+                case '@' -> this.modName;
+                case '#' -> this.getTooltip();
+                case '$' -> this.tags;
+                default -> this.name;
+            };
+        }
+        //endregion Getter / Setter
+    }
+}
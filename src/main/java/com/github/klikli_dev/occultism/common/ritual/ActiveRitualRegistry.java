@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.ritual;
+
+import com.github.klikli_dev.occultism.common.blockentity.GoldenSacrificialBowlBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of the golden sacrificial bowls with a running ritual, bucketed by dimension and chunk.
+ * This allows sacrifice and item use events to only notify bowls in nearby chunks, instead of every bowl.
+ * Only used on the logical server.
+ */
+public class ActiveRitualRegistry {
+
+    //region Fields
+    private static final Map<ResourceKey<Level>, Long2ObjectMap<Set<GoldenSacrificialBowlBlockEntity>>> bowlsByDimension =
+            new HashMap<>();
+    //endregion Fields
+
+    //region Static Methods
+
+    /**
+     * Registers a bowl with a running ritual. Registering a bowl multiple times has no effect.
+     *
+     * @param bowl the bowl.
+     */
+    public static void register(GoldenSacrificialBowlBlockEntity bowl) {
+        Level level = bowl.getLevel();
+        if (level == null || level.isClientSide)
+            return;
+
+        bowlsByDimension.computeIfAbsent(level.dimension(), key -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(ChunkPos.asLong(bowl.getBlockPos()), key -> new HashSet<>())
+                .add(bowl);
+    }
+
+    /**
+     * Unregisters a bowl, e.g. because the ritual stopped or the bowl was unloaded.
+     *
+     * @param bowl the bowl.
+     */
+    public static void unregister(GoldenSacrificialBowlBlockEntity bowl) {
+        Level level = bowl.getLevel();
+        if (level == null || level.isClientSide)
+            return;
+
+        Long2ObjectMap<Set<GoldenSacrificialBowlBlockEntity>> bowlsByChunk = bowlsByDimension.get(level.dimension());
+        if (bowlsByChunk == null)
+            return;
+
+        long chunk = ChunkPos.asLong(bowl.getBlockPos());
+        Set<GoldenSacrificialBowlBlockEntity> bowls = bowlsByChunk.get(chunk);
+        if (bowls != null && bowls.remove(bowl) && bowls.isEmpty()) {
+            bowlsByChunk.remove(chunk);
+            if (bowlsByChunk.isEmpty())
+                bowlsByDimension.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Calls the action for every registered bowl within the given range of the given position.
+     *
+     * @param level  the level.
+     * @param pos    the position.
+     * @param range  the range in blocks.
+     * @param action the action to call.
+     */
+    public static void forEachInRange(Level level, BlockPos pos, int range,
+                                      Consumer<GoldenSacrificialBowlBlockEntity> action) {
+        Long2ObjectMap<Set<GoldenSacrificialBowlBlockEntity>> bowlsByChunk = bowlsByDimension.get(level.dimension());
+        if (bowlsByChunk == null)
+            return;
+
+        int rangeSquare = range * range;
+        List<GoldenSacrificialBowlBlockEntity> inRange = new ArrayList<>();
+        for (int x = SectionPos.blockToSectionCoord(pos.getX() - range);
+             x <= SectionPos.blockToSectionCoord(pos.getX() + range); x++) {
+            for (int z = SectionPos.blockToSectionCoord(pos.getZ() - range);
+                 z <= SectionPos.blockToSectionCoord(pos.getZ() + range); z++) {
+                Set<GoldenSacrificialBowlBlockEntity> bowls = bowlsByChunk.get(ChunkPos.asLong(x, z));
+                if (bowls == null)
+                    continue;
+
+                for (GoldenSacrificialBowlBlockEntity bowl : bowls) {
+                    if (!bowl.isRemoved() && bowl.getBlockPos().distSqr(pos) <= rangeSquare)
+                        inRange.add(bowl);
+                }
+            }
+        }
+
+        //collect first, the action may stop the ritual and thereby unregister the bowl
+        inRange.forEach(action);
+    }
+
+    /**
+     * Drops all bowls of the given dimension, called when the level unloads.
+     *
+     * @param dimension the dimension.
+     */
+    public static void clear(ResourceKey<Level> dimension) {
+        bowlsByDimension.remove(dimension);
+    }
+
+    //endregion Static Methods
+}
@@ -62,6 +62,12 @@ public abstract class Ritual {
      */
     public static final int SACRIFICIAL_BOWL_RANGE = 8;
 
+    /**
+     * The range in which block changes can affect the structure of a running ritual.
+     * Must cover {@link #SACRIFICIAL_BOWL_RANGE} and the pentacle, larger pentacles only revalidate periodically.
+     */
+    public static final int STRUCTURE_CHANGE_RANGE = 16;
+
     /**
      * The default range to listen for sacrifices.
      */
@@ -188,6 +194,27 @@ public abstract class Ritual {
                 this.recipe.getPentacle().validate(level, goldenBowlPosition);
     }
 
+    /**
+     * Checks if the running ritual is still valid. Uses the sacrificial bowls and pentacle state cached by the block
+     * entity, instead of scanning the level every tick.
+     *
+     * @param level                          the level.
+     * @param goldenBowlPosition             the position of the golden bowl.
+     * @param blockEntity                    the block entity controlling the ritual.
+     * @param castingPlayer                  the player starting the ritual.
+     * @param activationItem                 the item used to start the ritual.
+     * @param remainingAdditionalIngredients the additional ingredients not yet fulfilled.
+     * @return true if the ritual is still valid.
+     */
+    public boolean isStillValid(Level level, BlockPos goldenBowlPosition, GoldenSacrificialBowlBlockEntity blockEntity,
+                                Player castingPlayer, ItemStack activationItem,
+                                List<Ingredient> remainingAdditionalIngredients) {
+        return this.recipe.getPentacle() != null && this.recipe.getActivationItem().test(activationItem) &&
+                this.matchesAdditionalIngredients(remainingAdditionalIngredients,
+                        this.getItemsOnSacrificialBowls(blockEntity.getSacrificialBowls())) &&
+                blockEntity.isPentacleValid();
+    }
+
     /**
      * Called when starting the ritual.
      *
@@ -296,6 +323,28 @@ public abstract class Ritual {
     public boolean consumeAdditionalIngredients(Level level, BlockPos goldenBowlPosition,
                                                 List<Ingredient> remainingAdditionalIngredients, int time,
                                                 List<ItemStack> consumedIngredients) {
+        return this.consumeAdditionalIngredients(level, goldenBowlPosition,
+                this.getSacrificialBowls(level, goldenBowlPosition), remainingAdditionalIngredients, time,
+                consumedIngredients);
+    }
+
+    /**
+     * Consumes additional ingredients from the given sacrificial bowls depending on the time passed.
+     *
+     * @param level                          the level.
+     * @param goldenBowlPosition             the position of the golden bowl.
+     * @param sacrificialBowls               the sacrificial bowls to consume from.
+     * @param remainingAdditionalIngredients the remaining additional ingredients. Will be modified if something was
+     *                                       consumed!
+     * @param time                           the current ritual time.
+     * @param consumedIngredients            the list of already consumed ingredients, newly consumd ingredients will be
+     *                                       appended
+     * @return true if ingredients were consumed successfully, or none needed to be consumed.
+     */
+    public boolean consumeAdditionalIngredients(Level level, BlockPos goldenBowlPosition,
+                                                List<SacrificialBowlBlockEntity> sacrificialBowls,
+                                                List<Ingredient> remainingAdditionalIngredients, int time,
+                                                List<ItemStack> consumedIngredients) {
         if (remainingAdditionalIngredients.isEmpty())
             return true;
 
@@ -306,7 +355,6 @@ public abstract class Ritual {
         if (ingredientsToConsume == 0)
             return true;
 
-        List<SacrificialBowlBlockEntity> sacrificialBowls = this.getSacrificialBowls(level, goldenBowlPosition);
         int consumed = 0;
         for (Iterator<Ingredient> it = remainingAdditionalIngredients.iterator();
              it.hasNext() && consumed < ingredientsToConsume; consumed++) {
@@ -424,9 +472,18 @@ public abstract class Ritual {
      * @return a list of items on sacrificial bowls in range.
      */
     public List<ItemStack> getItemsOnSacrificialBowls(Level level, BlockPos goldenBowlPosition) {
+        return this.getItemsOnSacrificialBowls(this.getSacrificialBowls(level, goldenBowlPosition));
+    }
+
+    /**
+     * Gets all items on the given sacrificial bowls.
+     *
+     * @param sacrificialBowls the sacrificial bowls.
+     * @return a list of items on the sacrificial bowls.
+     */
+    public List<ItemStack> getItemsOnSacrificialBowls(List<SacrificialBowlBlockEntity> sacrificialBowls) {
         List<ItemStack> result = new ArrayList<>();
 
-        List<SacrificialBowlBlockEntity> sacrificialBowls = this.getSacrificialBowls(level, goldenBowlPosition);
         for (SacrificialBowlBlockEntity sacrificialBowl : sacrificialBowls) {
             sacrificialBowl.itemStackHandler.ifPresent(handler -> {
                 ItemStack stack = handler.getStackInSlot(0);
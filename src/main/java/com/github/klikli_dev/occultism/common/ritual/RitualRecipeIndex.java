@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.ritual;
+
+import com.github.klikli_dev.occultism.crafting.recipe.RitualRecipe;
+import com.github.klikli_dev.occultism.registry.OccultismRecipes;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+
+/**
+ * Indexes the ritual recipes by activation item and pentacle, so activating a golden bowl only tests the recipes
+ * that can actually match.
+ * A datapack reload creates a new recipe manager, the index is rebuilt on first use afterwards.
+ */
+public class RitualRecipeIndex {
+
+    //region Fields
+    private static RecipeManager indexedRecipeManager;
+    private static RitualRecipeIndex instance;
+
+    /**
+     * Position of each recipe in the recipe manager. Candidate lists keep this order, so the first match stays the
+     * same as without the index.
+     */
+    protected final Map<RitualRecipe, Integer> order = new IdentityHashMap<>();
+    protected final Map<Item, List<RitualRecipe>> recipesByActivationItem = new HashMap<>();
+    /**
+     * Recipes with activation items that depend on more than the item, e.g. nbt. They are candidates for every item.
+     */
+    protected final List<RitualRecipe> unindexedRecipes = new ArrayList<>();
+    protected final Map<ResourceLocation, List<RitualRecipe>> recipesByPentacle = new HashMap<>();
+    //endregion Fields
+
+    //region Initialization
+    protected RitualRecipeIndex(List<RitualRecipe> recipes) {
+        for (RitualRecipe recipe : recipes) {
+            this.order.put(recipe, this.order.size());
+            Ingredient activationItem = recipe.getActivationItem();
+            if (activationItem.isSimple()) {
+                for (ItemStack stack : activationItem.getItems()) {
+                    List<RitualRecipe> candidates =
+                            this.recipesByActivationItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+                    //ingredients may list the same item multiple times
+                    if (candidates.isEmpty() || candidates.get(candidates.size() - 1) != recipe)
+                        candidates.add(recipe);
+                }
+            } else {
+                this.unindexedRecipes.add(recipe);
+            }
+
+            this.recipesByPentacle.computeIfAbsent(recipe.getPentacleId(), id -> new ArrayList<>()).add(recipe);
+        }
+    }
+    //endregion Initialization
+
+    //region Static Methods
+    public static RitualRecipeIndex get(Level level) {
+        RecipeManager recipeManager = level.getRecipeManager();
+        if (instance == null || indexedRecipeManager != recipeManager) {
+            instance = new RitualRecipeIndex(recipeManager.getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get()));
+            indexedRecipeManager = recipeManager;
+        }
+        return instance;
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Gets the recipes that can be activated with the given item.
+     *
+     * @param activationItem the activation item.
+     * @return the candidate recipes in recipe manager order.
+     */
+    public List<RitualRecipe> getCandidates(ItemStack activationItem) {
+        List<RitualRecipe> indexed = this.recipesByActivationItem.getOrDefault(activationItem.getItem(),
+                Collections.emptyList());
+        if (this.unindexedRecipes.isEmpty())
+            return indexed;
+
+        List<RitualRecipe> candidates = new ArrayList<>(indexed.size() + this.unindexedRecipes.size());
+        candidates.addAll(indexed);
+        candidates.addAll(this.unindexedRecipes);
+        candidates.sort(Comparator.comparingInt(this.order::get));
+        return candidates;
+    }
+
+    /**
+     * Gets the recipes using the given pentacle.
+     *
+     * @param pentacleId the pentacle id.
+     * @return the recipes in recipe manager order.
+     */
+    public List<RitualRecipe> getRecipesForPentacle(ResourceLocation pentacleId) {
+        return this.recipesByPentacle.getOrDefault(pentacleId, Collections.emptyList());
+    }
+    //endregion Methods
+}
@@ -25,7 +25,6 @@ package com.github.klikli_dev.occultism.common.ritual.pentacle;
 import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.block.ChalkGlyphBlock;
 import com.google.gson.*;
-import com.mojang.datafixers.util.Pair;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
@@ -40,11 +39,11 @@ import net.minecraft.world.level.block.Rotation;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.registries.ForgeRegistries;
 import vazkii.patchouli.api.IMultiblock;
-import vazkii.patchouli.api.IMultiblock.SimulateResult;
 import vazkii.patchouli.api.IStateMatcher;
 import vazkii.patchouli.api.PatchouliAPI;
 import vazkii.patchouli.api.TriPredicate;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -53,6 +52,11 @@ public class Pentacle {
     private final List<String> pattern;
     private final Map<Character, JsonElement> mappings;
     private final IMultiblock matcher;
+    private final int radius;
+    /**
+     * The blocks to check for each rotation, indexed by {@link Rotation#ordinal()}.
+     */
+    private final List<List<FootprintEntry>> footprints;
 
     public Pentacle(ResourceLocation rl, List<String> pattern, Map<Character, JsonElement> mappings) {
         this.rl = rl;
@@ -71,19 +75,26 @@ public class Pentacle {
             }
         }
 
+        this.radius = computeRadius(pattern);
+
         var api = PatchouliAPI.get();
         String[][] multiPattern = new String[1][pattern.size()];
         for (int i = 0; i < pattern.size(); i++)
             multiPattern[0][i] = pattern.get(pattern.size() - 1 - i);
+        Map<Character, IStateMatcher> stateMatchers = new HashMap<>();
         List<Object> multiMappings = new ArrayList<>();
         for (Entry<Character, JsonElement> entry : mappings.entrySet()) {
+            IStateMatcher stateMatcher = parseStateMatcher(entry.getValue());
+            stateMatchers.put(entry.getKey(), stateMatcher);
             multiMappings.add(entry.getKey());
-            multiMappings.add(parseStateMatcher(entry.getValue()));
+            multiMappings.add(stateMatcher);
         }
         // Space == whatever
         multiMappings.add(' ');
         multiMappings.add(api.anyMatcher());
 
+        this.footprints = computeFootprints(pattern, stateMatchers);
+
         ResourceLocation multiRL = new ResourceLocation(rl.getNamespace(), "pentacle." + rl.getPath());
         this.matcher = api.makeMultiblock(multiPattern, multiMappings.toArray());
         this.matcher.setId(multiRL);
@@ -166,6 +177,66 @@ public class Pentacle {
         return OM(PatchouliAPI.get().looseBlockMatcher(block), block);
     }
 
+    /**
+     * Precomputes the offset from the golden bowl and the matcher of every non-empty pattern position, for each
+     * rotation. Mirrors the layout of the patchouli multiblock, which uses the pattern rows in reverse order.
+     */
+    private static List<List<FootprintEntry>> computeFootprints(List<String> pattern,
+                                                                Map<Character, IStateMatcher> stateMatchers) {
+        int centerX = pattern.isEmpty() ? 0 : pattern.get(0).length() / 2;
+        int centerZ = pattern.size() / 2;
+        for (int z = 0; z < pattern.size(); z++) {
+            int x = pattern.get(pattern.size() - 1 - z).indexOf('0');
+            if (x >= 0) {
+                centerX = x;
+                centerZ = z;
+            }
+        }
+
+        List<List<FootprintEntry>> footprints = new ArrayList<>();
+        for (Rotation rotation : Rotation.values()) {
+            List<FootprintEntry> footprint = new ArrayList<>();
+            for (int z = 0; z < pattern.size(); z++) {
+                String row = pattern.get(pattern.size() - 1 - z);
+                for (int x = 0; x < row.length(); x++) {
+                    char c = row.charAt(x);
+                    if (c == ' ')
+                        continue;
+                    BlockPos offset = new BlockPos(x - centerX, 0, z - centerZ).rotate(rotation);
+                    footprint.add(new FootprintEntry(offset, stateMatchers.get(c)));
+                }
+            }
+            footprints.add(footprint);
+        }
+        return footprints;
+    }
+
+    /**
+     * Computes the horizontal distance from the golden bowl ('0') to the farthest block of the pattern.
+     * Without a golden bowl the pattern is centered.
+     */
+    private static int computeRadius(List<String> pattern) {
+        int centerRow = pattern.size() / 2;
+        int centerColumn = pattern.isEmpty() ? 0 : pattern.get(0).length() / 2;
+        for (int row = 0; row < pattern.size(); row++) {
+            int column = pattern.get(row).indexOf('0');
+            if (column >= 0) {
+                centerRow = row;
+                centerColumn = column;
+            }
+        }
+
+        int radius = 0;
+        for (int row = 0; row < pattern.size(); row++) {
+            String line = pattern.get(row);
+            for (int column = 0; column < line.length(); column++) {
+                if (line.charAt(column) != ' ')
+                    radius = Math.max(radius, Math.max(Math.abs(row - centerRow), Math.abs(column - centerColumn)));
+            }
+        }
+        return radius;
+    }
+
     private static OccultismMatcher OM(IStateMatcher matcher) {
         return new OccultismMatcher(matcher);
     }
@@ -174,27 +245,68 @@ public class Pentacle {
         return new OccultismMatcher(matcher, block);
     }
 
+    public ResourceLocation getId() {
+        return this.rl;
+    }
+
     public String getDescriptionId() {
         return Util.makeDescriptionId("pentacle", this.rl);
     }
 
+    /**
+     * @return the horizontal distance from the golden bowl to the farthest block of the pentacle, in any rotation.
+     */
+    public int getRadius() {
+        return this.radius;
+    }
+
     public boolean validate(Level level, BlockPos pos) {
         return this.matcher.validate(level, pos) != null;
     }
 
+    /**
+     * Validates the pentacle in only the given rotation, which is a quarter of the work of {@link #validate(Level, BlockPos)}.
+     */
+    public boolean validate(Level level, BlockPos pos, Rotation rotation) {
+        return this.matcher.validate(level, pos, rotation);
+    }
+
+    /**
+     * @return the rotation the pentacle is valid in, or null if it is not valid.
+     */
+    @Nullable
+    public Rotation getValidRotation(Level level, BlockPos pos) {
+        return this.matcher.validate(level, pos);
+    }
+
     // Return the positions that are wrong
     public Map<BlockPos, Block> getDifference(Level level, BlockPos pos) {
-        Map<BlockPos, Block> minDifference = new HashMap<>();
-        int minDiffSize = Integer.MAX_VALUE;
-
-        Map<BlockPos, Block> difference;
-        for (Rotation rot : Rotation.values()) {
-            difference = new HashMap<>();
-            Pair<BlockPos, Collection<SimulateResult>> sim = this.matcher.simulate(level, pos, rot, false);
+        return this.getDifference(level, pos, Integer.MAX_VALUE);
+    }
 
-            for (SimulateResult result : sim.getSecond()) {
-                if (!result.test(level, rot)) {
-                    difference.put(result.getWorldPosition(), result.getStateMatcher().getDisplayedState(0).getBlock());
+    /**
+     * Gets the positions that are wrong in the rotation with the fewest wrong positions.
+     * Uses the precomputed footprints instead of simulating the multiblock.
+     *
+     * @param level         the level.
+     * @param pos           the golden bowl position.
+     * @param maxDifference rotations with at least this many wrong positions are skipped as soon as that is known.
+     * @return the wrong positions and the expected blocks, or null if all rotations reached maxDifference.
+     */
+    @Nullable
+    public Map<BlockPos, Block> getDifference(Level level, BlockPos pos, int maxDifference) {
+        Map<BlockPos, Block> minDifference = null;
+        int minDiffSize = maxDifference;
+
+        for (List<FootprintEntry> footprint : this.footprints) {
+            Map<BlockPos, Block> difference = new HashMap<>();
+            for (FootprintEntry entry : footprint) {
+                BlockPos worldPos = pos.offset(entry.offset);
+                //pentacle matchers only check block or tag, so the block state does not need to be rotated
+                if (!entry.matcher.getStatePredicate().test(level, worldPos, level.getBlockState(worldPos))) {
+                    difference.put(worldPos, entry.matcher.getDisplayedState(0).getBlock());
+                    if (difference.size() >= minDiffSize)
+                        break;
                 }
             }
 
@@ -231,6 +343,16 @@ public class Pentacle {
         }
     }
 
+    private static class FootprintEntry {
+        private final BlockPos offset;
+        private final IStateMatcher matcher;
+
+        private FootprintEntry(BlockPos offset, IStateMatcher matcher) {
+            this.offset = offset;
+            this.matcher = matcher;
+        }
+    }
+
     // Matcher wrapper to handle the case of cycling through the different glyphs
     private static class OccultismMatcher implements IStateMatcher {
 
@@ -22,10 +22,12 @@
 
 package com.github.klikli_dev.occultism.config;
 
+import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.common.ForgeConfigSpec.BooleanValue;
 import net.minecraftforge.common.ForgeConfigSpec.ConfigValue;
 import net.minecraftforge.common.ForgeConfigSpec.DoubleValue;
+import net.minecraftforge.common.ForgeConfigSpec.IntValue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -83,6 +85,13 @@ public class OccultismServerConfig {
         public final ConfigValue<Integer> blacksmithFamiliarUpgradeCost;
         public final ConfigValue<Integer> blacksmithFamiliarUpgradeCooldown;
         public final ConfigValue<Double> blacksmithFamiliarRepairChance;
+        public final IntValue tier1SpiritInventorySlots;
+        public final IntValue tier2SpiritInventorySlots;
+        public final IntValue tier3SpiritInventorySlots;
+        public final IntValue tier4SpiritInventorySlots;
+        public final ConfigValue<Integer> aiTickBudget;
+        public final ConfigValue<Integer> aiLodRadius;
+        public final ConfigValue<Integer> aiLodInterval;
 
         public SpiritJobSettings(ForgeConfigSpec.Builder builder) {
             builder.comment("Spirit Job Settings").push("spirit_job");
@@ -142,7 +151,36 @@ public class OccultismServerConfig {
                     builder.comment(
                                     "The cooldown for a blacksmith familiar to upgrade another familiar.")
                             .define("blacksmithFamiliarUpgradeCooldown", 20 * 20);
-
+            this.tier1SpiritInventorySlots =
+                    builder.comment(
+                                    "The amount of inventory slots of Tier 1 (Foliot) spirits. Transporter and machine manager spirits " +
+                                            "fill all slots before travelling, other jobs only use the first slot.")
+                            .defineInRange("tier1SpiritInventorySlots", 2, 1, SpiritEntity.MAX_INVENTORY_SLOTS);
+            this.tier2SpiritInventorySlots =
+                    builder.comment(
+                                    "The amount of inventory slots of Tier 2 (Djinni) spirits.")
+                            .defineInRange("tier2SpiritInventorySlots", 4, 1, SpiritEntity.MAX_INVENTORY_SLOTS);
+            this.tier3SpiritInventorySlots =
+                    builder.comment(
+                                    "The amount of inventory slots of Tier 3 (Afrit) spirits.")
+                            .defineInRange("tier3SpiritInventorySlots", 6, 1, SpiritEntity.MAX_INVENTORY_SLOTS);
+            this.tier4SpiritInventorySlots =
+                    builder.comment(
+                                    "The amount of inventory slots of Tier 4 (Marid) spirits.")
+                            .defineInRange("tier4SpiritInventorySlots", 9, 1, SpiritEntity.MAX_INVENTORY_SLOTS);
+            this.aiTickBudget =
+                    builder.comment(
+                                    "The time in microseconds all spirits together may spend on their AI per server tick. " +
+                                            "Spirits that exceed the budget are deferred to the next tick. Set to 0 to disable the budget.")
+                            .define("aiTickBudget", 5000);
+            this.aiLodRadius =
+                    builder.comment(
+                                    "Spirits without a player within this many blocks update their AI less often. Set to 0 to always update at full rate.")
+                            .define("aiLodRadius", 64);
+            this.aiLodInterval =
+                    builder.comment(
+                                    "The interval in ticks at which spirits without a nearby player update their AI.")
+                            .define("aiLodInterval", 4);
 
             builder.pop();
         }
@@ -197,6 +235,7 @@ public class OccultismServerConfig {
         public final BooleanValue enableNightTimeRitual;
         public final BooleanValue enableRemainingIngredientCountMatching;
         public final DoubleValue ritualDurationMultiplier;
+        public final ConfigValue<Integer> structureRevalidationInterval;
 
         public final ConfigValue<List<String>> possibleSpiritNames;
 
@@ -227,6 +266,11 @@ public class OccultismServerConfig {
             this.ritualDurationMultiplier =
                     builder.comment("Set a value below 1.0 to speed up rituals.")
                             .defineInRange("ritualDurationMultiplier", 1.0, 0.05, Double.MAX_VALUE);
+            this.structureRevalidationInterval =
+                    builder.comment("The interval in ticks at which running rituals fully revalidate their pentacle " +
+                                    "and sacrificial bowls. Block changes near a ritual trigger a revalidation " +
+                                    "immediately, this only catches changes that do not cause block updates.")
+                            .define("structureRevalidationInterval", 100);
 
             this.possibleSpiritNames =
                     builder.comment("By default spirit names are generated at random from lists of possible syllables. " +
@@ -245,6 +289,9 @@ public class OccultismServerConfig {
         public final ConfigValue<Integer> controllerBaseSlots;
         public final ConfigValue<Integer> controllerStackSize;
         public final BooleanValue overrideItemStackSizes;
+        public final ConfigValue<Integer> changeLogSize;
+        public final ConfigValue<Integer> viewerUpdateInterval;
+        public final ConfigValue<Integer> pagedViewThreshold;
 
         public StorageSettings(ForgeConfigSpec.Builder builder) {
             builder.comment("Storage Settings").push("storage");
@@ -272,6 +319,23 @@ public class OccultismServerConfig {
                                             "item type (such as 16 for ender pearls, 64 for iron ingot). WARNING: Setting this to " +
                                             "false may have a negative impact on performance.")
                             .define("overrideItemStackSizes", true);
+            this.changeLogSize =
+                    builder.comment(
+                                    "The amount of distinct item changes the storage actuator remembers to send incremental " +
+                                            "updates to open storage screens. If more items change between two updates, the full " +
+                                            "contents are sent instead.")
+                            .define("changeLogSize", 512);
+            this.viewerUpdateInterval =
+                    builder.comment(
+                                    "The minimum amount of ticks between two updates sent to players viewing a storage actuator, " +
+                                            "if its contents changed in the meantime. All changes in between are combined into one update.")
+                            .define("viewerUpdateInterval", 5);
+            this.pagedViewThreshold =
+                    builder.comment(
+                                    "If a storage actuator holds more distinct items than this when a player opens its screen, " +
+                                            "the server searches and sorts the items and only sends the page the player is looking at. " +
+                                            "This keeps network traffic low for very large storages. Set to -1 to always send all items.")
+                            .define("pagedViewThreshold", 4096);
             builder.pop();
         }
     }
@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.crafting.recipe;
+
+import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.misc.ItemStackKey;
+import com.github.klikli_dev.occultism.registry.OccultismRecipes;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.items.wrapper.RecipeWrapper;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches the recipes matching the item in the first slot of a single input recipe type, including the fact that
+ * nothing matches. If any recipe of the type uses an ingredient that depends on more than the item, the item tag is
+ * part of the key.
+ * A datapack reload creates a new recipe manager, the cache is cleared on first use afterwards.
+ * Only use on the server thread.
+ */
+public class ItemRecipeCache<C extends Container, T extends Recipe<C>> {
+
+    //region Fields
+    public static final ItemRecipeCache<ItemStackFakeInventory, SpiritFireRecipe> SPIRIT_FIRE =
+            new ItemRecipeCache<>(OccultismRecipes.SPIRIT_FIRE_TYPE);
+    public static final ItemRecipeCache<ItemStackFakeInventory, CrushingRecipe> CRUSHING =
+            new ItemRecipeCache<>(OccultismRecipes.CRUSHING_TYPE);
+    public static final ItemRecipeCache<RecipeWrapper, MinerRecipe> MINER =
+            new ItemRecipeCache<>(OccultismRecipes.MINER_TYPE);
+
+    /**
+     * Tag sensitive entries are bounded, as e.g. damaged tools produce a new key for every damage value.
+     */
+    protected static final int MAX_TAG_SENSITIVE_ENTRIES = 1024;
+
+    protected final Supplier<RecipeType<T>> recipeType;
+    protected final Map<Item, List<T>> recipesByItem = new HashMap<>();
+    protected final Map<ItemStackKey, List<T>> recipesByStack = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ItemStackKey, List<T>> eldest) {
+            return this.size() > MAX_TAG_SENSITIVE_ENTRIES;
+        }
+    };
+    /**
+     * Items accepted by the simple ingredients of all recipes, known up front without testing any recipe.
+     */
+    protected final Set<Item> inputItems = new HashSet<>();
+    protected RecipeManager cachedRecipeManager;
+    protected boolean tagSensitive;
+    protected long hits;
+    protected long misses;
+    //endregion Fields
+
+    //region Initialization
+    public ItemRecipeCache(Supplier<RecipeType<T>> recipeType) {
+        this.recipeType = recipeType;
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public RecipeType<T> getRecipeType() {
+        return this.recipeType.get();
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Checks if any recipe accepts the stack as input.
+     *
+     * @param level            the level.
+     * @param stack            the input stack.
+     * @param containerFactory creates the container holding the stack, only called on a cache miss.
+     * @return true if at least one recipe matches.
+     */
+    public boolean isInput(Level level, ItemStack stack, Function<ItemStack, C> containerFactory) {
+        if (stack.isEmpty())
+            return false;
+
+        this.validate(level.getRecipeManager());
+        if (this.inputItems.contains(stack.getItem())) {
+            this.hits++;
+            return true;
+        }
+        //only non-simple ingredients can match items we do not know about
+        if (!this.tagSensitive) {
+            this.hits++;
+            return false;
+        }
+        return !this.getRecipesFor(level, stack, containerFactory).isEmpty();
+    }
+
+    /**
+     * Gets the first recipe matching the stack, same as {@link RecipeManager#getRecipeFor(RecipeType, Container, Level)}.
+     *
+     * @param level            the level.
+     * @param stack            the input stack.
+     * @param containerFactory creates the container holding the stack, only called on a cache miss.
+     * @return the matching recipe, or empty if none matches.
+     */
+    public Optional<T> getRecipeFor(Level level, ItemStack stack, Function<ItemStack, C> containerFactory) {
+        List<T> recipes = this.getRecipesFor(level, stack, containerFactory);
+        return recipes.isEmpty() ? Optional.empty() : Optional.of(recipes.get(0));
+    }
+
+    /**
+     * Gets all recipes matching the stack in recipe manager order.
+     *
+     * @param level            the level.
+     * @param stack            the input stack.
+     * @param containerFactory creates the container holding the stack, only called on a cache miss.
+     * @return the matching recipes, an empty list if none matches.
+     */
+    public List<T> getRecipesFor(Level level, ItemStack stack, Function<ItemStack, C> containerFactory) {
+        if (stack.isEmpty())
+            return Collections.emptyList();
+
+        this.validate(level.getRecipeManager());
+
+        List<T> recipes;
+        if (this.tagSensitive) {
+            recipes = this.recipesByStack.get(ItemStackKey.lookup(stack));
+            if (recipes == null) {
+                recipes = this.findRecipes(level, containerFactory.apply(stack));
+                this.recipesByStack.put(ItemStackKey.of(stack), recipes);
+                return recipes;
+            }
+        } else {
+            recipes = this.recipesByItem.get(stack.getItem());
+            if (recipes == null) {
+                recipes = this.findRecipes(level, containerFactory.apply(stack));
+                this.recipesByItem.put(stack.getItem(), recipes);
+                return recipes;
+            }
+        }
+        this.hits++;
+        return recipes;
+    }
+
+    protected List<T> findRecipes(Level level, C container) {
+        this.misses++;
+        List<T> recipes = null;
+        for (T recipe : this.cachedRecipeManager.getAllRecipesFor(this.recipeType.get())) {
+            if (recipe.matches(container, level)) {
+                if (recipes == null)
+                    recipes = new ArrayList<>(1);
+                recipes.add(recipe);
+            }
+        }
+        //the shared empty list is our "no recipe" marker
+        return recipes == null ? Collections.emptyList() : recipes;
+    }
+
+    protected void validate(RecipeManager recipeManager) {
+        if (this.cachedRecipeManager == recipeManager)
+            return;
+
+        if (this.cachedRecipeManager != null) {
+            Occultism.LOGGER.debug("Clearing {} recipe cache after reload, {} hits, {} misses.",
+                    this.recipeType.get(), this.hits, this.misses);
+        }
+
+        this.recipesByItem.clear();
+        this.recipesByStack.clear();
+        this.hits = 0;
+        this.misses = 0;
+        this.cachedRecipeManager = recipeManager;
+        this.inputItems.clear();
+        this.tagSensitive = false;
+        for (T recipe : recipeManager.getAllRecipesFor(this.recipeType.get())) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient.isSimple()) {
+                    for (ItemStack stack : ingredient.getItems())
+                        this.inputItems.add(stack.getItem());
+                } else {
+                    this.tagSensitive = true;
+                }
+            }
+        }
+    }
+    //endregion Methods
+}
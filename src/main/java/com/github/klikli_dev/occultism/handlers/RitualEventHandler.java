@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.handlers;
+
+import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.ritual.ActiveRitualRegistry;
+import com.github.klikli_dev.occultism.common.ritual.Ritual;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+@Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class RitualEventHandler {
+
+    //region Static Methods
+    @SubscribeEvent
+    public static void onLivingDeath(LivingDeathEvent event) {
+        LivingEntity entity = event.getEntityLiving();
+        //only player kills count as sacrifice
+        if (entity.level.isClientSide || !(event.getSource().getEntity() instanceof Player))
+            return;
+
+        ActiveRitualRegistry.forEachInRange(entity.level, entity.blockPosition(), Ritual.SACRIFICE_DETECTION_RANGE,
+                bowl -> bowl.onLivingDeath(event));
+    }
+
+    @SubscribeEvent
+    public static void onPlayerRightClickItem(PlayerInteractEvent.RightClickItem event) {
+        Player player = event.getPlayer();
+        if (player.level.isClientSide)
+            return;
+
+        ActiveRitualRegistry.forEachInRange(player.level, event.getPos(), Ritual.ITEM_USE_DETECTION_RANGE,
+                bowl -> bowl.onPlayerRightClickItem(event));
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        //fired for block changes, lets running rituals revalidate their structure only when needed
+        if (event.getWorld() instanceof Level level && !level.isClientSide)
+            ActiveRitualRegistry.forEachInRange(level, event.getPos(), Ritual.STRUCTURE_CHANGE_RANGE,
+                    bowl -> bowl.onBlockChanged(event.getPos()));
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level && !level.isClientSide)
+            ActiveRitualRegistry.clear(level.dimension());
+    }
+    //endregion Static Methods
+}
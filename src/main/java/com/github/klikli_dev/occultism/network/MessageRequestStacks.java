@@ -23,8 +23,12 @@
 package com.github.klikli_dev.occultism.network;
 
 
+import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
+import com.github.klikli_dev.occultism.api.common.data.SortDirection;
+import com.github.klikli_dev.occultism.api.common.data.SortType;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
@@ -32,14 +36,30 @@ import net.minecraftforge.network.NetworkEvent;
 
 public class MessageRequestStacks extends MessageBase {
 
-    //region Initialization
-    public MessageRequestStacks() {
-
-    }
+    //region Fields
+    /**
+     * The query for the first page, used if the server only sends pages.
+     */
+    public String searchText;
+    public SortType sortType;
+    public SortDirection sortDirection;
+    public int offset;
+    public int pageSize;
+    //endregion Fields
 
+    //region Initialization
     public MessageRequestStacks(FriendlyByteBuf buf) {
         this.decode(buf);
     }
+
+    public MessageRequestStacks(String searchText, SortType sortType, SortDirection sortDirection, int offset,
+                                int pageSize) {
+        this.searchText = searchText;
+        this.sortType = sortType;
+        this.sortDirection = sortDirection;
+        this.offset = offset;
+        this.pageSize = pageSize;
+    }
     //endregion Initialization
 
 
@@ -52,7 +72,18 @@ public class MessageRequestStacks extends MessageBase {
             IStorageController storageController = ((IStorageControllerContainer) player.containerMenu)
                     .getStorageController();
             if (storageController != null) {
-                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+                //the client asked for the stacks, so we start over with a full update.
+                IStorageControllerContainer container = (IStorageControllerContainer) player.containerMenu;
+                //large storage controllers only send the page the player is looking at
+                int pagedViewThreshold = Occultism.SERVER_CONFIG.storage.pagedViewThreshold.get();
+                container.getPagedView().setEnabled(pagedViewThreshold >= 0 &&
+                        storageController.getDistinctStackCount() > pagedViewThreshold);
+                container.getPagedView().setQuery(this.searchText, this.sortType, this.sortDirection, this.offset,
+                        this.pageSize);
+                container.setSyncedRevision(-1);
+                StorageUtil.sendStackUpdate(player, container);
+                //from now on the controller pushes changes to this player.
+                storageController.addViewer(player);
                 OccultismPackets
                         .sendTo(player, new MessageUpdateLinkedMachines(storageController.getLinkedMachines()));
                 player.containerMenu.broadcastChanges();
@@ -62,12 +93,20 @@ public class MessageRequestStacks extends MessageBase {
 
     @Override
     public void encode(FriendlyByteBuf buf) {
-
+        buf.writeUtf(this.searchText);
+        buf.writeEnum(this.sortType);
+        buf.writeEnum(this.sortDirection);
+        buf.writeVarInt(this.offset);
+        buf.writeVarInt(this.pageSize);
     }
 
     @Override
     public void decode(FriendlyByteBuf buf) {
-
+        this.searchText = buf.readUtf(255);
+        this.sortType = buf.readEnum(SortType.class);
+        this.sortDirection = buf.readEnum(SortDirection.class);
+        this.offset = buf.readVarInt();
+        this.pageSize = buf.readVarInt();
     }
     //endregion Overrides
 }
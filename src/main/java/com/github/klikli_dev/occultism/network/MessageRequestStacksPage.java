@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.network;
+
+import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
+import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
+import com.github.klikli_dev.occultism.api.common.data.SortDirection;
+import com.github.klikli_dev.occultism.api.common.data.SortType;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerPagedView;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+/**
+ * Sent by a storage controller gui in paged mode whenever the search, sort or visible page changes.
+ */
+public class MessageRequestStacksPage extends MessageBase {
+
+    //region Fields
+    public String searchText;
+    public SortType sortType;
+    public SortDirection sortDirection;
+    public int offset;
+    public int pageSize;
+    //endregion Fields
+
+    //region Initialization
+    public MessageRequestStacksPage(FriendlyByteBuf buf) {
+        this.decode(buf);
+    }
+
+    public MessageRequestStacksPage(String searchText, SortType sortType, SortDirection sortDirection, int offset,
+                                    int pageSize) {
+        this.searchText = searchText;
+        this.sortType = sortType;
+        this.sortDirection = sortDirection;
+        this.offset = offset;
+        this.pageSize = pageSize;
+    }
+    //endregion Initialization
+
+    //region Overrides
+
+    @Override
+    public void onServerReceived(MinecraftServer minecraftServer, ServerPlayer player,
+                                 NetworkEvent.Context context) {
+        if (player.containerMenu instanceof IStorageControllerContainer container) {
+            IStorageController storageController = container.getStorageController();
+            StorageControllerPagedView pagedView = container.getPagedView();
+            pagedView.setQuery(this.searchText, this.sortType, this.sortDirection, this.offset, this.pageSize);
+            if (storageController != null && pagedView.isEnabled()) {
+                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacksPage(pagedView));
+                container.setSyncedRevision(storageController.getStacksRevision());
+            }
+        }
+    }
+
+    @Override
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeUtf(this.searchText);
+        buf.writeEnum(this.sortType);
+        buf.writeEnum(this.sortDirection);
+        buf.writeVarInt(this.offset);
+        buf.writeVarInt(this.pageSize);
+    }
+
+    @Override
+    public void decode(FriendlyByteBuf buf) {
+        this.searchText = buf.readUtf(255);
+        this.sortType = buf.readEnum(SortType.class);
+        this.sortDirection = buf.readEnum(SortDirection.class);
+        this.offset = buf.readVarInt();
+        this.pageSize = buf.readVarInt();
+    }
+    //endregion Overrides
+}
@@ -122,7 +122,7 @@ public class MessageSetRecipe extends MessageBase {
         //sync to client
         container.updateCraftingSlots(true);
         //finally update controller content for client
-        OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+        StorageUtil.sendStackUpdate(player, container);
     }
 
     @Override
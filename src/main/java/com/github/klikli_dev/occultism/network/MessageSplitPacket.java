@@ -22,16 +22,18 @@
 
 package com.github.klikli_dev.occultism.network;
 
+import io.netty.buffer.ByteBuf;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.network.NetworkEvent.Context;
 
 import java.util.function.Supplier;
 
 public class MessageSplitPacket {
     /**
-     * The payload.
+     * The payload. A slice of the split message on the sending side, and of the received packet on the receiving side.
      */
-    private final byte[] payload;
+    private final ByteBuf payload;
     /**
      * Internal communication id. Used to indicate to what wrapped message this belongs to.
      */
@@ -41,7 +43,7 @@ public class MessageSplitPacket {
      */
     private final int packetIndex;
 
-    public MessageSplitPacket(final int communicationId, final int packetIndex, final byte[] payload) {
+    public MessageSplitPacket(final int communicationId, final int packetIndex, final ByteBuf payload) {
         this.communicationId = communicationId;
         this.packetIndex = packetIndex;
         this.payload = payload;
@@ -50,15 +52,20 @@ public class MessageSplitPacket {
     public static void encode(MessageSplitPacket message, FriendlyByteBuf buf) {
         buf.writeVarInt(message.communicationId);
         buf.writeVarInt(message.packetIndex);
-        buf.writeByteArray(message.payload);
+        buf.writeVarInt(message.payload.readableBytes());
+        buf.writeBytes(message.payload, message.payload.readerIndex(), message.payload.readableBytes());
     }
 
     public static MessageSplitPacket decode(final FriendlyByteBuf buf) {
-        return new MessageSplitPacket(buf.readVarInt(), buf.readVarInt(), buf.readByteArray());
+        int communicationId = buf.readVarInt();
+        int packetIndex = buf.readVarInt();
+        return new MessageSplitPacket(communicationId, packetIndex, buf.readRetainedSlice(buf.readVarInt()));
     }
 
     public static boolean handle(MessageSplitPacket data, Supplier<Context> ctx) {
-        OccultismPackets.addPackagePart(data.communicationId, data.packetIndex, data.payload);
+        ServerPlayer sender = ctx.get().getSender();
+        OccultismPackets.addPackagePart(data.communicationId, data.packetIndex, data.payload,
+                sender != null ? sender.getUUID() : null);
         ctx.get().setPacketHandled(true);
         return true;
     }
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.network;
+
+import com.github.klikli_dev.occultism.common.blockentity.NetworkedBlockEntity;
+import io.netty.buffer.Unpooled;
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Registry;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.network.NetworkEvent;
+
+/**
+ * Sends the changed synced fields of a networked block entity to the clients tracking it.
+ */
+public class MessageSyncBlockEntityFields extends MessageBase {
+
+    //region Fields
+    private ResourceKey<Level> dimension;
+    private BlockPos pos;
+    private long mask;
+    private byte[] data;
+    //endregion Fields
+
+    //region Initialization
+
+    public MessageSyncBlockEntityFields(FriendlyByteBuf buf) {
+        this.decode(buf);
+    }
+
+    public MessageSyncBlockEntityFields(ResourceKey<Level> dimension, BlockPos pos, long mask, byte[] data) {
+        this.dimension = dimension;
+        this.pos = pos;
+        this.mask = mask;
+        this.data = data;
+    }
+    //endregion Initialization
+
+    //region Overrides
+
+    @Override
+    @OnlyIn(Dist.CLIENT)
+    public void onClientReceived(Minecraft minecraft, Player player, NetworkEvent.Context context) {
+        if (minecraft.level != null && minecraft.level.dimension().equals(this.dimension) &&
+                minecraft.level.getBlockEntity(this.pos) instanceof NetworkedBlockEntity blockEntity) {
+            blockEntity.readSyncedFields(this.mask, new FriendlyByteBuf(Unpooled.wrappedBuffer(this.data)));
+        }
+    }
+
+    @Override
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeResourceLocation(this.dimension.location());
+        buf.writeBlockPos(this.pos);
+        buf.writeVarLong(this.mask);
+        buf.writeByteArray(this.data);
+    }
+
+    @Override
+    public void decode(FriendlyByteBuf buf) {
+        this.dimension = ResourceKey.create(Registry.DIMENSION_REGISTRY, buf.readResourceLocation());
+        this.pos = buf.readBlockPos();
+        this.mask = buf.readVarLong();
+        this.data = buf.readByteArray();
+    }
+
+    //endregion Overrides
+}
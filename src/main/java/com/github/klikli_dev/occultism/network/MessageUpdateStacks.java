@@ -22,6 +22,7 @@
 
 package com.github.klikli_dev.occultism.network;
 
+import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.api.client.gui.IStorageControllerGui;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -35,20 +36,49 @@ import net.minecraftforge.network.NetworkEvent;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
 /**
  * This message sends the stacks in the currently opened storage controller.
+ * The payload is immutable once compressed, so one message can be sent to any number of players.
  */
 public class MessageUpdateStacks extends MessageBase {
 
     //region Fields
-    private static final int DEFAULT_BUFFER_SIZE = 2 * 1024;
+    /**
+     * Initial uncompressed buffer size per stack, the buffer grows as needed.
+     */
+    private static final int ESTIMATED_BYTES_PER_STACK = 32;
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * Compressing large storage controllers is moved off the server thread. If all workers are busy the caller
+     * compresses itself, so the queue stays bounded.
+     */
+    private static final ExecutorService ENCODER = new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(16), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Occultism Stack Encoder " + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
 
     private List<ItemStack> stacks;
     private int usedSlots;
     private int maxSlots;
+    private long revision;
     private ByteBuf payload;
 
     //endregion Fields
@@ -58,24 +88,103 @@ public class MessageUpdateStacks extends MessageBase {
         this.decode(buf);
     }
 
-    public MessageUpdateStacks(List<ItemStack> stacks, int usedSlots, int maxSlots) {
-        this.stacks = stacks;
+    public MessageUpdateStacks(List<ItemStack> stacks, int usedSlots, int maxSlots, long revision) {
+        this(usedSlots, maxSlots, revision, compress(serialize(stacks)));
+    }
+
+    protected MessageUpdateStacks(int usedSlots, int maxSlots, long revision, ByteBuf payload) {
         this.usedSlots = usedSlots;
         this.maxSlots = maxSlots;
-        this.compress();
+        this.revision = revision;
+        this.payload = payload;
     }
     //endregion Initialization
 
+    //region Getter / Setter
+    public long getRevision() {
+        return this.revision;
+    }
+    //endregion Getter / Setter
+
+    //region Static Methods
+
+    /**
+     * Creates the message, compressing it on the encoder pool. The stacks are serialized on the calling thread, as
+     * writing items reads their share tags.
+     *
+     * @param stacks    the stacks to send.
+     * @param usedSlots the used slots of the storage controller.
+     * @param maxSlots  the max slots of the storage controller.
+     * @param revision  the storage controller revision the stacks belong to.
+     * @return the future message.
+     */
+    public static CompletableFuture<MessageUpdateStacks> createAsync(List<ItemStack> stacks, int usedSlots,
+                                                                     int maxSlots, long revision) {
+        FriendlyByteBuf uncompressed = serialize(stacks);
+        return CompletableFuture.supplyAsync(
+                () -> new MessageUpdateStacks(usedSlots, maxSlots, revision, compress(uncompressed)), ENCODER);
+    }
+
+    /**
+     * Writes the stacks into an uncompressed buffer.
+     *
+     * @param stacks the stacks.
+     * @return the buffer.
+     */
+    protected static FriendlyByteBuf serialize(List<ItemStack> stacks) {
+        //create buffer with a small estimate per stack (will increase automatically as needed)
+        FriendlyByteBuf uncompressed = new FriendlyByteBuf(
+                Unpooled.buffer(ESTIMATED_BYTES_PER_STACK * Math.max(1, stacks.size())));
+        uncompressed.writeInt(stacks.size());
+
+        for (ItemStack stack : stacks) {
+            uncompressed.writeItem(stack);
+            uncompressed.writeInt(stack.getCount());
+        }
+        return uncompressed;
+    }
+
+    /**
+     * Compresses the given serialized stacks.
+     *
+     * @param uncompressed the serialized stacks.
+     * @return the compressed payload.
+     */
+    protected static ByteBuf compress(FriendlyByteBuf uncompressed) {
+        Deflater compressor = DEFLATER.get();
+        try {
+            compressor.setInput(uncompressed.array(), uncompressed.arrayOffset() + uncompressed.readerIndex(),
+                    uncompressed.readableBytes());
+            compressor.finish();
+
+            ByteBuf payload = Unpooled.buffer(Math.max(CHUNK_SIZE, uncompressed.readableBytes() / 4));
+            // Compress the data
+            byte[] buf = CHUNK.get();
+            while (!compressor.finished()) {
+                int count = compressor.deflate(buf);
+                payload.writeBytes(buf, 0, count);
+            }
+            return payload;
+        } finally {
+            //the compressor is reused by the next message on this thread
+            compressor.reset();
+        }
+    }
+    //endregion Static Methods
+
     //region Overrides
 
     @Override
     @OnlyIn(Dist.CLIENT)
     public void onClientReceived(Minecraft minecraft, Player player, NetworkEvent.Context context) {
-        this.uncompress();
+        if (!this.uncompress())
+            return;
+
         if (minecraft.screen instanceof IStorageControllerGui) {
             IStorageControllerGui gui = (IStorageControllerGui) minecraft.screen;
             if (gui != null) {
                 gui.setStacks(this.stacks);
+                gui.setStacksRevision(this.revision);
                 gui.setUsedSlots(this.usedSlots);
                 gui.setMaxSlots(this.maxSlots);
                 gui.markDirty();
@@ -87,74 +196,64 @@ public class MessageUpdateStacks extends MessageBase {
     public void encode(FriendlyByteBuf buf) {
         buf.writeVarInt(this.usedSlots);
         buf.writeVarInt(this.maxSlots);
+        buf.writeVarLong(this.revision);
 
         //write compressed size, then compressed data
+        //absolute indices leave the shared payload untouched
         buf.writeVarInt(this.payload.readableBytes());
-        buf.writeBytes(this.payload, 0, this.payload.readableBytes());
+        buf.writeBytes(this.payload, this.payload.readerIndex(), this.payload.readableBytes());
     }
 
     @Override
     public void decode(FriendlyByteBuf buf) {
         this.usedSlots = buf.readVarInt();
         this.maxSlots = buf.readVarInt();
+        this.revision = buf.readVarLong();
         //read compressed size, then compressed data.
         int compressedSize = buf.readVarInt();
         this.payload = Unpooled.buffer(compressedSize);
-        buf.readBytes(this.payload, 0, compressedSize);
+        buf.readBytes(this.payload, compressedSize);
     }
     //endregion Overrides
 
     //region Methods
-    public void uncompress() {
-        Inflater decompressor = new Inflater();
-        decompressor.setInput(this.payload.array());
 
-        // Create an expandable packet buffer to hold the decompressed data
-        FriendlyByteBuf uncompressed = new FriendlyByteBuf(Unpooled.buffer(this.payload.readableBytes() * 4));
+    /**
+     * Decompresses the payload into the stacks.
+     *
+     * @return true if successful.
+     */
+    public boolean uncompress() {
+        Inflater decompressor = INFLATER.get();
+        try {
+            decompressor.setInput(this.payload.array(), this.payload.arrayOffset() + this.payload.readerIndex(),
+                    this.payload.readableBytes());
+
+            // Create an expandable packet buffer to hold the decompressed data
+            FriendlyByteBuf uncompressed = new FriendlyByteBuf(Unpooled.buffer(this.payload.readableBytes() * 4));
 
-        // Decompress the data
-        byte[] buf = new byte[1024];
-        while (!decompressor.finished()) {
-            try {
+            // Decompress the data
+            byte[] buf = CHUNK.get();
+            while (!decompressor.finished()) {
                 int count = decompressor.inflate(buf);
+                if (count == 0 && (decompressor.needsInput() || decompressor.needsDictionary()))
+                    throw new DataFormatException("Stack update payload is truncated.");
                 uncompressed.writeBytes(buf, 0, count);
-            } catch (Exception e) {
             }
-        }
-
-        int stacksSize = uncompressed.readInt();
-        this.stacks = new ArrayList<>(stacksSize);
-        for (int i = 0; i < stacksSize; i++) {
-            ItemStack stack = uncompressed.readItem();
-            stack.setCount(uncompressed.readInt());
-            this.stacks.add(stack);
-        }
-    }
 
-    public void compress() {
-        Deflater compressor = new Deflater();
-        compressor.setLevel(Deflater.BEST_SPEED);
-
-        // Give the compressor the data to compress
-        //create buffer with reasonable size (will increase automatically as needed
-        FriendlyByteBuf uncompressed = new FriendlyByteBuf(Unpooled.buffer(DEFAULT_BUFFER_SIZE * this.stacks.size()));
-        uncompressed.writeInt(this.stacks.size());
-
-        for (ItemStack stack : this.stacks) {
-            uncompressed.writeItem(stack);
-            uncompressed.writeInt(stack.getCount());
-        }
-
-        compressor.setInput(uncompressed.array(), 0, uncompressed.readableBytes());
-        compressor.finish();
-
-
-        this.payload = Unpooled.buffer(DEFAULT_BUFFER_SIZE);
-        // Compress the data
-        byte[] buf = new byte[1024];
-        while (!compressor.finished()) {
-            int count = compressor.deflate(buf);
-            this.payload.writeBytes(buf, 0, count);
+            int stacksSize = uncompressed.readInt();
+            this.stacks = new ArrayList<>(stacksSize);
+            for (int i = 0; i < stacksSize; i++) {
+                ItemStack stack = uncompressed.readItem();
+                stack.setCount(uncompressed.readInt());
+                this.stacks.add(stack);
+            }
+            return true;
+        } catch (DataFormatException e) {
+            Occultism.LOGGER.error("Failed to decompress storage controller stacks.", e);
+            return false;
+        } finally {
+            decompressor.reset();
         }
     }
     //endregion Methods
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.network;
+
+import com.github.klikli_dev.occultism.api.client.gui.IStorageControllerGui;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This message sends the stacks that changed in the currently opened storage controller since the revision the
+ * client last received. If the client is not at that revision, it requests the full stacks instead.
+ */
+public class MessageUpdateStacksDelta extends MessageBase {
+
+    //region Fields
+    private long baseRevision;
+    private long revision;
+    /**
+     * The changed items, mapped to all their stacks currently in the storage controller. An empty list means the item
+     * was removed entirely.
+     */
+    private Map<Item, List<ItemStack>> changes;
+    private int usedSlots;
+    private int maxSlots;
+    //endregion Fields
+
+    //region Initialization
+    public MessageUpdateStacksDelta(FriendlyByteBuf buf) {
+        this.decode(buf);
+    }
+
+    public MessageUpdateStacksDelta(long baseRevision, long revision, Map<Item, List<ItemStack>> changes,
+                                    int usedSlots, int maxSlots) {
+        this.baseRevision = baseRevision;
+        this.revision = revision;
+        this.changes = changes;
+        this.usedSlots = usedSlots;
+        this.maxSlots = maxSlots;
+    }
+    //endregion Initialization
+
+    //region Overrides
+
+    @Override
+    @OnlyIn(Dist.CLIENT)
+    public void onClientReceived(Minecraft minecraft, Player player, NetworkEvent.Context context) {
+        if (minecraft.screen instanceof IStorageControllerGui gui) {
+            if (gui.getStacksRevision() != this.baseRevision) {
+                //we missed an update, so we cannot apply this delta.
+                gui.requestStacks();
+                return;
+            }
+
+            List<ItemStack> stacks = new ArrayList<>(gui.getStacks().size() + this.changes.size());
+            for (ItemStack stack : gui.getStacks()) {
+                if (!this.changes.containsKey(stack.getItem()))
+                    stacks.add(stack);
+            }
+            for (List<ItemStack> changedStacks : this.changes.values()) {
+                stacks.addAll(changedStacks);
+            }
+
+            gui.setStacks(stacks);
+            gui.setStacksRevision(this.revision);
+            gui.setUsedSlots(this.usedSlots);
+            gui.setMaxSlots(this.maxSlots);
+            gui.markDirty();
+        }
+    }
+
+    @Override
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeVarLong(this.baseRevision);
+        buf.writeVarLong(this.revision);
+        buf.writeVarInt(this.usedSlots);
+        buf.writeVarInt(this.maxSlots);
+
+        buf.writeVarInt(this.changes.size());
+        for (Map.Entry<Item, List<ItemStack>> entry : this.changes.entrySet()) {
+            buf.writeResourceLocation(ForgeRegistries.ITEMS.getKey(entry.getKey()));
+            buf.writeVarInt(entry.getValue().size());
+            for (ItemStack stack : entry.getValue()) {
+                //stack sizes exceed what writeItem supports, so we write the count separately
+                buf.writeItem(stack);
+                buf.writeVarInt(stack.getCount());
+            }
+        }
+    }
+
+    @Override
+    public void decode(FriendlyByteBuf buf) {
+        this.baseRevision = buf.readVarLong();
+        this.revision = buf.readVarLong();
+        this.usedSlots = buf.readVarInt();
+        this.maxSlots = buf.readVarInt();
+
+        int changesSize = buf.readVarInt();
+        this.changes = new HashMap<>(changesSize);
+        for (int i = 0; i < changesSize; i++) {
+            Item item = ForgeRegistries.ITEMS.getValue(buf.readResourceLocation());
+            int stacksSize = buf.readVarInt();
+            List<ItemStack> stacks = new ArrayList<>(stacksSize);
+            for (int j = 0; j < stacksSize; j++) {
+                ItemStack stack = buf.readItem();
+                stack.setCount(buf.readVarInt());
+                stacks.add(stack);
+            }
+            this.changes.put(item, stacks);
+        }
+    }
+    //endregion Overrides
+}
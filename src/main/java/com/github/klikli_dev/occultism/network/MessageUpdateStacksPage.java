@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.network;
+
+import com.github.klikli_dev.occultism.api.client.gui.IStorageControllerGui;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This message sends one page of the filtered and sorted stacks in the currently opened storage controller, used
+ * instead of {@link MessageUpdateStacks} for large storage controllers.
+ */
+public class MessageUpdateStacksPage extends MessageBase {
+
+    //region Fields
+    private long revision;
+    private int usedSlots;
+    private int maxSlots;
+    /**
+     * The amount of stacks matching the search, across all pages.
+     */
+    private int totalStacks;
+    /**
+     * The index of the first stack of this page in all matching stacks.
+     */
+    private int offset;
+    private List<ItemStack> stacks;
+    //endregion Fields
+
+    //region Initialization
+    public MessageUpdateStacksPage(FriendlyByteBuf buf) {
+        this.decode(buf);
+    }
+
+    public MessageUpdateStacksPage(long revision, int usedSlots, int maxSlots, int totalStacks, int offset,
+                                   List<ItemStack> stacks) {
+        this.revision = revision;
+        this.usedSlots = usedSlots;
+        this.maxSlots = maxSlots;
+        this.totalStacks = totalStacks;
+        this.offset = offset;
+        this.stacks = stacks;
+    }
+    //endregion Initialization
+
+    //region Overrides
+
+    @Override
+    @OnlyIn(Dist.CLIENT)
+    public void onClientReceived(Minecraft minecraft, Player player, NetworkEvent.Context context) {
+        if (minecraft.screen instanceof IStorageControllerGui gui) {
+            gui.setStacksPage(this.offset, this.totalStacks, this.stacks);
+            gui.setStacksRevision(this.revision);
+            gui.setUsedSlots(this.usedSlots);
+            gui.setMaxSlots(this.maxSlots);
+            gui.markDirty();
+        }
+    }
+
+    @Override
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeVarLong(this.revision);
+        buf.writeVarInt(this.usedSlots);
+        buf.writeVarInt(this.maxSlots);
+        buf.writeVarInt(this.totalStacks);
+        buf.writeVarInt(this.offset);
+
+        buf.writeVarInt(this.stacks.size());
+        for (ItemStack stack : this.stacks) {
+            //stack sizes exceed what writeItem supports, so we write the count separately
+            buf.writeItem(stack);
+            buf.writeVarInt(stack.getCount());
+        }
+    }
+
+    @Override
+    public void decode(FriendlyByteBuf buf) {
+        this.revision = buf.readVarLong();
+        this.usedSlots = buf.readVarInt();
+        this.maxSlots = buf.readVarInt();
+        this.totalStacks = buf.readVarInt();
+        this.offset = buf.readVarInt();
+
+        int stacksSize = buf.readVarInt();
+        this.stacks = new ArrayList<>(stacksSize);
+        for (int i = 0; i < stacksSize; i++) {
+            ItemStack stack = buf.readItem();
+            stack.setCount(buf.readVarInt());
+            this.stacks.add(stack);
+        }
+    }
+    //endregion Overrides
+}
@@ -72,14 +72,12 @@ public class MessageUpdateStorageSettings extends MessageBase {
             if (storageContainer instanceof StorageControllerContainer storageControllerContainer) {
                 storageControllerContainer.getStorageController().setSortDirection(this.sortDirection);
                 storageControllerContainer.getStorageController().setSortType(this.sortType);
-                storageControllerContainer.getStorageController().markNetworkDirty();
             }
 
             //handle stable wormhole
             if (storageContainer instanceof StableWormholeContainer stableWormholeContainer) {
                 stableWormholeContainer.getStableWormhole().setSortDirection(this.sortDirection);
                 stableWormholeContainer.getStableWormhole().setSortType(this.sortType);
-                stableWormholeContainer.getStableWormhole().markNetworkDirty();
             }
         }
     }
@@ -23,18 +23,24 @@
 package com.github.klikli_dev.occultism.network;
 
 import com.github.klikli_dev.occultism.Occultism;
+import io.netty.buffer.ByteBuf;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraftforge.common.util.FakePlayer;
 import net.minecraftforge.network.NetworkRegistry;
 import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.simple.SimpleChannel;
 
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.UUID;
+
 public class OccultismPackets {
-    public static final String PROTOCOL_VERSION = "1";
+    public static final String PROTOCOL_VERSION = "2";
     public static final ResourceLocation CHANNEL = new ResourceLocation(Occultism.MODID, "main");
     public static final SimpleChannel INSTANCE = NetworkRegistry.newSimpleChannel(
             CHANNEL,
@@ -225,12 +231,40 @@ public class OccultismPackets {
                 MessageUpdateStorageSettings::encode,
                 MessageUpdateStorageSettings::new,
                 OccultismPacketHandler::handle);
+
+        INSTANCE.registerMessage(nextID(),
+                MessageSyncBlockEntityFields.class,
+                MessageSyncBlockEntityFields::encode,
+                MessageSyncBlockEntityFields::new,
+                OccultismPacketHandler::handle);
+
+        SPLITTER.registerMessage(nextID(),
+                MessageUpdateStacksDelta.class,
+                MessageUpdateStacksDelta::encode,
+                MessageUpdateStacksDelta::new,
+                OccultismPacketHandler::handle);
+
+        INSTANCE.registerMessage(nextID(),
+                MessageUpdateStacksPage.class,
+                MessageUpdateStacksPage::encode,
+                MessageUpdateStacksPage::new,
+                OccultismPacketHandler::handle);
+
+        INSTANCE.registerMessage(nextID(),
+                MessageRequestStacksPage.class,
+                MessageRequestStacksPage::encode,
+                MessageRequestStacksPage::new,
+                OccultismPacketHandler::handle);
     }
 
     public static <MSG> void sendToTracking(Entity entity, MSG message) {
         INSTANCE.send(PacketDistributor.TRACKING_ENTITY.with(() -> entity), message);
     }
 
+    public static <MSG> void sendToTracking(LevelChunk chunk, MSG message) {
+        INSTANCE.send(PacketDistributor.TRACKING_CHUNK.with(() -> chunk), message);
+    }
+
     public static <MSG> void sendToDimension(ResourceKey<Level> dimensionKey, MSG message) {
         INSTANCE.send(PacketDistributor.DIMENSION.with(() -> dimensionKey), message);
     }
@@ -253,7 +287,23 @@ public class OccultismPackets {
         }
     }
 
-    public static void addPackagePart(int communicationId, int packetIndex, byte[] payload) {
-        SPLITTER.addPackagePart(communicationId, packetIndex, payload);
+    /**
+     * Sends the message to all given players. The message is only encoded once for all of them.
+     */
+    public static <MSG> void sendTo(List<ServerPlayer> players, MSG message) {
+        List<ServerPlayer> targets = players.stream().filter(player -> !(player instanceof FakePlayer)).toList();
+        if (targets.isEmpty())
+            return;
+
+        if (SPLITTER.shouldMessageBeSplit(message.getClass())) {
+            SPLITTER.sendToPlayers(targets, message);
+        } else {
+            INSTANCE.send(PacketDistributor.NMLIST.with(
+                    () -> targets.stream().map(player -> player.connection.connection).toList()), message);
+        }
+    }
+
+    public static void addPackagePart(int communicationId, int packetIndex, ByteBuf payload, @Nullable UUID sender) {
+        SPLITTER.addPackagePart(communicationId, packetIndex, payload, sender);
     }
 }
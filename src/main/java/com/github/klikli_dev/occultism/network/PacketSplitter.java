@@ -22,8 +22,10 @@
 
 package com.github.klikli_dev.occultism.network;
 
-import com.google.common.primitives.Bytes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import net.minecraft.network.Connection;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
@@ -34,18 +36,29 @@ import net.minecraftforge.network.simple.SimpleChannel;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class PacketSplitter {
     private final static int MAX_PACKET_SIZE = 32767;
-    private static final Map<Integer, Map<Integer, byte[]>> packageCache = new HashMap<>();
+    /**
+     * Partial messages that are not yet reassembled are dropped after this time, e.g. if a part got lost.
+     */
+    private final static long PARTIAL_MESSAGE_TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+    /**
+     * Partial messages keyed by sender and communication id, as communication ids are only unique per sender.
+     */
+    private static final Map<PartKey, PartialMessage> packageCache = new ConcurrentHashMap<>();
+    private static final Statistics statistics = new Statistics();
     private final ResourceLocation CHANNEL_ID;
     private final SimpleChannel CHANNEL;
-    private final Map<Integer, ServerPlayer> messageTargets = new HashMap<>();
+    private final Map<Integer, List<ServerPlayer>> messageTargets = new HashMap<>();
     private final Map<Integer, Integer> packetMaximums = new HashMap<>();
     private final Set<Class<?>> messagesToSplit = new HashSet<>();
     private final int maxNumberOfMessages;
@@ -58,6 +71,14 @@ public class PacketSplitter {
         this.CHANNEL_ID = CHANNEL_ID;
     }
 
+    public static Statistics getStatistics() {
+        return statistics;
+    }
+
+    private static List<Connection> getConnections(List<ServerPlayer> players) {
+        return players.stream().map(player -> player.connection.connection).toList();
+    }
+
     public boolean shouldMessageBeSplit(Class<?> clazz) {
         return this.messagesToSplit.contains(clazz);
     }
@@ -65,10 +86,20 @@ public class PacketSplitter {
     public void sendToPlayer(ServerPlayer player, Object message) {
         if (this.ID == 0) this.ID++; // in case we wrapped around, 0 is reserved for server
         int id = this.ID++;
-        this.messageTargets.put(id, player);
+        this.messageTargets.put(id, List.of(player));
         this.sendPacket(message, id, PacketDistributor.PLAYER.with(() -> player));
     }
 
+    /**
+     * Sends the message to all given players, encoding and splitting it only once.
+     */
+    public void sendToPlayers(List<ServerPlayer> players, Object message) {
+        if (this.ID == 0) this.ID++; // in case we wrapped around, 0 is reserved for server
+        int id = this.ID++;
+        this.messageTargets.put(id, players);
+        this.sendPacket(message, id, PacketDistributor.NMLIST.with(() -> getConnections(players)));
+    }
+
     public void sendToServer(Object message) {
         this.messageTargets.put(0, null);
         this.sendPacket(message, 0, PacketDistributor.SERVER.noArg());
@@ -93,23 +124,49 @@ public class PacketSplitter {
         this.packetMaximums.put(index, maxNumberOfMessages);
         this.messagesToSplit.add(messageType);
 
-        BiConsumer<MSG, FriendlyByteBuf> wrappedEncoder = (msg, buffer) -> {
+        BiConsumer<Object, FriendlyByteBuf> wrappedEncoder = (msg, buffer) -> {
             int id = buffer.readInt();
             buffer.discardReadBytes();
-            ServerPlayer player = this.messageTargets.get(id);
+            List<ServerPlayer> players = this.messageTargets.get(id);
             this.messageTargets.remove(id);
 
             //write a zero for the number of packets in case the packet does not need to be split
             buffer.writeShort(0);
-            encoder.accept(msg, buffer);
-            this.createSplittingConsumer(player).accept(msg, buffer);
+            encoder.accept(messageType.cast(msg), buffer);
+            this.createSplittingConsumer(players).accept(msg, buffer);
         };
 
+        //the decoder does not know the sender, so split messages are only reassembled once the context is available.
+        Function<FriendlyByteBuf, Object> wrappedDecoder = (buffer) -> {
+            int size = buffer.readShort();
 
-        this.CHANNEL.registerMessage(index, messageType, wrappedEncoder, this.createPacketCombiner().andThen(decoder), messageConsumer);
+            //This packet was not split
+            if (size < 2) return decoder.apply(buffer);
+
+            int comId = buffer.readInt();
+            return new SplitMessageHeader(size, comId, buffer.readRetainedSlice(buffer.readVarInt()));
+        };
+
+        BiConsumer<Object, Supplier<NetworkEvent.Context>> wrappedConsumer = (msg, ctx) -> {
+            if (msg instanceof SplitMessageHeader header) {
+                ServerPlayer sender = ctx.get().getSender();
+                FriendlyByteBuf combined = this.combine(index, header, sender != null ? sender.getUUID() : null);
+                try {
+                    msg = decoder.apply(combined);
+                } finally {
+                    //the combined buffer only holds slices of the parts, messages copy what they need while decoding.
+                    combined.release();
+                }
+            }
+            messageConsumer.accept(messageType.cast(msg), ctx);
+        };
+
+        @SuppressWarnings("unchecked")
+        Class<Object> registeredType = (Class<Object>) (Class<?>) messageType;
+        this.CHANNEL.registerMessage(index, registeredType, wrappedEncoder, wrappedDecoder, wrappedConsumer);
     }
 
-    private <MSG> BiConsumer<MSG, FriendlyByteBuf> createSplittingConsumer(ServerPlayer playerEntity) {
+    private <MSG> BiConsumer<MSG, FriendlyByteBuf> createSplittingConsumer(@Nullable List<ServerPlayer> players) {
         return (MSG, buf) -> {
 
             if (buf.writerIndex() < MAX_PACKET_SIZE) {
@@ -128,32 +185,40 @@ public class PacketSplitter {
             final int comId = this.comId++;
 
             //Data for this packet
-            byte[] packetData = new byte[0];
+            ByteBuf packetData = Unpooled.EMPTY_BUFFER;
 
             int maximumPackets = this.packetMaximums.get(packetId);
             int expectedPackets = buf.writerIndex() / MAX_PACKET_SIZE + 1;
             boolean failure = false;
 
+            statistics.messagesSplit.incrementAndGet();
+            statistics.bytesSplit.addAndGet(buf.writerIndex() - currentIndex);
+
             //Loop while data is available.
             while (currentIndex < buf.writerIndex()) {
 
                 int sliceSize = Math.min(MAX_PACKET_SIZE, buf.writerIndex() - currentIndex);
 
-                //Extract the sub data array.
-                byte[] subPacketData = Arrays.copyOfRange(buf.array(), currentIndex, currentIndex + sliceSize);
-
                 if (packetIndex == 0) { // Assign Data for first Packet to this packet.
-                    packetData = subPacketData;
+                    //copy, as the header for this packet is about to be written over the same region of the buffer.
+                    packetData = buf.copy(currentIndex, sliceSize);
                     packetIndex++;
                 } else {
-                    //Construct the split packet.
+                    //Construct the split packet, sharing the memory of the encoded message.
+                    ByteBuf subPacketData = buf.retainedSlice(currentIndex, sliceSize);
                     MessageSplitPacket splitPacketMessage = new MessageSplitPacket(comId, packetIndex++, subPacketData);
 
-                    if (playerEntity == null) {
-                        this.CHANNEL.send(PacketDistributor.SERVER.noArg(), splitPacketMessage);
-                    } else {
-                        this.CHANNEL.send(PacketDistributor.PLAYER.with(() -> playerEntity), splitPacketMessage);
+                    try {
+                        if (players == null) {
+                            this.CHANNEL.send(PacketDistributor.SERVER.noArg(), splitPacketMessage);
+                        } else {
+                            this.CHANNEL.send(PacketDistributor.NMLIST.with(() -> getConnections(players)), splitPacketMessage);
+                        }
+                    } finally {
+                        //the split packet is encoded during send, so the slice is no longer needed.
+                        subPacketData.release();
                     }
+                    statistics.partsSent.incrementAndGet();
                 }
 
                 //Move our working index.
@@ -176,53 +241,153 @@ public class PacketSplitter {
             //number of packets the packet was split into
             buf.writeShort(failure ? expectedPackets : packetIndex);
             buf.writeInt(comId);
-            buf.writeByteArray(packetData);
+            buf.writeVarInt(packetData.readableBytes());
+            buf.writeBytes(packetData);
+            packetData.release();
 
             //copies the written data into a new buffer discarding the old one
             buf.capacity(buf.writerIndex());
         };
     }
 
-    private Function<FriendlyByteBuf, FriendlyByteBuf> createPacketCombiner() {
-        return (buf) -> {
-            int size = buf.readShort();
+    private FriendlyByteBuf combine(int packetId, SplitMessageHeader header, @Nullable UUID sender) {
+        long start = System.nanoTime();
+
+        PartialMessage partialMessage = packageCache.remove(new PartKey(sender, header.comId));
+        if (partialMessage == null || partialMessage.parts.size() != header.size - 1) {
+            int partSize = partialMessage == null ? 0 : partialMessage.parts.size();
+            if (partialMessage != null)
+                partialMessage.release();
+            header.payload.release();
+            int max = this.packetMaximums.get(packetId) == null ? 0 : this.packetMaximums.get(packetId);
+            throw new PacketSplittingException(this.CHANNEL_ID, partSize, header.size, max, packetId);
+        }
 
-            //This packet was not split
-            if (size < 2) return buf;
+        //Combine the cached parts and the part that came with this packet, without copying them.
+        CompositeByteBuf combined = Unpooled.compositeBuffer(header.size);
+        combined.addComponent(true, header.payload);
+        for (int i = 1; i < header.size; i++) {
+            combined.addComponent(true, partialMessage.parts.get(i));
+        }
 
-            int comId = buf.readInt();
+        statistics.messagesReassembled.incrementAndGet();
+        statistics.reassemblyNanos.addAndGet(System.nanoTime() - start);
+        return new FriendlyByteBuf(combined);
+    }
 
-            Map<Integer, byte[]> partsMap = packageCache.get(comId);
-            if (partsMap == null || partsMap.size() != size - 1) {
-                int partSize = partsMap == null ? 0 : partsMap.size();
-                int id = buf.readUnsignedByte();
-                int max = this.packetMaximums.get(id) == null ? 0 : this.packetMaximums.get(id);
-                throw new PacketSplittingException(this.CHANNEL_ID, partSize, size, max, id);
-            }
+    /**
+     * Stores a part of a split message until the message can be reassembled.
+     *
+     * @param communicationId the id of the split message.
+     * @param packetIndex     the index of the part.
+     * @param payload         the payload of the part, ownership is transferred to the cache.
+     * @param sender          the player that sent the part, or null if sent by the server.
+     */
+    public void addPackagePart(int communicationId, int packetIndex, ByteBuf payload, @Nullable UUID sender) {
+        evictStaleParts();
+        PacketSplitter.packageCache.computeIfAbsent(new PartKey(sender, communicationId), (key) -> new PartialMessage())
+                .parts.put(packetIndex, payload);
+    }
 
-            //Add data that came from this packet
-            this.addPackagePart(comId, 0, buf.readByteArray());
+    /**
+     * Drops all partial messages sent by the given player, e.g. when they log out.
+     *
+     * @param sender the player.
+     */
+    public static void evictPlayer(UUID sender) {
+        packageCache.entrySet().removeIf(entry -> {
+            if (!sender.equals(entry.getKey().sender))
+                return false;
+            entry.getValue().release();
+            statistics.partialMessagesEvicted.incrementAndGet();
+            return true;
+        });
+    }
 
-            //Combine Cached Data
-            final byte[] packetData = partsMap.entrySet()
-                    .stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .map(Map.Entry::getValue)
-                    .reduce(new byte[0], Bytes::concat);
+    /**
+     * Drops all partial messages that did not receive all parts in time.
+     */
+    public static void evictStaleParts() {
+        long now = System.nanoTime();
+        packageCache.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().created < PARTIAL_MESSAGE_TIMEOUT)
+                return false;
+            entry.getValue().release();
+            statistics.partialMessagesEvicted.incrementAndGet();
+            return true;
+        });
+    }
 
-            FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.wrappedBuffer(packetData));
+    private static class PartKey {
+        @Nullable
+        final UUID sender;
+        final int comId;
 
-            //remove data from cache
-            packageCache.remove(comId);
-            return buffer;
-        };
+        PartKey(@Nullable UUID sender, int comId) {
+            this.sender = sender;
+            this.comId = comId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PartKey other)) return false;
+            return this.comId == other.comId && Objects.equals(this.sender, other.sender);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(this.sender) + this.comId;
+        }
     }
 
-    public void addPackagePart(int communicationId, int packetIndex, byte[] payload) {
-        //Sync on the message cache since this is still on the Netty thread.
-        synchronized (PacketSplitter.packageCache) {
-            PacketSplitter.packageCache.computeIfAbsent(communicationId, (id) -> new ConcurrentHashMap<>());
-            PacketSplitter.packageCache.get(communicationId).put(packetIndex, payload);
+    /**
+     * The part of a split message that is sent in the wrapped message itself, held until the sender is known.
+     */
+    private static class SplitMessageHeader {
+        final int size;
+        final int comId;
+        final ByteBuf payload;
+
+        SplitMessageHeader(int size, int comId, ByteBuf payload) {
+            this.size = size;
+            this.comId = comId;
+            this.payload = payload;
+        }
+    }
+
+    private static class PartialMessage {
+        final long created = System.nanoTime();
+        final Map<Integer, ByteBuf> parts = new ConcurrentHashMap<>();
+
+        void release() {
+            this.parts.values().forEach(ByteBuf::release);
+            this.parts.clear();
+        }
+    }
+
+    /**
+     * Counters to monitor the cost of splitting and reassembling messages.
+     */
+    public static class Statistics {
+        public final AtomicLong messagesSplit = new AtomicLong();
+        public final AtomicLong bytesSplit = new AtomicLong();
+        public final AtomicLong partsSent = new AtomicLong();
+        public final AtomicLong messagesReassembled = new AtomicLong();
+        public final AtomicLong reassemblyNanos = new AtomicLong();
+        public final AtomicLong partialMessagesEvicted = new AtomicLong();
+
+        public int getPendingPartialMessages() {
+            return packageCache.size();
+        }
+
+        @Override
+        public String toString() {
+            long reassembled = this.messagesReassembled.get();
+            return "split " + this.messagesSplit.get() + " messages (" + this.bytesSplit.get() + " bytes, " +
+                    this.partsSent.get() + " extra parts), reassembled " + reassembled + " messages (avg " +
+                    (reassembled > 0 ? this.reassemblyNanos.get() / reassembled / 1000 : 0) + " us), " +
+                    this.getPendingPartialMessages() + " pending, " + this.partialMessagesEvicted.get() + " evicted";
         }
     }
 }
@@ -248,4 +413,4 @@ class PacketSplittingException extends RuntimeException {
                 " Number of Packets sent " + this.actualSize + ", Number of Packets expected " + this.expectedSize + ", maximum number of packets for a message of this type " + this.maximumSize;
     }
 
-}
\ No newline at end of file
+}
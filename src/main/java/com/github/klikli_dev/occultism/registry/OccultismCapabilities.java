@@ -22,6 +22,7 @@
 
 package com.github.klikli_dev.occultism.registry;
 
+import com.github.klikli_dev.occultism.api.common.capability.IBulkItemHandler;
 import com.github.klikli_dev.occultism.common.capability.DoubleJumpCapability;
 import com.github.klikli_dev.occultism.common.capability.FamiliarSettingsCapability;
 import net.minecraft.resources.ResourceLocation;
@@ -42,11 +43,14 @@ public class OccultismCapabilities {
     });
     public static Capability<FamiliarSettingsCapability> FAMILIAR_SETTINGS = CapabilityManager.get(new CapabilityToken<>() {
     });
+    public static Capability<IBulkItemHandler> BULK_ITEM_HANDLER = CapabilityManager.get(new CapabilityToken<>() {
+    });
 
 
     public static void onRegisterCapabilities(final RegisterCapabilitiesEvent event) {
         event.register(DoubleJumpCapability.class);
         event.register(FamiliarSettingsCapability.class);
+        event.register(IBulkItemHandler.class);
     }
 
     public static void onPlayerClone(final PlayerEvent.Clone event) {
@@ -24,6 +24,10 @@ package com.github.klikli_dev.occultism.registry;
 
 import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.command.DebugAICommand;
+import com.github.klikli_dev.occultism.common.command.DebugLogisticsCommand;
+import com.github.klikli_dev.occultism.common.command.DebugNetworkCommand;
+import com.github.klikli_dev.occultism.common.command.DebugRecipeCacheCommand;
+import com.github.klikli_dev.occultism.common.command.DebugSpiritSchedulerCommand;
 import com.github.klikli_dev.occultism.common.command.NbtCommand;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.tree.LiteralCommandNode;
@@ -38,6 +42,10 @@ public class OccultismCommands {
         LiteralCommandNode<CommandSourceStack> debugCommand = dispatcher.register(
                 Commands.literal("debug")
                         .then(DebugAICommand.register(dispatcher))
+                        .then(DebugSpiritSchedulerCommand.register(dispatcher))
+                        .then(DebugLogisticsCommand.register(dispatcher))
+                        .then(DebugNetworkCommand.register(dispatcher))
+                        .then(DebugRecipeCacheCommand.register(dispatcher))
         );
 
         //register dispatcher for subcommands of /occultism
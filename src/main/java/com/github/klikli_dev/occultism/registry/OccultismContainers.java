@@ -33,7 +33,6 @@ import com.github.klikli_dev.occultism.common.container.storage.SatchelContainer
 import com.github.klikli_dev.occultism.common.container.storage.StableWormholeContainer;
 import com.github.klikli_dev.occultism.common.container.storage.StorageControllerContainer;
 import com.github.klikli_dev.occultism.common.container.storage.StorageRemoteContainer;
-import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import net.minecraft.world.inventory.MenuType;
 import net.minecraftforge.common.extensions.IForgeMenuType;
 import net.minecraftforge.registries.DeferredRegister;
@@ -68,16 +67,14 @@ public class OccultismContainers {
             CONTAINERS.register("spirit",
                     () -> IForgeMenuType
                             .create((windowId, inv, data) -> {
-                                return new SpiritContainer(windowId, inv,
-                                        (SpiritEntity) inv.player.level.getEntity(data.readInt()));
+                                return new SpiritContainer(windowId, inv, SpiritContainer.readClientSpirit(inv, data));
                             }));
 
     public static final RegistryObject<MenuType<SpiritTransporterContainer>> SPIRIT_TRANSPORTER =
             CONTAINERS.register("spirit_transporter",
                     () -> IForgeMenuType
                             .create((windowId, inv, data) -> {
-                                return new SpiritTransporterContainer(windowId, inv,
-                                        (SpiritEntity) inv.player.level.getEntity(data.readInt()));
+                                return new SpiritTransporterContainer(windowId, inv, SpiritContainer.readClientSpirit(inv, data));
                             }));
 
     public static final RegistryObject<MenuType<DimensionalMineshaftContainer>> OTHERWORLD_MINER =
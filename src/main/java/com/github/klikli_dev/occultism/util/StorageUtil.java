@@ -24,6 +24,9 @@ package com.github.klikli_dev.occultism.util;
 
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
+import com.github.klikli_dev.occultism.common.misc.SpiritItemFilter;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacks;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacksDelta;
 import com.github.klikli_dev.occultism.network.OccultismPackets;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerPlayer;
@@ -37,9 +40,6 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
-import net.minecraftforge.registries.ForgeRegistries;
-import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOCase;
 
 import java.util.function.Predicate;
 
@@ -87,7 +87,7 @@ public class StorageUtil {
 
             //finally if requested, send the updated storage controller contents to the player.
             if (sendStackUpdate) {
-                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+                sendStackUpdate(player, container);
                 ((AbstractContainerMenu) container).broadcastChanges();
             }
         }
@@ -125,12 +125,52 @@ public class StorageUtil {
 
             //finally if requested, send the updated storage controller contents to the player.
             if (sendStackUpdate) {
-                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+                sendStackUpdate(player, container);
                 ((AbstractContainerMenu) container).broadcastChanges();
             }
         }
     }
 
+    /**
+     * Sends the storage controller stacks that changed since the last update to the player. Sends the full stacks
+     * instead if the player has not received any stacks yet, or the changes are no longer known. Players with a paged
+     * view get their current page instead.
+     *
+     * @param player    the player to update.
+     * @param container the storage controller container the player has open.
+     */
+    public static void sendStackUpdate(ServerPlayer player, IStorageControllerContainer container) {
+        IStorageController storageController = container.getStorageController();
+        if (storageController == null)
+            return;
+
+        long syncedRevision = container.getSyncedRevision();
+        long revision = storageController.getStacksRevision();
+        if (container.getPagedView().isEnabled()) {
+            //paged views always get the current page, there are no deltas.
+            if (syncedRevision != revision) {
+                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacksPage(container.getPagedView()));
+                container.setSyncedRevision(revision);
+            }
+            return;
+        }
+
+        if (syncedRevision == revision || syncedRevision == IStorageControllerContainer.SYNC_PENDING)
+            return; //nothing changed, or the pending full update will catch up
+
+        MessageUpdateStacksDelta delta = syncedRevision < 0 ? null :
+                storageController.getMessageUpdateStacksDelta(syncedRevision);
+        if (delta != null) {
+            OccultismPackets.sendTo(player, delta);
+        } else {
+            MessageUpdateStacks message = storageController.getMessageUpdateStacks();
+            if (message == null)
+                return; //still being encoded, the storage controller updates its viewers once done
+            OccultismPackets.sendTo(player, message);
+        }
+        container.setSyncedRevision(revision);
+    }
+
     /**
      * Extracts the given amount of items matching the given comparator from the given item handler
      *
@@ -181,81 +221,19 @@ public class StorageUtil {
         return -1;
     }
 
-//    public static int getFirstMatchingSlot(IItemHandler handler, IItemHandler filter, String tagFilter, boolean isBlacklist){
-//        int itemMatchedSlot = getFirstMatchingSlot(handler, filter, isBlacklist);
-//        int tagMatchedSlot = getFirstMatchingSlot(handler, tagFilter, isBlacklist);
-//        //if item match is found (>1) but smaller than tag match (-> item found before tag match), return item match, otherwise tag
-//        return itemMatchedSlot > -1 && itemMatchedSlot < tagMatchedSlot ? itemMatchedSlot : tagMatchedSlot;
-//    }
-
-    public static int getFirstMatchingSlot(IItemHandler handler, IItemHandler filter, String tagFilter, boolean isBlacklist) {
-        return getFirstMatchingSlotAfter(handler, -1, filter, tagFilter, isBlacklist);
+    public static int getFirstMatchingSlot(IItemHandler handler, SpiritItemFilter filter) {
+        return getFirstMatchingSlotAfter(handler, -1, filter);
     }
 
-    public static int getFirstMatchingSlotAfter(IItemHandler handler, int slot, IItemHandler filter, String tagFilter, boolean isBlacklist) {
+    public static int getFirstMatchingSlotAfter(IItemHandler handler, int slot, SpiritItemFilter filter) {
         for (int i = slot + 1; i < handler.getSlots(); i++) {
-            if (!handler.getStackInSlot(i).isEmpty()) {
-                boolean matches = matchesFilter(handler.getStackInSlot(i), filter) ||
-                        matchesFilter(handler.getStackInSlot(i), tagFilter);
-
-                //if we're in blacklist mode, if the item matches either item or tag -> we continue into next iteration
-                //if we're in blacklist mode and none of the filters match -> we return
-                //if we're in whitelist mode, if the item matches either item or tag -> we return
-                //if we're in whitelist mode, if the item matches neither item nor tag -> we continue
-                if ((!isBlacklist && matches) || (isBlacklist && !matches))
-                    return i;
-            }
+            //the filter takes care of blacklist/whitelist mode
+            if (filter.test(handler.getStackInSlot(i)))
+                return i;
         }
         return -1;
     }
 
-    public static boolean matchesFilter(ItemStack stack, IItemHandler filter) {
-        for (int i = 0; i < filter.getSlots(); i++) {
-            ItemStack filtered = filter.getStackInSlot(i);
-
-            boolean equals = filtered.sameItem(stack);
-
-            if (equals) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-
-    /**
-     * Checks if stack matches the given tag filter (wildcard match)
-     */
-    public static boolean matchesFilter(ItemStack stack, String tagFilter) {
-        if (tagFilter.isEmpty())
-            return false;
-
-        String[] filters = tagFilter.split(";");
-        for (String filter : filters) {
-
-            if (filter.startsWith("item:")) {
-                filter = filter.substring(5);
-                if (FilenameUtils.wildcardMatch(ForgeRegistries.ITEMS.getKey(stack.getItem()).toString(), filter, IOCase.INSENSITIVE))
-                    return true;
-            } else {
-                //tags should not be prefixed, but we allow it and handle it
-                if (filter.startsWith("tag:")) {
-                    filter = filter.substring(4);
-                }
-                final String finalFilter = filter;
-                boolean equals = stack.getTags().anyMatch(rl -> {
-                    return FilenameUtils.wildcardMatch(rl.toString(), finalFilter, IOCase.INSENSITIVE);
-                });
-
-                if (equals) {
-                    return true;
-                }
-            }
-
-        }
-        return false;
-    }
-
     /**
      * Drops all items of the given block entity. Tile entity <bold>must</bold> return a combined item handler for
      * direction null.
@@ -0,0 +1,193 @@
+/*
+ * MIT License
+ *
+ * Copyright 2022 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.util;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.phys.Vec3;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Searches spirit work areas for blocks without checking every position.
+ * Chunk sections whose palette cannot contain a matching block state are skipped entirely, and sections are visited
+ * nearest-first so the search can stop as soon as no closer match is possible.
+ * Only loaded chunks are searched, work areas never cause chunk loads.
+ */
+public class WorkAreaUtil {
+
+    //region Static Methods
+
+    /**
+     * Calls the action for every block within the given box that matches the given predicate.
+     * Chunk sections whose palette cannot contain a matching block state are skipped.
+     *
+     * @param level          the level.
+     * @param min            the min corner of the box, inclusive.
+     * @param max            the max corner of the box, inclusive.
+     * @param statePredicate the block state predicate. Must only depend on the state.
+     * @param action         the action to call with the immutable position of each match.
+     */
+    public static void forEachBlock(Level level, BlockPos min, BlockPos max, Predicate<BlockState> statePredicate,
+                                    Consumer<BlockPos> action) {
+        for (Section section : getSections(level, min, max, Vec3.ZERO)) {
+            LevelChunkSection chunkSection = section.chunk.getSection(level.getSectionIndexFromSectionY(section.y));
+            if (chunkSection.hasOnlyAir() || !chunkSection.maybeHas(statePredicate))
+                continue;
+
+            int minX = Math.max(min.getX(), SectionPos.sectionToBlockCoord(section.x));
+            int minY = Math.max(min.getY(), SectionPos.sectionToBlockCoord(section.y));
+            int minZ = Math.max(min.getZ(), SectionPos.sectionToBlockCoord(section.z));
+            int maxX = Math.min(max.getX(), SectionPos.sectionToBlockCoord(section.x, 15));
+            int maxY = Math.min(max.getY(), SectionPos.sectionToBlockCoord(section.y, 15));
+            int maxZ = Math.min(max.getZ(), SectionPos.sectionToBlockCoord(section.z, 15));
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        if (statePredicate.test(chunkSection.getBlockState(x & 15, y & 15, z & 15)))
+                            action.accept(new BlockPos(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the block entity closest to the origin within the given box that matches the given predicate.
+     * Iterates the block entities of each chunk instead of the positions.
+     *
+     * @param level     the level.
+     * @param min       the min corner of the box, inclusive.
+     * @param max       the max corner of the box, inclusive.
+     * @param origin    the position to measure distance from.
+     * @param predicate the block entity predicate.
+     * @return the closest matching block entity, or null if none found.
+     */
+    @Nullable
+    public static BlockEntity findClosestBlockEntity(Level level, BlockPos min, BlockPos max, Vec3 origin,
+                                                     Predicate<BlockEntity> predicate) {
+        BlockEntity closest = null;
+        double closestDistance = Double.MAX_VALUE;
+
+        for (int chunkX = SectionPos.blockToSectionCoord(min.getX()); chunkX <= SectionPos.blockToSectionCoord(max.getX()); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(min.getZ()); chunkZ <= SectionPos.blockToSectionCoord(max.getZ()); chunkZ++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null)
+                    continue;
+
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    BlockPos pos = blockEntity.getBlockPos();
+                    if (pos.getX() < min.getX() || pos.getY() < min.getY() || pos.getZ() < min.getZ() ||
+                            pos.getX() > max.getX() || pos.getY() > max.getY() || pos.getZ() > max.getZ())
+                        continue;
+
+                    double distance = distanceToCenter(origin, pos.getX(), pos.getY(), pos.getZ());
+                    if (distance < closestDistance && predicate.test(blockEntity)) {
+                        closest = blockEntity;
+                        closestDistance = distance;
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Gets the loaded chunk sections intersecting the given box, sorted by their distance to the origin.
+     */
+    protected static List<Section> getSections(Level level, BlockPos min, BlockPos max, Vec3 origin) {
+        int minSectionY = Math.max(level.getMinSection(), SectionPos.blockToSectionCoord(min.getY()));
+        int maxSectionY = Math.min(level.getMaxSection() - 1, SectionPos.blockToSectionCoord(max.getY()));
+
+        List<Section> sections = new ArrayList<>();
+        for (int x = SectionPos.blockToSectionCoord(min.getX()); x <= SectionPos.blockToSectionCoord(max.getX()); x++) {
+            for (int z = SectionPos.blockToSectionCoord(min.getZ()); z <= SectionPos.blockToSectionCoord(max.getZ()); z++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(x, z);
+                if (chunk == null)
+                    continue;
+
+                for (int y = minSectionY; y <= maxSectionY; y++) {
+                    sections.add(new Section(chunk, x, y, z, distanceToSection(origin, x, y, z)));
+                }
+            }
+        }
+        sections.sort(Comparator.comparingDouble(section -> section.distance));
+        return sections;
+    }
+
+    /**
+     * @return the squared distance from the origin to the center of the given block.
+     */
+    protected static double distanceToCenter(Vec3 origin, int x, int y, int z) {
+        double deltaX = origin.x - (x + 0.5);
+        double deltaY = origin.y - (y + 0.5);
+        double deltaZ = origin.z - (z + 0.5);
+        return deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+    }
+
+    /**
+     * @return the squared distance from the origin to the closest block center in the given section, as lower bound
+     * for all blocks in the section.
+     */
+    protected static double distanceToSection(Vec3 origin, int sectionX, int sectionY, int sectionZ) {
+        double deltaX = distanceToRange(origin.x, SectionPos.sectionToBlockCoord(sectionX) + 0.5, SectionPos.sectionToBlockCoord(sectionX, 15) + 0.5);
+        double deltaY = distanceToRange(origin.y, SectionPos.sectionToBlockCoord(sectionY) + 0.5, SectionPos.sectionToBlockCoord(sectionY, 15) + 0.5);
+        double deltaZ = distanceToRange(origin.z, SectionPos.sectionToBlockCoord(sectionZ) + 0.5, SectionPos.sectionToBlockCoord(sectionZ, 15) + 0.5);
+        return deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+    }
+
+    protected static double distanceToRange(double value, double min, double max) {
+        return value < min ? min - value : value > max ? value - max : 0;
+    }
+    //endregion Static Methods
+
+    protected static class Section {
+        //region Fields
+        public final LevelChunk chunk;
+        public final int x;
+        public final int y;
+        public final int z;
+        public final double distance;
+        //endregion Fields
+
+        //region Initialization
+        public Section(LevelChunk chunk, int x, int y, int z, double distance) {
+            this.chunk = chunk;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.distance = distance;
+        }
+        //endregion Initialization
+    }
+}